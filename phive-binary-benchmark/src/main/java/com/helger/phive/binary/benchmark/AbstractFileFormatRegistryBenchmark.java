@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.phive.binary.FileFormatRegistry;
+import com.helger.phive.binary.IFileFormatDescriptor;
+
+/**
+ * Base class for the {@link FileFormatRegistry} lookup benchmarks. Each invocation looks up the next
+ * key of a fixed mix of known and unknown keys. The methods with the <code>baseline</code> prefix
+ * use {@link LockedFileFormatRegistry} for comparison with the previous read-write locked
+ * implementation. The subclasses only differ in the number of threads.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode ({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public abstract class AbstractFileFormatRegistryBenchmark
+{
+  private static final String [] FILE_EXTENSIONS = { "pdf",
+                                                     "png",
+                                                     "jpg",
+                                                     "jpeg",
+                                                     "gif",
+                                                     "tif",
+                                                     "tiff",
+                                                     "xlsx",
+                                                     "xls",
+                                                     "xml",
+                                                     "csv",
+                                                     "psd",
+                                                     "docx",
+                                                     "PDF",
+                                                     "tar.gz",
+                                                     "exe" };
+  private static final String [] MIME_TYPES = { "application/pdf",
+                                                "image/png",
+                                                "image/jpeg",
+                                                "image/gif",
+                                                "image/tiff",
+                                                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+                                                "application/vnd.ms-excel",
+                                                "application/xml",
+                                                "text/xml",
+                                                "text/csv",
+                                                "image/vnd.adobe.photoshop",
+                                                "application/octet-stream",
+                                                "text/plain",
+                                                "video/mp4",
+                                                "application/json",
+                                                "image/webp" };
+  private static final String [] CONTENT_TYPES = { "application/pdf",
+                                                   "Application/PDF",
+                                                   "text/xml; charset=UTF-8",
+                                                   "text/csv;charset=ISO-8859-1;header=present",
+                                                   " image/png ",
+                                                   "IMAGE/JPEG",
+                                                   "multipart/form-data; boundary=xyz",
+                                                   "application/octet-stream" };
+  private static final String [] FILENAMES = { "report.pdf",
+                                               "/var/data/invoices/2026/invoice-0815.PDF",
+                                               "C:\\Users\\test\\Pictures\\scan.tiff",
+                                               "image.final.png",
+                                               "archive.tar.gz",
+                                               "budget.xlsx",
+                                               "README",
+                                               "https://example.org/files/photo.jpeg" };
+
+  /**
+   * The position in the key arrays. Each thread has its own cursor.
+   */
+  @State (Scope.Thread)
+  public static class Cursor
+  {
+    private int m_nIndex = 0;
+
+    int next (final int nLength)
+    {
+      final int ret = m_nIndex < nLength ? m_nIndex : 0;
+      m_nIndex = ret + 1;
+      return ret;
+    }
+  }
+
+  private FileFormatRegistry m_aRegistry;
+  private LockedFileFormatRegistry m_aBaseline;
+  private String [] m_aNames;
+  private byte [] [] m_aLeadingBytes;
+
+  @Setup
+  public void setup () throws IOException
+  {
+    m_aRegistry = FileFormatRegistry.getInstance ();
+    m_aBaseline = new LockedFileFormatRegistry (m_aRegistry.getAllFileFormatDescriptors ().values ());
+
+    m_aNames = m_aRegistry.getAllFileFormatDescriptors ().keySet ().toArray (new String [0]);
+    final int nFormats = PhiveBenchmarkPayloads.FORMATS.length;
+    m_aLeadingBytes = new byte [nFormats + 1] [];
+    for (int i = 0; i < nFormats; ++i)
+    {
+      final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+      PhiveBenchmarkPayloads.writePayload (PhiveBenchmarkPayloads.FORMATS[i], 1024, aBAOS);
+      m_aLeadingBytes[i] = aBAOS.toByteArray ();
+    }
+    // Unknown content
+    m_aLeadingBytes[nFormats] = new byte [1024];
+  }
+
+  @Benchmark
+  public IFileFormatDescriptor byFileExtension (final Cursor aCursor)
+  {
+    return m_aRegistry.getFileFormatDescriptorByFileExtension (FILE_EXTENSIONS[aCursor.next (FILE_EXTENSIONS.length)]);
+  }
+
+  @Benchmark
+  public IFileFormatDescriptor baselineByFileExtension (final Cursor aCursor)
+  {
+    return m_aBaseline.getFileFormatDescriptorByFileExtension (FILE_EXTENSIONS[aCursor.next (FILE_EXTENSIONS.length)]);
+  }
+
+  @Benchmark
+  public IFileFormatDescriptor byMimeType (final Cursor aCursor)
+  {
+    return m_aRegistry.getFileFormatDescriptorByMimeType (MIME_TYPES[aCursor.next (MIME_TYPES.length)]);
+  }
+
+  @Benchmark
+  public IFileFormatDescriptor baselineByMimeType (final Cursor aCursor)
+  {
+    return m_aBaseline.getFileFormatDescriptorByMimeType (MIME_TYPES[aCursor.next (MIME_TYPES.length)]);
+  }
+
+  @Benchmark
+  public IFileFormatDescriptor byName (final Cursor aCursor)
+  {
+    return m_aRegistry.getFileFormatDescriptorOfName (m_aNames[aCursor.next (m_aNames.length)]);
+  }
+
+  @Benchmark
+  public IFileFormatDescriptor baselineByName (final Cursor aCursor)
+  {
+    return m_aBaseline.getFileFormatDescriptorOfName (m_aNames[aCursor.next (m_aNames.length)]);
+  }
+
+  @Benchmark
+  public IFileFormatDescriptor byContentType (final Cursor aCursor)
+  {
+    return m_aRegistry.getFileFormatDescriptorByContentType (CONTENT_TYPES[aCursor.next (CONTENT_TYPES.length)]);
+  }
+
+  @Benchmark
+  public IFileFormatDescriptor byFilename (final Cursor aCursor)
+  {
+    return m_aRegistry.getFileFormatDescriptorByFilename (FILENAMES[aCursor.next (FILENAMES.length)]);
+  }
+
+  @Benchmark
+  public IFileFormatDescriptor detectFileFormat (final Cursor aCursor)
+  {
+    return m_aRegistry.detectFileFormat (m_aLeadingBytes[aCursor.next (m_aLeadingBytes.length)]);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.benchmark;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IFileFormatDescriptor;
+import com.helger.phive.binary.IPhiveContentValidator;
+
+/**
+ * Validates a valid payload of a single file format with a single content validation mode. The
+ * payload is either held in a byte array or read from a file, so that memory mapping and positional
+ * reads are covered as well. Each invocation must return <code>true</code>. By default payloads
+ * from 1 KB to 1 MB are used. Payloads of up to 1 GB can be selected explicitly, which is why the
+ * forked JVM has a heap of 4 GB.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode ({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ContentValidatorBenchmark
+{
+  public static final String SOURCE_ARRAY = "array";
+  public static final String SOURCE_FILE = "file";
+
+  // The parameter fields are named like the command line parameters of JMH
+
+  @Param ({ "PDF", "PNG", "JPEG", "GIF", "TIFF", "XLSX", "XLS", "XML", "CSV", "PSD" })
+  public String format;
+
+  @Param ({ "LEADING_BYTES", "HEAD_AND_TAIL", "FULL_PARSE" })
+  public EPhiveContentValidationMode mode;
+
+  // Large payloads are opt-in via "-p payloadSize=67108864,1073741824"
+  @Param ({ "1024", "65536", "1048576" })
+  public long payloadSize;
+
+  @Param ({ SOURCE_ARRAY, SOURCE_FILE })
+  public String source;
+
+  private IPhiveContentValidator m_aValidator;
+  private byte [] m_aData;
+  private FileChannel m_aChannel;
+
+  @Setup (Level.Trial)
+  public void setup () throws IOException
+  {
+    final IFileFormatDescriptor aDescriptor = PhiveBenchmarkPayloads.getFileFormatDescriptor (format);
+    m_aValidator = aDescriptor.findContentValidator (mode);
+    if (m_aValidator == null)
+      throw new IllegalStateException ("File format " + format + " has no " + mode + " content validator");
+
+    if (SOURCE_ARRAY.equals (source))
+      m_aData = PhiveBenchmarkPayloads.getPayload (format, payloadSize);
+    else
+      if (SOURCE_FILE.equals (source))
+        m_aChannel = FileChannel.open (PhiveBenchmarkPayloads.getPayloadFile (format, payloadSize),
+                                       StandardOpenOption.READ);
+      else
+        throw new IllegalArgumentException ("Unsupported source '" + source + "'");
+
+    // Fail early instead of measuring the rejection path
+    if (!validate ())
+      throw new IllegalStateException ("The " + format + " payload is not valid in mode " + mode);
+  }
+
+  @TearDown (Level.Trial)
+  public void tearDown () throws IOException
+  {
+    m_aData = null;
+    if (m_aChannel != null)
+    {
+      m_aChannel.close ();
+      m_aChannel = null;
+    }
+  }
+
+  @Benchmark
+  public boolean validate () throws IOException
+  {
+    if (m_aData != null)
+      return m_aValidator.isValidContent (m_aData);
+    return m_aValidator.isValidContent (m_aChannel);
+  }
+}
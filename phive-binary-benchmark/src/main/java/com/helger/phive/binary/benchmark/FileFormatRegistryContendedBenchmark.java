@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.benchmark;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link com.helger.phive.binary.FileFormatRegistry} lookups with one thread per available
+ * processor, all using the same registry. This shows the cost of contention on the read lock of the
+ * baseline.
+ *
+ * @author Philip Helger
+ */
+@Threads (Threads.MAX)
+public class FileFormatRegistryContendedBenchmark extends AbstractFileFormatRegistryBenchmark
+{}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.benchmark;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.phive.binary.IFileFormatDescriptor;
+import com.helger.phive.binary.PhiveBinaryHelper;
+
+/**
+ * Baseline for the lookup benchmarks: the lookups of <code>FileFormatRegistry</code> as they were
+ * implemented up to version 0.3.0, with all maps guarded by a read-write lock.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+final class LockedFileFormatRegistry
+{
+  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, IFileFormatDescriptor> m_aNameMap = new CommonsHashMap <> ();
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, IFileFormatDescriptor> m_aFileExtMap = new CommonsHashMap <> ();
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, IFileFormatDescriptor> m_aMimeTypeMap = new CommonsHashMap <> ();
+
+  LockedFileFormatRegistry (@NonNull final Iterable <? extends IFileFormatDescriptor> aDescriptors)
+  {
+    m_aRWLock.writeLocked ( () -> {
+      for (final IFileFormatDescriptor aDescriptor : aDescriptors)
+      {
+        m_aNameMap.put (aDescriptor.getName (), aDescriptor);
+        for (final String sFileExt : aDescriptor.getAllAllowedFileExtensions ())
+          m_aFileExtMap.put (sFileExt, aDescriptor);
+        for (final String sMimeType : aDescriptor.getAllAllowedMimeTypes ())
+          m_aMimeTypeMap.put (sMimeType, aDescriptor);
+      }
+    });
+  }
+
+  @Nullable
+  IFileFormatDescriptor getFileFormatDescriptorOfName (@Nullable final String sName)
+  {
+    if (StringHelper.isEmpty (sName))
+      return null;
+    return m_aRWLock.readLockedGet ( () -> m_aNameMap.get (sName));
+  }
+
+  @Nullable
+  IFileFormatDescriptor getFileFormatDescriptorByFileExtension (@Nullable final String sFileExt)
+  {
+    if (PhiveBinaryHelper.isValidFileExtension (sFileExt))
+      return m_aRWLock.readLockedGet ( () -> m_aFileExtMap.get (sFileExt));
+    return null;
+  }
+
+  @Nullable
+  IFileFormatDescriptor getFileFormatDescriptorByMimeType (@Nullable final String sMimeType)
+  {
+    if (PhiveBinaryHelper.isValidMimeType (sMimeType))
+      return m_aRWLock.readLockedGet ( () -> m_aMimeTypeMap.get (sMimeType));
+    return null;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.phive.binary.EPhiveBatchValidationResult;
+import com.helger.phive.binary.FileFormatRegistry;
+import com.helger.phive.binary.IFileFormatDescriptor;
+import com.helger.phive.binary.PhiveBatchValidationInput;
+import com.helger.phive.binary.PhiveBatchValidator;
+
+/**
+ * Validates a batch with payloads of all built-in file formats in parallel, to show how
+ * {@link PhiveBatchValidator} scales with the parallelism of the pool.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode ({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3, time = 5)
+@Measurement (iterations = 5, time = 5)
+@Fork (value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class PhiveBatchValidatorBenchmark
+{
+  // The parameter fields are named like the command line parameters of JMH
+
+  @Param ({ "1", "2", "4", "8" })
+  public int parallelism;
+
+  @Param ({ "1000" })
+  public int batchSize;
+
+  @Param ({ "1024", "65536" })
+  public long payloadSize;
+
+  private ForkJoinPool m_aPool;
+  private PhiveBatchValidator m_aValidator;
+  private ICommonsList <PhiveBatchValidationInput> m_aInputs;
+
+  @Setup (Level.Trial)
+  public void setup () throws IOException
+  {
+    m_aPool = new ForkJoinPool (parallelism);
+    m_aValidator = new PhiveBatchValidator (FileFormatRegistry.getInstance (),
+                                            IFileFormatDescriptor::getContentValidatorFavourAccuracy,
+                                            m_aPool,
+                                            PhiveBatchValidator.DEFAULT_SPLIT_THRESHOLD_BYTES);
+
+    final int nFormats = PhiveBenchmarkPayloads.FORMATS.length;
+    final String [] aMimeTypes = new String [nFormats];
+    final byte [] [] aPayloads = new byte [nFormats] [];
+    for (int i = 0; i < nFormats; ++i)
+    {
+      final String sFormat = PhiveBenchmarkPayloads.FORMATS[i];
+      aMimeTypes[i] = PhiveBenchmarkPayloads.getFileFormatDescriptor (sFormat)
+                                            .getAllAllowedMimeTypes ()
+                                            .iterator ()
+                                            .next ();
+      aPayloads[i] = PhiveBenchmarkPayloads.getPayload (sFormat, payloadSize);
+    }
+
+    // The items share the payload arrays, as the validation only reads them
+    m_aInputs = new CommonsArrayList <> (batchSize);
+    for (int i = 0; i < batchSize; ++i)
+      m_aInputs.add (new PhiveBatchValidationInput (aMimeTypes[i % nFormats], aPayloads[i % nFormats]));
+
+    // Fail early instead of measuring the rejection path
+    if (!validate ().stream ().allMatch (EPhiveBatchValidationResult::isValid))
+      throw new IllegalStateException ("Not all payloads of the batch are valid");
+  }
+
+  @TearDown (Level.Trial)
+  public void tearDown ()
+  {
+    m_aPool.shutdown ();
+  }
+
+  @Benchmark
+  public ICommonsList <EPhiveBatchValidationResult> validate ()
+  {
+    return m_aValidator.validate (m_aInputs);
+  }
+}
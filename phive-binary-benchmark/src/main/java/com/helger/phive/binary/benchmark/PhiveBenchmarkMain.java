@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark JAR. It accepts the regular JMH command line options and always adds
+ * the GC profiler, so that the allocation rate is reported next to throughput and latency.
+ *
+ * @author Philip Helger
+ */
+public final class PhiveBenchmarkMain
+{
+  private PhiveBenchmarkMain ()
+  {}
+
+  public static void main (final String [] args) throws CommandLineOptionException, RunnerException
+  {
+    final CommandLineOptions aCmdLine = new CommandLineOptions (args);
+    final OptionsBuilder aBuilder = new OptionsBuilder ();
+    aBuilder.parent (aCmdLine).addProfiler (GCProfiler.class);
+    // Run all benchmarks of this module, if no selection was made
+    if (aCmdLine.getIncludes ().isEmpty ())
+      aBuilder.include (PhiveBenchmarkMain.class.getPackage ().getName () + ".*");
+    new Runner (aBuilder.build ()).run ();
+  }
+}
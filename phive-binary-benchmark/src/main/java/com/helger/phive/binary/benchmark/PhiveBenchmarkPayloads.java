@@ -0,0 +1,524 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.FileFormatRegistry;
+import com.helger.phive.binary.IFileFormatDescriptor;
+
+/**
+ * Creates structurally valid payloads of all built-in file formats with an approximate target size.
+ * The payloads pass all content validation modes. The bulk of each payload is filler data that is
+ * never decoded by the validators (image data, stream content etc.). Generated payloads are cached
+ * as files in the temporary directory, because each benchmark fork needs them again.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+public final class PhiveBenchmarkPayloads
+{
+  /** The names of all file formats payloads can be created for */
+  public static final String [] FORMATS = { "PDF", "PNG", "JPEG", "GIF", "TIFF", "XLSX", "XLS", "XML", "CSV", "PSD" };
+
+  private static final int FILLER_SIZE = 64 * 1024;
+  // Never contains 0xff, so it is also valid entropy coded JPEG data
+  private static final byte [] FILLER = new byte [FILLER_SIZE];
+  static
+  {
+    long nSeed = 0x9e3779b97f4a7c15L;
+    for (int i = 0; i < FILLER_SIZE; ++i)
+    {
+      nSeed = nSeed * 6364136223846793005L + 1442695040888963407L;
+      FILLER[i] = (byte) ((nSeed >>> 33) & 0x7f);
+    }
+  }
+
+  /**
+   * Counts the written bytes, to calculate offsets.
+   */
+  private static final class CountingOutputStream extends FilterOutputStream
+  {
+    private long m_nCount = 0;
+
+    CountingOutputStream (@NonNull final OutputStream aOS)
+    {
+      super (aOS);
+    }
+
+    @Override
+    public void write (final int b) throws IOException
+    {
+      out.write (b);
+      m_nCount++;
+    }
+
+    @Override
+    public void write (final byte [] aBuf, final int nOfs, final int nLen) throws IOException
+    {
+      out.write (aBuf, nOfs, nLen);
+      m_nCount += nLen;
+    }
+
+    long getCount ()
+    {
+      return m_nCount;
+    }
+  }
+
+  private PhiveBenchmarkPayloads ()
+  {}
+
+  private static void _writeFiller (@NonNull final OutputStream aOS, final long nLen) throws IOException
+  {
+    long nRemaining = nLen;
+    while (nRemaining > 0)
+    {
+      final int nChunk = (int) Math.min (nRemaining, FILLER_SIZE);
+      aOS.write (FILLER, 0, nChunk);
+      nRemaining -= nChunk;
+    }
+  }
+
+  private static void _writeASCII (@NonNull final OutputStream aOS, @NonNull final String s) throws IOException
+  {
+    aOS.write (s.getBytes (StandardCharsets.ISO_8859_1));
+  }
+
+  private static void _writePDF (@NonNull final CountingOutputStream aOS, final long nSize) throws IOException
+  {
+    final String [] aObjects = { "<< /Type /Catalog /Pages 2 0 R >>",
+                                 "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+                                 "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] /Contents 4 0 R >>" };
+    final long nStreamLen = Math.max (0, nSize - 600);
+    final long [] aOffsets = new long [aObjects.length + 1];
+    _writeASCII (aOS, "%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+    for (int i = 0; i < aObjects.length; ++i)
+    {
+      aOffsets[i] = aOS.getCount ();
+      _writeASCII (aOS, (i + 1) + " 0 obj\n" + aObjects[i] + "\nendobj\n");
+    }
+    aOffsets[aObjects.length] = aOS.getCount ();
+    _writeASCII (aOS, (aObjects.length + 1) + " 0 obj\n<< /Length " + nStreamLen + " >>\nstream\n");
+    _writeFiller (aOS, nStreamLen);
+    _writeASCII (aOS, "\nendstream\nendobj\n");
+
+    final long nXRef = aOS.getCount ();
+    final StringBuilder aSB = new StringBuilder ("xref\n0 " + (aOffsets.length + 1) + "\n0000000000 65535 f\r\n");
+    for (final long nOffset : aOffsets)
+      aSB.append (String.format ("%010d 00000 n\r\n", Long.valueOf (nOffset)));
+    aSB.append ("trailer\n<< /Size ").append (aOffsets.length + 1).append (" /Root 1 0 R >>\n");
+    aSB.append ("startxref\n").append (nXRef).append ("\n%%EOF\n");
+    _writeASCII (aOS, aSB.toString ());
+  }
+
+  private static void _writePNGChunk (@NonNull final OutputStream aOS,
+                                      @NonNull final String sType,
+                                      @NonNull final byte [] aData,
+                                      final int nLen) throws IOException
+  {
+    final byte [] aType = sType.getBytes (StandardCharsets.US_ASCII);
+    final CRC32 aCRC = new CRC32 ();
+    aCRC.update (aType);
+    aCRC.update (aData, 0, nLen);
+    aOS.write (ByteBuffer.allocate (8).putInt (nLen).put (aType).array ());
+    aOS.write (aData, 0, nLen);
+    aOS.write (ByteBuffer.allocate (4).putInt ((int) aCRC.getValue ()).array ());
+  }
+
+  private static void _writePNG (@NonNull final OutputStream aOS, final long nSize) throws IOException
+  {
+    aOS.write (new byte [] { (byte) 0x89, 0x50, 0x4e, 0x47, 0x0d, 0x0a, 0x1a, 0x0a });
+    // 1024 x 1024 pixels, 8 bit RGB
+    _writePNGChunk (aOS, "IHDR", ByteBuffer.allocate (13).putInt (1024).putInt (1024).put ((byte) 8).put ((byte) 2).array (), 13);
+    long nRemaining = Math.max (1, nSize - 57);
+    while (nRemaining > 0)
+    {
+      final int nChunk = (int) Math.min (nRemaining, FILLER_SIZE);
+      _writePNGChunk (aOS, "IDAT", FILLER, nChunk);
+      nRemaining -= nChunk + 12;
+    }
+    _writePNGChunk (aOS, "IEND", new byte [0], 0);
+  }
+
+  private static void _writeJPG (@NonNull final OutputStream aOS, final long nSize) throws IOException
+  {
+    // SOI, SOF0 for 1024 x 1024 with one component and SOS for that component
+    aOS.write (new byte [] { (byte) 0xff,
+                             (byte) 0xd8,
+                             (byte) 0xff,
+                             (byte) 0xc0,
+                             0,
+                             11,
+                             8,
+                             4,
+                             0,
+                             4,
+                             0,
+                             1,
+                             1,
+                             0x11,
+                             0,
+                             (byte) 0xff,
+                             (byte) 0xda,
+                             0,
+                             8,
+                             1,
+                             1,
+                             0,
+                             0,
+                             0x3f,
+                             0 });
+    _writeFiller (aOS, Math.max (1, nSize - 27));
+    aOS.write (new byte [] { (byte) 0xff, (byte) 0xd9 });
+  }
+
+  private static void _writeGIF (@NonNull final OutputStream aOS, final long nSize) throws IOException
+  {
+    // Header, logical screen descriptor 1024 x 1024 with a 2 entry global color table
+    aOS.write (new byte [] { 'G', 'I', 'F', '8', '9', 'a', 0, 4, 0, 4, (byte) 0x80, 0, 0 });
+    aOS.write (new byte [] { 0, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff });
+    // Image descriptor and LZW minimum code size
+    aOS.write (new byte [] { 0x2c, 0, 0, 0, 0, 0, 4, 0, 4, 0, 2 });
+    long nRemaining = Math.max (1, nSize - 32);
+    while (nRemaining > 0)
+    {
+      final int nBlock = (int) Math.min (nRemaining, 255);
+      aOS.write (nBlock);
+      aOS.write (FILLER, 0, nBlock);
+      nRemaining -= nBlock + 1;
+    }
+    // Block terminator and trailer
+    aOS.write (new byte [] { 0, 0x3b });
+  }
+
+  private static void _writeTIFF (@NonNull final OutputStream aOS, final long nSize) throws IOException
+  {
+    final long nStripLen = Math.max (1, nSize - 62);
+    final ByteBuffer aBB = ByteBuffer.allocate (62).order (ByteOrder.BIG_ENDIAN);
+    aBB.put ((byte) 'M').put ((byte) 'M').putShort ((short) 42).putInt (8);
+    aBB.putShort ((short) 4);
+    aBB.putShort ((short) 256).putShort ((short) 3).putInt (1).putShort ((short) 1024).putShort ((short) 0);
+    aBB.putShort ((short) 257).putShort ((short) 3).putInt (1).putShort ((short) 1024).putShort ((short) 0);
+    aBB.putShort ((short) 273).putShort ((short) 4).putInt (1).putInt (62);
+    aBB.putShort ((short) 279).putShort ((short) 4).putInt (1).putInt ((int) nStripLen);
+    aBB.putInt (0);
+    aOS.write (aBB.array ());
+    _writeFiller (aOS, nStripLen);
+  }
+
+  private static void _writeXLSX (@NonNull final OutputStream aOS, final long nSize) throws IOException
+  {
+    final ZipOutputStream aZOS = new ZipOutputStream (aOS);
+    // Store the filler uncompressed, so that the size matches
+    aZOS.setLevel (Deflater.NO_COMPRESSION);
+    aZOS.putNextEntry (new ZipEntry ("[Content_Types].xml"));
+    _writeASCII (aZOS,
+                 "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\"/>");
+    aZOS.closeEntry ();
+    aZOS.putNextEntry (new ZipEntry ("xl/workbook.xml"));
+    _writeASCII (aZOS,
+                 "<?xml version=\"1.0\" encoding=\"UTF-8\"?><workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"/>");
+    aZOS.closeEntry ();
+    aZOS.putNextEntry (new ZipEntry ("xl/media/image1.bin"));
+    _writeFiller (aZOS, Math.max (0, nSize - 800));
+    aZOS.closeEntry ();
+    aZOS.finish ();
+  }
+
+  private static void _writeXLS (@NonNull final OutputStream aOS, final long nSize) throws IOException
+  {
+    // Version 4 compound file with 4096 byte sectors. Layout: header, FAT sectors, directory
+    // sector, workbook stream, DIFAT sectors
+    final int nSectorSize = 4096;
+    final int nEntriesPerSector = nSectorSize / 4;
+    final long nFree = 0xffffffffL;
+    final long nEndOfChain = 0xfffffffeL;
+    final long nFATSectorMarker = 0xfffffffdL;
+    final long nDIFATSectorMarker = 0xfffffffcL;
+
+    // The workbook stream must not be stored in the mini stream
+    final long nWorkbookSize = Math.max (nSectorSize, nSize - 3 * nSectorSize);
+    final long nWorkbookSectors = (nWorkbookSize + nSectorSize - 1) / nSectorSize;
+    long nFATSectors = 1;
+    long nDIFATSectors = 0;
+    while (true)
+    {
+      final long nTotal = nFATSectors + 1 + nWorkbookSectors + nDIFATSectors;
+      final long nNeededFAT = (nTotal + nEntriesPerSector - 1) / nEntriesPerSector;
+      final long nNeededDIFAT = Math.max (0, (nNeededFAT - 109 + nEntriesPerSector - 2) / (nEntriesPerSector - 1));
+      if (nNeededFAT == nFATSectors && nNeededDIFAT == nDIFATSectors)
+        break;
+      nFATSectors = nNeededFAT;
+      nDIFATSectors = nNeededDIFAT;
+    }
+    final long nDirSector = nFATSectors;
+    final long nWorkbookStart = nDirSector + 1;
+    final long nDIFATStart = nWorkbookStart + nWorkbookSectors;
+    final long nTotalSectors = nDIFATStart + nDIFATSectors;
+
+    final ByteBuffer aSector = ByteBuffer.allocate (nSectorSize).order (ByteOrder.LITTLE_ENDIAN);
+
+    // Header
+    aSector.put (new byte [] { (byte) 0xd0, (byte) 0xcf, 0x11, (byte) 0xe0, (byte) 0xa1, (byte) 0xb1, 0x1a, (byte) 0xe1 });
+    aSector.putShort (0x18, (short) 0x3e);
+    aSector.putShort (0x1a, (short) 4);
+    aSector.putShort (0x1c, (short) 0xfffe);
+    aSector.putShort (0x1e, (short) 12);
+    aSector.putShort (0x20, (short) 6);
+    aSector.putInt (0x28, 1);
+    aSector.putInt (0x2c, (int) nFATSectors);
+    aSector.putInt (0x30, (int) nDirSector);
+    aSector.putInt (0x38, 4096);
+    aSector.putInt (0x3c, (int) nEndOfChain);
+    aSector.putInt (0x44, (int) (nDIFATSectors > 0 ? nDIFATStart : nEndOfChain));
+    aSector.putInt (0x48, (int) nDIFATSectors);
+    for (int i = 0; i < 109; ++i)
+      aSector.putInt (0x4c + i * 4, (int) (i < nFATSectors ? i : nFree));
+    aOS.write (aSector.array ());
+
+    // FAT
+    for (long nFAT = 0; nFAT < nFATSectors; ++nFAT)
+    {
+      aSector.clear ();
+      for (int i = 0; i < nEntriesPerSector; ++i)
+      {
+        final long nSector = nFAT * nEntriesPerSector + i;
+        final long nValue;
+        if (nSector < nFATSectors)
+          nValue = nFATSectorMarker;
+        else
+          if (nSector == nDirSector)
+            nValue = nEndOfChain;
+          else
+            if (nSector < nDIFATStart)
+              nValue = nSector == nDIFATStart - 1 ? nEndOfChain : nSector + 1;
+            else
+              nValue = nSector < nTotalSectors ? nDIFATSectorMarker : nFree;
+        aSector.putInt ((int) nValue);
+      }
+      aOS.write (aSector.array ());
+    }
+
+    // Directory with the root storage and the workbook stream
+    final byte [] aDir = new byte [nSectorSize];
+    final ByteBuffer aDirBB = ByteBuffer.wrap (aDir).order (ByteOrder.LITTLE_ENDIAN);
+    final String [] aNames = { "Root Entry", "Workbook" };
+    for (int nEntry = 0; nEntry < 2; ++nEntry)
+    {
+      final int nPos = nEntry * 128;
+      for (int i = 0; i < aNames[nEntry].length (); ++i)
+        aDirBB.putShort (nPos + i * 2, (short) aNames[nEntry].charAt (i));
+      aDirBB.putShort (nPos + 64, (short) ((aNames[nEntry].length () + 1) * 2));
+      aDirBB.put (nPos + 66, (byte) (nEntry == 0 ? 5 : 2));
+      aDirBB.putInt (nPos + 68, (int) nFree);
+      aDirBB.putInt (nPos + 72, (int) nFree);
+      aDirBB.putInt (nPos + 76, nEntry == 0 ? 1 : (int) nFree);
+      aDirBB.putInt (nPos + 116, (int) (nEntry == 0 ? nEndOfChain : nWorkbookStart));
+      aDirBB.putLong (nPos + 120, nEntry == 0 ? 0 : nWorkbookSize);
+    }
+    aOS.write (aDir);
+
+    // Workbook stream starting with a BIFF8 BOF record, padded to full sectors
+    aOS.write (new byte [] { 0x09, 0x08, 0x10, 0x00 });
+    _writeFiller (aOS, nWorkbookSectors * nSectorSize - 4);
+
+    // DIFAT sectors with the FAT sectors not listed in the header
+    long nFATIndex = 109;
+    for (long nDIFAT = 0; nDIFAT < nDIFATSectors; ++nDIFAT)
+    {
+      aSector.clear ();
+      for (int i = 0; i < nEntriesPerSector - 1; ++i, ++nFATIndex)
+        aSector.putInt ((int) (nFATIndex < nFATSectors ? nFATIndex : nFree));
+      aSector.putInt ((int) (nDIFAT == nDIFATSectors - 1 ? nEndOfChain : nDIFATStart + nDIFAT + 1));
+      aOS.write (aSector.array ());
+    }
+  }
+
+  private static void _writeXML (@NonNull final CountingOutputStream aOS, final long nSize) throws IOException
+  {
+    _writeASCII (aOS, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<items>\n");
+    for (long i = 0; aOS.getCount () < nSize - 9; ++i)
+      _writeASCII (aOS, "  <item id=\"" + i + "\" type=\"sample\">Value &amp; text " + i + "</item>\n");
+    _writeASCII (aOS, "</items>\n");
+  }
+
+  private static void _writeCSV (@NonNull final CountingOutputStream aOS, final long nSize) throws IOException
+  {
+    _writeASCII (aOS, "id,name,amount,comment\r\n");
+    for (long i = 0; aOS.getCount () < nSize; ++i)
+      _writeASCII (aOS, i + ",\"Name " + i + "\"," + (i * 7 % 1000) + ".50,\"quoted \"\"text\"\", with comma\"\r\n");
+  }
+
+  private static void _writePSD (@NonNull final OutputStream aOS, final long nSize) throws IOException
+  {
+    // RGB with 8 bits per channel, uncompressed - within the PSD dimension limits
+    final int nChannels = 3;
+    final long nWidth = nSize < 3L * 1024 * 30_000 ? 1024 : 30_000;
+    final long nHeight = Math.max (1, (nSize - 40) / (nChannels * nWidth));
+    final ByteBuffer aBB = ByteBuffer.allocate (40);
+    aBB.put (new byte [] { '8', 'B', 'P', 'S' }).putShort ((short) 1).put (new byte [6]);
+    aBB.putShort ((short) nChannels).putInt ((int) nHeight).putInt ((int) nWidth).putShort ((short) 8).putShort ((short) 3);
+    // Empty color mode data, image resources and layer and mask information
+    aBB.putInt (0).putInt (0).putInt (0);
+    // Raw image data
+    aBB.putShort ((short) 0);
+    aOS.write (aBB.array ());
+    _writeFiller (aOS, nChannels * nHeight * nWidth);
+  }
+
+  /**
+   * Write a payload.
+   *
+   * @param sFormat
+   *        The file format. Must be one of {@link #FORMATS}.
+   * @param nSize
+   *        The approximate target size in bytes.
+   * @param aOS
+   *        The stream to write to. It is flushed but not closed.
+   * @throws IOException
+   *         In case writing failed
+   */
+  public static void writePayload (@NonNull final String sFormat,
+                                   @Nonnegative final long nSize,
+                                   @NonNull final OutputStream aOS) throws IOException
+  {
+    final CountingOutputStream aCOS = new CountingOutputStream (aOS);
+    switch (sFormat)
+    {
+      case "PDF":
+        _writePDF (aCOS, nSize);
+        break;
+      case "PNG":
+        _writePNG (aCOS, nSize);
+        break;
+      case "JPEG":
+        _writeJPG (aCOS, nSize);
+        break;
+      case "GIF":
+        _writeGIF (aCOS, nSize);
+        break;
+      case "TIFF":
+        _writeTIFF (aCOS, nSize);
+        break;
+      case "XLSX":
+        _writeXLSX (aCOS, nSize);
+        break;
+      case "XLS":
+        _writeXLS (aCOS, nSize);
+        break;
+      case "XML":
+        _writeXML (aCOS, nSize);
+        break;
+      case "CSV":
+        _writeCSV (aCOS, nSize);
+        break;
+      case "PSD":
+        _writePSD (aCOS, nSize);
+        break;
+      default:
+        throw new IllegalArgumentException ("Unsupported format '" + sFormat + "'");
+    }
+    aCOS.flush ();
+  }
+
+  /**
+   * Get the file with the payload, creating it if it does not exist yet.
+   *
+   * @param sFormat
+   *        The file format. Must be one of {@link #FORMATS}.
+   * @param nSize
+   *        The approximate target size in bytes.
+   * @return The path to the payload file. Never <code>null</code>.
+   * @throws IOException
+   *         In case writing failed
+   */
+  @NonNull
+  public static Path getPayloadFile (@NonNull final String sFormat, @Nonnegative final long nSize) throws IOException
+  {
+    final Path aDir = Paths.get (System.getProperty ("java.io.tmpdir"), "phive-binary-benchmark");
+    Files.createDirectories (aDir);
+    final Path aFile = aDir.resolve (sFormat.toLowerCase (Locale.ROOT) + "-" + nSize + ".bin");
+    if (!Files.exists (aFile))
+    {
+      // Write to a temporary file first, so that concurrent forks never see partial files
+      final Path aTmp = Files.createTempFile (aDir, "payload", ".tmp");
+      try (final OutputStream aOS = new BufferedOutputStream (Files.newOutputStream (aTmp), FILLER_SIZE))
+      {
+        writePayload (sFormat, nSize, aOS);
+      }
+      Files.move (aTmp, aFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    return aFile;
+  }
+
+  /**
+   * Get the payload as a byte array, creating it if it does not exist yet.
+   *
+   * @param sFormat
+   *        The file format. Must be one of {@link #FORMATS}.
+   * @param nSize
+   *        The approximate target size in bytes. Must be below 2 GB.
+   * @return The payload. Never <code>null</code>.
+   * @throws IOException
+   *         In case reading or writing failed
+   */
+  @NonNull
+  public static byte [] getPayload (@NonNull final String sFormat, @Nonnegative final long nSize) throws IOException
+  {
+    return Files.readAllBytes (getPayloadFile (sFormat, nSize));
+  }
+
+  /**
+   * Get the built-in file format descriptor with the provided short name.
+   *
+   * @param sFormat
+   *        The file format. Must be one of {@link #FORMATS}.
+   * @return The descriptor. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If no such file format is registered
+   */
+  @NonNull
+  public static IFileFormatDescriptor getFileFormatDescriptor (@NonNull final String sFormat)
+  {
+    for (final IFileFormatDescriptor aDescriptor : FileFormatRegistry.getInstance ()
+                                                                     .getAllFileFormatDescriptors ()
+                                                                     .values ())
+      if (aDescriptor.getShortName ().equals (sFormat))
+        return aDescriptor;
+    throw new IllegalArgumentException ("Unknown file format '" + sFormat + "'");
+  }
+}
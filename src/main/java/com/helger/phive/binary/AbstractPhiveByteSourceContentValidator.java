@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * Abstract base class for content validators that are implemented on top of an
+ * {@link IPhiveByteSource}. All the different content representations are mapped onto a byte
+ * source, so the validation logic needs to be implemented only once. Reading beyond the end of the
+ * content (signalled by an {@link EOFException}) is considered as invalid content.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public abstract class AbstractPhiveByteSourceContentValidator implements IPhiveContentValidator
+{
+  /** Streams up to this size are buffered in memory if random access is needed */
+  static final int MAX_IN_MEMORY_STREAM_SIZE = 8 * 1024 * 1024;
+  /**
+   * The default maximum size of streams, if random access is needed. Such streams are only buffered
+   * in memory and never written to a temporary file.
+   */
+  public static final long DEFAULT_MAX_STREAM_SIZE = MAX_IN_MEMORY_STREAM_SIZE;
+
+  private final boolean m_bSequentialAccess;
+  private final long m_nMaxStreamSize;
+
+  /**
+   * Constructor using {@link #DEFAULT_MAX_STREAM_SIZE}.
+   *
+   * @param bSequentialAccess
+   *        <code>true</code> if the validation only accesses ascending positions, so that streams
+   *        can be validated without buffering them completely. <code>false</code> if random access
+   *        is needed.
+   */
+  protected AbstractPhiveByteSourceContentValidator (final boolean bSequentialAccess)
+  {
+    this (bSequentialAccess, DEFAULT_MAX_STREAM_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bSequentialAccess
+   *        <code>true</code> if the validation only accesses ascending positions, so that streams
+   *        can be validated without buffering them completely. <code>false</code> if random access
+   *        is needed.
+   * @param nMaxStreamSize
+   *        The maximum size of streams, if random access is needed. Streams up to 8 MB are buffered
+   *        in memory. Only if this value is larger, bigger streams are copied into a temporary file,
+   *        that is deleted afterwards. Larger streams are rejected with an {@link IOException}.
+   *        Ignored for sequential access. Must be &ge; 0.
+   */
+  protected AbstractPhiveByteSourceContentValidator (final boolean bSequentialAccess,
+                                                     @Nonnegative final long nMaxStreamSize)
+  {
+    ValueEnforcer.isGE0 (nMaxStreamSize, "MaxStreamSize");
+    m_bSequentialAccess = bSequentialAccess;
+    m_nMaxStreamSize = nMaxStreamSize;
+  }
+
+  /**
+   * @return <code>true</code> if the validation only accesses ascending positions.
+   */
+  @Override
+  public final boolean isSequentialAccess ()
+  {
+    return m_bSequentialAccess;
+  }
+
+  /**
+   * @return The maximum size of streams, if random access is needed. Always &ge; 0.
+   */
+  @Nonnegative
+  public final long getMaxStreamSize ()
+  {
+    return m_nMaxStreamSize;
+  }
+
+  /**
+   * Validate the content of the provided byte source.
+   *
+   * @param aSource
+   *        The source to validate. Never <code>null</code>.
+   * @return <code>true</code> if the expected content was detected, <code>false</code> if not.
+   * @throws IOException
+   *         In case of a read error. {@link EOFException}s are handled by the caller.
+   */
+  protected abstract boolean isValidContent (@NonNull IPhiveByteSource aSource) throws IOException;
+
+  private boolean _isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    try
+    {
+      return isValidContent (aSource);
+    }
+    catch (final EOFException ex)
+    {
+      // Content is truncated
+      return false;
+    }
+  }
+
+  private boolean _isValidContentInMemory (@NonNull final IPhiveByteSource aSource)
+  {
+    try
+    {
+      return _isValidContent (aSource);
+    }
+    catch (final IOException ex)
+    {
+      // Cannot happen for in-memory sources
+      throw new UncheckedIOException (ex);
+    }
+  }
+
+  public final boolean isValidContent (@NonNull final byte [] aData)
+  {
+    return isValidContent (aData, 0, aData.length);
+  }
+
+  @Override
+  public final boolean isValidContent (@NonNull final byte [] aData,
+                                       @Nonnegative final int nOfs,
+                                       @Nonnegative final int nLen)
+  {
+    ValueEnforcer.isArrayOfsLen (aData, nOfs, nLen);
+
+    return _isValidContentInMemory (IPhiveByteSource.of (aData, nOfs, nLen));
+  }
+
+  @Override
+  public final boolean isValidContent (@NonNull final ByteBuffer aBuffer)
+  {
+    ValueEnforcer.notNull (aBuffer, "Buffer");
+
+    return _isValidContentInMemory (IPhiveByteSource.of (aBuffer));
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * If this validator only needs sequential access, the stream is read with a bounded window.
+   * Otherwise streams of up to 8 MB are read into memory. Larger streams are only copied into a
+   * temporary file that is deleted afterwards, if the maximum stream size was configured
+   * accordingly.
+   *
+   * @throws IOException
+   *         In case reading failed or if random access is needed and the stream exceeds
+   *         {@link #getMaxStreamSize()}
+   */
+  @Override
+  public final boolean isValidContent (@NonNull final InputStream aIS) throws IOException
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
+    if (m_bSequentialAccess)
+      return _isValidContent (IPhiveByteSource.of (aIS));
+
+    final int nMaxInMemory = (int) Math.min (m_nMaxStreamSize, MAX_IN_MEMORY_STREAM_SIZE);
+    final byte [] aHead = aIS.readNBytes (nMaxInMemory + 1);
+    if (aHead.length <= nMaxInMemory)
+    {
+      // The end of the stream was reached
+      return isValidContent (aHead);
+    }
+    if (m_nMaxStreamSize <= MAX_IN_MEMORY_STREAM_SIZE)
+      throw new IOException ("The stream exceeds the maximum size of " + m_nMaxStreamSize + " bytes");
+
+    final Path aTempFile = Files.createTempFile ("phive-binary", ".tmp");
+    try (final FileChannel aChannel = FileChannel.open (aTempFile,
+                                                        StandardOpenOption.READ,
+                                                        StandardOpenOption.WRITE,
+                                                        StandardOpenOption.DELETE_ON_CLOSE))
+    {
+      // The output stream is not closed, as this would close the channel
+      final OutputStream aOS = Channels.newOutputStream (aChannel);
+      aOS.write (aHead);
+      // Never write more than one byte beyond the maximum size to disk
+      final long nCopied = aHead.length + _transfer (aIS, aOS, m_nMaxStreamSize - aHead.length + 1);
+      if (nCopied > m_nMaxStreamSize)
+        throw new IOException ("The stream exceeds the maximum size of " + m_nMaxStreamSize + " bytes");
+      return isValidContent (aChannel);
+    }
+    finally
+    {
+      // In case opening the channel failed
+      Files.deleteIfExists (aTempFile);
+    }
+  }
+
+  private static long _transfer (@NonNull final InputStream aIS,
+                                 @NonNull final OutputStream aOS,
+                                 final long nMaxBytes) throws IOException
+  {
+    final byte [] aBuffer = new byte [64 * 1024];
+    long nTotal = 0;
+    while (nTotal < nMaxBytes)
+    {
+      final int nRead = aIS.read (aBuffer, 0, (int) Math.min (aBuffer.length, nMaxBytes - nTotal));
+      if (nRead < 0)
+        break;
+      aOS.write (aBuffer, 0, nRead);
+      nTotal += nRead;
+    }
+    return nTotal;
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * Files up to 2 GB are memory mapped, larger files are accessed with positional reads.
+   */
+  @Override
+  public final boolean isValidContent (@NonNull final FileChannel aChannel) throws IOException
+  {
+    ValueEnforcer.notNull (aChannel, "Channel");
+
+    final long nSize = aChannel.size ();
+    if (nSize <= Integer.MAX_VALUE)
+      return _isValidContent (IPhiveByteSource.of (aChannel.map (FileChannel.MapMode.READ_ONLY, 0, nSize)));
+    return _isValidContent (IPhiveByteSource.of (aChannel));
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("SequentialAccess", m_bSequentialAccess)
+                                       .append ("MaxStreamSize", m_nMaxStreamSize)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.io.IOException;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * Abstract base class for {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validators. The
+ * validation only looks at a bounded number of bytes at the beginning (the head) and at the end
+ * (the tail) of the content. For random access content only these bytes are read. Streams are read
+ * to the end once, keeping only the last bytes in memory. If the tail size is 0, streams are only
+ * read up to the end of the head, so their size may be unknown.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public abstract class AbstractPhiveHeadAndTailContentValidator extends AbstractPhiveByteSourceContentValidator
+{
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+  private final int m_nHeadSize;
+  private final int m_nTailSize;
+
+  /**
+   * Constructor
+   *
+   * @param nHeadSize
+   *        The maximum number of bytes to check at the beginning. Must be &gt; 0.
+   * @param nTailSize
+   *        The maximum number of bytes to check at the end. Must be &ge; 0.
+   */
+  protected AbstractPhiveHeadAndTailContentValidator (@Nonnegative final int nHeadSize,
+                                                      @Nonnegative final int nTailSize)
+  {
+    super (true);
+    ValueEnforcer.isGT0 (nHeadSize, "HeadSize");
+    ValueEnforcer.isGE0 (nTailSize, "TailSize");
+    m_nHeadSize = nHeadSize;
+    m_nTailSize = nTailSize;
+  }
+
+  /**
+   * @return The maximum number of bytes to check at the beginning. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getHeadSize ()
+  {
+    return m_nHeadSize;
+  }
+
+  /**
+   * @return The maximum number of bytes to check at the end. Always &ge; 0.
+   */
+  @Nonnegative
+  public final int getTailSize ()
+  {
+    return m_nTailSize;
+  }
+
+  @Override
+  @Nonnegative
+  public long getMaxReadByteCount (@Nonnegative final long nSize)
+  {
+    return Math.min (nSize, (long) m_nHeadSize + m_nTailSize);
+  }
+
+  /**
+   * Validate the head and the tail of the content. If the content is shorter than head size plus
+   * tail size, head and tail overlap.
+   *
+   * @param aHead
+   *        The first bytes of the content. Never <code>null</code>.
+   * @param nHeadLen
+   *        The number of bytes in the head. This is the minimum of the head size and the content
+   *        size.
+   * @param aTail
+   *        The last bytes of the content. Never <code>null</code>.
+   * @param nTailLen
+   *        The number of bytes in the tail. This is the minimum of the tail size and the content
+   *        size.
+   * @param nSize
+   *        The total size of the content, or {@link IPhiveByteSource#UNKNOWN_SIZE} if the tail size
+   *        is 0 and a stream is longer than the head. Checks against the size must be skipped in
+   *        that case.
+   * @return <code>true</code> if the expected content was detected, <code>false</code> if not.
+   */
+  protected abstract boolean isValidHeadAndTail (@NonNull byte [] aHead,
+                                                 @Nonnegative int nHeadLen,
+                                                 @NonNull byte [] aTail,
+                                                 @Nonnegative int nTailLen,
+                                                 long nSize);
+
+  @Override
+  protected final boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    final byte [] aHead = new byte [m_nHeadSize];
+    final int nHeadLen = aSource.read (0, aHead, 0, m_nHeadSize);
+    final byte [] aTail = new byte [m_nTailSize];
+
+    if (aSource.isRandomAccess ())
+    {
+      final long nSize = aSource.getSize ();
+      final int nTailLen = (int) Math.min (m_nTailSize, nSize);
+      aSource.readFully (nSize - nTailLen, aTail, 0, nTailLen);
+      return isValidHeadAndTail (aHead, nHeadLen, aTail, nTailLen, nSize);
+    }
+
+    if (m_nTailSize == 0)
+    {
+      // Don't read the rest of the stream only to determine its size
+      final boolean bEndReached = nHeadLen < m_nHeadSize || aSource.getByte (nHeadLen) < 0;
+      return isValidHeadAndTail (aHead, nHeadLen, aTail, 0, bEndReached ? nHeadLen : IPhiveByteSource.UNKNOWN_SIZE);
+    }
+
+    // Read the stream to the end, keeping the last bytes in a ring buffer
+    int nRingPos = 0;
+    long nSize = 0;
+    byte [] aChunk = aHead;
+    int nChunkLen = nHeadLen;
+    while (nChunkLen > 0)
+    {
+      final int nCopyLen = Math.min (nChunkLen, m_nTailSize);
+      final int nCopyStart = nChunkLen - nCopyLen;
+      final int nFirstPart = Math.min (nCopyLen, m_nTailSize - nRingPos);
+      System.arraycopy (aChunk, nCopyStart, aTail, nRingPos, nFirstPart);
+      System.arraycopy (aChunk, nCopyStart + nFirstPart, aTail, 0, nCopyLen - nFirstPart);
+      nRingPos = (nRingPos + nCopyLen) % m_nTailSize;
+      nSize += nChunkLen;
+
+      if (aChunk == aHead)
+      {
+        if (nHeadLen < m_nHeadSize)
+          break;
+        aChunk = new byte [STREAM_BUFFER_SIZE];
+      }
+      nChunkLen = aSource.read (nSize, aChunk, 0, aChunk.length);
+    }
+
+    final int nTailLen = (int) Math.min (m_nTailSize, nSize);
+    if (nTailLen == m_nTailSize && nRingPos > 0)
+    {
+      // Rotate, so that the oldest byte is first
+      final byte [] aOrdered = new byte [m_nTailSize];
+      System.arraycopy (aTail, nRingPos, aOrdered, 0, m_nTailSize - nRingPos);
+      System.arraycopy (aTail, 0, aOrdered, m_nTailSize - nRingPos, nRingPos);
+      return isValidHeadAndTail (aHead, nHeadLen, aOrdered, nTailLen, nSize);
+    }
+    return isValidHeadAndTail (aHead, nHeadLen, aTail, nTailLen, nSize);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return ToStringGenerator.getDerived (super.toString ())
+                            .append ("HeadSize", m_nHeadSize)
+                            .append ("TailSize", m_nTailSize)
+                            .getToString ();
+  }
+}
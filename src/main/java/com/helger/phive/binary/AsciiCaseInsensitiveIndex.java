@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+
+/**
+ * A small open addressing hash index with lowercase String keys, that can be queried with any
+ * region of a {@link CharSequence} in an ASCII case-insensitive way. Lookups don't allocate any
+ * objects.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The value type
+ */
+@Immutable
+final class AsciiCaseInsensitiveIndex <T>
+{
+  private final String [] m_aKeys;
+  private final Object [] m_aValues;
+  private final int m_nMask;
+  private final int m_nMaxKeyLength;
+
+  AsciiCaseInsensitiveIndex (@NonNull final Map <String, T> aMap)
+  {
+    // Keep the load factor at or below 0.5
+    int nCapacity = 8;
+    while (nCapacity < aMap.size () * 2)
+      nCapacity <<= 1;
+    m_aKeys = new String [nCapacity];
+    m_aValues = new Object [nCapacity];
+    m_nMask = nCapacity - 1;
+
+    int nMaxKeyLength = 0;
+    for (final Map.Entry <String, T> aEntry : aMap.entrySet ())
+    {
+      final String sKey = aEntry.getKey ();
+      int nIdx = _hash (sKey, 0, sKey.length ()) & m_nMask;
+      while (m_aKeys[nIdx] != null)
+        nIdx = (nIdx + 1) & m_nMask;
+      m_aKeys[nIdx] = sKey;
+      m_aValues[nIdx] = aEntry.getValue ();
+      nMaxKeyLength = Math.max (nMaxKeyLength, sKey.length ());
+    }
+    m_nMaxKeyLength = nMaxKeyLength;
+  }
+
+  static char toLowerCase (final char c)
+  {
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  private static int _hash (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    int ret = 0;
+    for (int i = nStart; i < nEnd; ++i)
+      ret = 31 * ret + toLowerCase (aCS.charAt (i));
+    return ret ^ (ret >>> 16);
+  }
+
+  private static boolean _regionEquals (@NonNull final String sKey,
+                                        @NonNull final CharSequence aCS,
+                                        final int nStart)
+  {
+    final int nLen = sKey.length ();
+    for (int i = 0; i < nLen; ++i)
+      if (sKey.charAt (i) != toLowerCase (aCS.charAt (nStart + i)))
+        return false;
+    return true;
+  }
+
+  /**
+   * @return The length of the longest key in this index.
+   */
+  @Nonnegative
+  int getMaxKeyLength ()
+  {
+    return m_nMaxKeyLength;
+  }
+
+  /**
+   * Get the value for the key defined by the provided region.
+   *
+   * @param aCS
+   *        The char sequence to search. May not be <code>null</code>.
+   * @param nStart
+   *        The inclusive start index.
+   * @param nEnd
+   *        The exclusive end index.
+   * @return <code>null</code> if no such key is contained.
+   */
+  @Nullable
+  @SuppressWarnings ("unchecked")
+  T get (@NonNull final CharSequence aCS, final int nStart, final int nEnd)
+  {
+    final int nLen = nEnd - nStart;
+    if (nLen <= 0 || nLen > m_nMaxKeyLength)
+      return null;
+
+    int nIdx = _hash (aCS, nStart, nEnd) & m_nMask;
+    String sKey;
+    while ((sKey = m_aKeys[nIdx]) != null)
+    {
+      if (sKey.length () == nLen && _regionEquals (sKey, aCS, nStart))
+        return (T) m_aValues[nIdx];
+      nIdx = (nIdx + 1) & m_nMask;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * {@link IPhiveByteSource} for a part of a byte array.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+final class ByteArrayByteSource implements IPhiveByteSource
+{
+  private final byte [] m_aData;
+  private final int m_nOfs;
+  private final int m_nLen;
+
+  ByteArrayByteSource (@NonNull final byte [] aData, @Nonnegative final int nOfs, @Nonnegative final int nLen)
+  {
+    ValueEnforcer.isArrayOfsLen (aData, nOfs, nLen);
+    m_aData = aData;
+    m_nOfs = nOfs;
+    m_nLen = nLen;
+  }
+
+  public long getSize ()
+  {
+    return m_nLen;
+  }
+
+  public boolean isRandomAccess ()
+  {
+    return true;
+  }
+
+  public int getByte (@Nonnegative final long nPos)
+  {
+    return nPos < m_nLen ? m_aData[m_nOfs + (int) nPos] & 0xff : -1;
+  }
+
+  @Nonnegative
+  public int read (@Nonnegative final long nPos,
+                   @NonNull final byte [] aDst,
+                   @Nonnegative final int nOfs,
+                   @Nonnegative final int nLen)
+  {
+    if (nPos >= m_nLen)
+      return 0;
+    final int ret = (int) Math.min (nLen, m_nLen - nPos);
+    System.arraycopy (m_aData, m_nOfs + (int) nPos, aDst, nOfs, ret);
+    return ret;
+  }
+}
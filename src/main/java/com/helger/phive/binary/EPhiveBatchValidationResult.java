@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.base.id.IHasID;
+import com.helger.base.lang.EnumHelper;
+
+/**
+ * The result of validating a single item with {@link PhiveBatchValidator}.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+public enum EPhiveBatchValidationResult implements IHasID <String>
+{
+  /** The content matches the file format */
+  VALID ("valid"),
+  /** The content does not match the file format */
+  INVALID ("invalid"),
+  /** No file format is registered for the MIME type */
+  UNKNOWN_FORMAT ("unknown-format"),
+  /** The file format has no suitable content validator */
+  NO_VALIDATOR ("no-validator");
+
+  private final String m_sID;
+
+  EPhiveBatchValidationResult (@NonNull @Nonempty final String sID)
+  {
+    m_sID = sID;
+  }
+
+  @NonNull
+  @Nonempty
+  public String getID ()
+  {
+    return m_sID;
+  }
+
+  /**
+   * @return <code>true</code> if this is {@link #VALID}, <code>false</code> otherwise.
+   */
+  public boolean isValid ()
+  {
+    return this == VALID;
+  }
+
+  @Nullable
+  public static EPhiveBatchValidationResult getFromIDOrNull (@Nullable final String sID)
+  {
+    return EnumHelper.getFromIDOrNull (EPhiveBatchValidationResult.class, sID);
+  }
+}
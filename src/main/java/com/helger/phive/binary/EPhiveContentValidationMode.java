@@ -36,10 +36,20 @@ public enum EPhiveContentValidationMode implements IHasID <String>
    */
   LEADING_BYTES ("leading-bytes"),
 
+  /**
+   * The file format is detected based on a bounded number of bytes at the
+   * beginning and at the end of the content. This is a bit more expensive than
+   * {@link #LEADING_BYTES}, but also detects truncated content.
+   *
+   * @since 0.3.1
+   */
+  HEAD_AND_TAIL ("head-and-tail"),
+
   /**
    * The file format is detected by doing a full parse of the document to verify
    * its correctness. This is usually more time consuming then
-   * {@link #LEADING_BYTES} but also finds more errors.
+   * {@link #LEADING_BYTES} and {@link #HEAD_AND_TAIL} but also finds more
+   * errors.
    */
   FULL_PARSE ("full-parse");
 
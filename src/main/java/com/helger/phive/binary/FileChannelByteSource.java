@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+
+/**
+ * {@link IPhiveByteSource} for a {@link FileChannel} using positional reads. Single byte access is
+ * served from a small block cache.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+final class FileChannelByteSource implements IPhiveByteSource
+{
+  private static final int BLOCK_SIZE = 8 * 1024;
+
+  private final FileChannel m_aChannel;
+  private final long m_nSize;
+  private final byte [] m_aBlock = new byte [BLOCK_SIZE];
+  private long m_nBlockStart = -1;
+  private int m_nBlockLen = 0;
+
+  FileChannelByteSource (@NonNull final FileChannel aChannel) throws IOException
+  {
+    m_aChannel = aChannel;
+    m_nSize = aChannel.size ();
+  }
+
+  public long getSize ()
+  {
+    return m_nSize;
+  }
+
+  public boolean isRandomAccess ()
+  {
+    return true;
+  }
+
+  private void _loadBlock (@Nonnegative final long nPos) throws IOException
+  {
+    final long nStart = nPos - nPos % BLOCK_SIZE;
+    final ByteBuffer aBuffer = ByteBuffer.wrap (m_aBlock, 0, (int) Math.min (BLOCK_SIZE, m_nSize - nStart));
+    m_nBlockStart = nStart;
+    m_nBlockLen = PhiveBinaryHelper.readFully (m_aChannel, nStart, aBuffer);
+  }
+
+  public int getByte (@Nonnegative final long nPos) throws IOException
+  {
+    if (nPos >= m_nSize)
+      return -1;
+    if (nPos < m_nBlockStart || nPos >= m_nBlockStart + m_nBlockLen)
+    {
+      _loadBlock (nPos);
+      if (nPos >= m_nBlockStart + m_nBlockLen)
+        return -1;
+    }
+    return m_aBlock[(int) (nPos - m_nBlockStart)] & 0xff;
+  }
+
+  @Nonnegative
+  public int read (@Nonnegative final long nPos,
+                   @NonNull final byte [] aDst,
+                   @Nonnegative final int nOfs,
+                   @Nonnegative final int nLen) throws IOException
+  {
+    if (nPos >= m_nSize)
+      return 0;
+    final int nToRead = (int) Math.min (nLen, m_nSize - nPos);
+    if (nPos >= m_nBlockStart && nPos + nToRead <= m_nBlockStart + m_nBlockLen)
+    {
+      // Completely in the cached block
+      System.arraycopy (m_aBlock, (int) (nPos - m_nBlockStart), aDst, nOfs, nToRead);
+      return nToRead;
+    }
+    return PhiveBinaryHelper.readFully (m_aChannel, nPos, ByteBuffer.wrap (aDst, nOfs, nToRead));
+  }
+}
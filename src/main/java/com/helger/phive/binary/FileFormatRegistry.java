@@ -23,9 +23,10 @@ import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonnegative;
 import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.Immutable;
 import com.helger.annotation.concurrent.ThreadSafe;
 import com.helger.annotation.style.ReturnsMutableCopy;
-import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.concurrent.SimpleLock;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.spi.ServiceLoaderHelper;
 import com.helger.base.state.ESuccess;
@@ -37,7 +38,12 @@ import com.helger.collection.commons.ICommonsMap;
 import com.helger.collection.commons.ICommonsOrderedMap;
 
 /**
- * This is a central file format registry that should be used to started detection processes.
+ * This is a central file format registry that should be used to started detection processes.<br>
+ * All lookups work on an immutable snapshot of the registered file formats, that is published via a
+ * single volatile field. Therefore reading does not require any locking. Modifications are
+ * serialized and create a new snapshot. Each published snapshot has a unique generation number, so
+ * that callers can detect if cached objects (like {@link IPhiveContentValidator} instances) may be
+ * outdated.
  *
  * @author Philip Helger
  */
@@ -51,19 +57,156 @@ public class FileFormatRegistry implements IFileFormatRegistry
     private static final FileFormatRegistry INSTANCE = new FileFormatRegistry ();
   }
 
+  /**
+   * The immutable lookup state of the registry. Once published an instance is never modified.
+   *
+   * @author Philip Helger
+   */
+  @Immutable
+  private static final class Snapshot
+  {
+    static final Snapshot EMPTY = new Snapshot (new CommonsLinkedHashMap <> (),
+                                                new CommonsHashMap <> (),
+                                                new CommonsHashMap <> (),
+                                                0);
+
+    private final ICommonsOrderedMap <String, IFileFormatDescriptor> m_aNameMap;
+    private final ICommonsMap <String, IFileFormatDescriptor> m_aFileExtMap;
+    private final AsciiCaseInsensitiveIndex <IFileFormatDescriptor> m_aFileExtIndex;
+    // The maximum number of dot separated parts of all file extensions
+    private final int m_nMaxFileExtParts;
+    private final ICommonsMap <String, IFileFormatDescriptor> m_aMimeTypeMap;
+    private final AsciiCaseInsensitiveIndex <IFileFormatDescriptor> m_aMimeTypeIndex;
+    private final FileFormatSignatureTrie m_aSignatureTrie;
+    private final int m_nMaxRequiredLeadingByteCount;
+    private final long m_nGeneration;
+
+    private Snapshot (@NonNull final ICommonsOrderedMap <String, IFileFormatDescriptor> aNameMap,
+                      @NonNull final ICommonsMap <String, IFileFormatDescriptor> aFileExtMap,
+                      @NonNull final ICommonsMap <String, IFileFormatDescriptor> aMimeTypeMap,
+                      @Nonnegative final long nGeneration)
+    {
+      m_aNameMap = aNameMap;
+      m_aFileExtMap = aFileExtMap;
+      m_aFileExtIndex = new AsciiCaseInsensitiveIndex <> (aFileExtMap);
+      int nMaxFileExtParts = 0;
+      for (final String sFileExt : aFileExtMap.keySet ())
+        nMaxFileExtParts = Math.max (nMaxFileExtParts, 1 + (int) sFileExt.chars ().filter (c -> c == '.').count ());
+      m_nMaxFileExtParts = nMaxFileExtParts;
+      m_aMimeTypeMap = aMimeTypeMap;
+      m_aMimeTypeIndex = new AsciiCaseInsensitiveIndex <> (aMimeTypeMap);
+      m_aSignatureTrie = new FileFormatSignatureTrie (aNameMap.values ());
+      int nMaxRequiredLeadingByteCount = 0;
+      for (final IFileFormatDescriptor aDescriptor : aNameMap.values ())
+      {
+        final IPhiveContentValidator aValidator = aDescriptor.findContentValidator (EPhiveContentValidationMode.LEADING_BYTES);
+        if (aValidator != null && aValidator.isUsableForDetection ())
+          nMaxRequiredLeadingByteCount = Math.max (nMaxRequiredLeadingByteCount,
+                                                   aValidator.getRequiredLeadingByteCount ());
+      }
+      m_nMaxRequiredLeadingByteCount = nMaxRequiredLeadingByteCount;
+      m_nGeneration = nGeneration;
+    }
+
+    private Snapshot (@NonNull final Snapshot aOther, @Nonnegative final long nGeneration)
+    {
+      m_aNameMap = aOther.m_aNameMap;
+      m_aFileExtMap = aOther.m_aFileExtMap;
+      m_aFileExtIndex = aOther.m_aFileExtIndex;
+      m_nMaxFileExtParts = aOther.m_nMaxFileExtParts;
+      m_aMimeTypeMap = aOther.m_aMimeTypeMap;
+      m_aMimeTypeIndex = aOther.m_aMimeTypeIndex;
+      m_aSignatureTrie = aOther.m_aSignatureTrie;
+      m_nMaxRequiredLeadingByteCount = aOther.m_nMaxRequiredLeadingByteCount;
+      m_nGeneration = nGeneration;
+    }
+
+    /**
+     * @param nGeneration
+     *        The generation of the new snapshot.
+     * @return A new snapshot with the same content as this one but the provided generation.
+     */
+    @NonNull
+    Snapshot getWithGeneration (@Nonnegative final long nGeneration)
+    {
+      return new Snapshot (this, nGeneration);
+    }
+
+    /**
+     * Create a new snapshot that contains all the elements of this snapshot plus the provided
+     * descriptor.
+     *
+     * @param aDescriptor
+     *        The descriptor to be added. May not be <code>null</code>.
+     * @return <code>null</code> if the descriptor collides with an already registered one.
+     */
+    @Nullable
+    Snapshot getWithAdded (@NonNull final IFileFormatDescriptor aDescriptor)
+    {
+      // 1. check name
+      final String sName = aDescriptor.getName ();
+      if (m_aNameMap.containsKey (sName))
+      {
+        LOGGER.error ("A file format with name '" + sName + "' is already registered");
+        return null;
+      }
+
+      // 2. check file extensions
+      for (final String sFileExt : aDescriptor.getAllAllowedFileExtensions ())
+        if (m_aFileExtMap.containsKey (sFileExt))
+        {
+          LOGGER.error ("The file extension '" + sFileExt + "' is already registered");
+          return null;
+        }
+
+      // 3. check MIME types
+      for (final String sMimeType : aDescriptor.getAllAllowedMimeTypes ())
+        if (m_aMimeTypeMap.containsKey (sMimeType))
+        {
+          LOGGER.error ("The MIME type '" + sMimeType + "' is already registered");
+          return null;
+        }
+
+      // Copy on write
+      final ICommonsOrderedMap <String, IFileFormatDescriptor> aNameMap = m_aNameMap.getClone ();
+      final ICommonsMap <String, IFileFormatDescriptor> aFileExtMap = m_aFileExtMap.getClone ();
+      final ICommonsMap <String, IFileFormatDescriptor> aMimeTypeMap = m_aMimeTypeMap.getClone ();
+      aNameMap.put (sName, aDescriptor);
+      for (final String sFileExt : aDescriptor.getAllAllowedFileExtensions ())
+        aFileExtMap.put (sFileExt, aDescriptor);
+      for (final String sMimeType : aDescriptor.getAllAllowedMimeTypes ())
+        aMimeTypeMap.put (sMimeType, aDescriptor);
+      return new Snapshot (aNameMap, aFileExtMap, aMimeTypeMap, m_nGeneration);
+    }
+  }
+
   private static boolean s_bDefaultInstantiated = false;
 
-  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
-  @GuardedBy ("m_aRWLock")
-  private final ICommonsOrderedMap <String, IFileFormatDescriptor> m_aNameMap = new CommonsLinkedHashMap <> ();
-  @GuardedBy ("m_aRWLock")
-  private final ICommonsMap <String, IFileFormatDescriptor> m_aFileExtMap = new CommonsHashMap <> ();
-  @GuardedBy ("m_aRWLock")
-  private final ICommonsMap <String, IFileFormatDescriptor> m_aMimeTypeMap = new CommonsHashMap <> ();
+  // Serializes all writers - readers never need it
+  private final SimpleLock m_aWriteLock = new SimpleLock ();
+  @GuardedBy ("m_aWriteLock")
+  private volatile Snapshot m_aSnapshot = Snapshot.EMPTY;
+  // Only the staging registry remembers failed registrations
+  private final boolean m_bStaging;
+  @GuardedBy ("m_aWriteLock")
+  private boolean m_bRegistrationFailed = false;
 
   private FileFormatRegistry ()
   {
-    _reinitialize ();
+    m_bStaging = false;
+    // The first registration of a file format wins
+    _reinitialize (false);
+  }
+
+  /**
+   * Constructor for an empty registry that is only used as the staging area while reinitializing.
+   *
+   * @param bStaging
+   *        Just a marker
+   */
+  private FileFormatRegistry (final boolean bStaging)
+  {
+    m_bStaging = true;
   }
 
   public static boolean isInstantiated ()
@@ -84,52 +227,49 @@ public class FileFormatRegistry implements IFileFormatRegistry
   {
     ValueEnforcer.notNull (aDescriptor, "Descriptor");
 
-    return m_aRWLock.writeLockedGet ( () -> {
-      // 1. check name
-      final String sName = aDescriptor.getName ();
-      if (m_aNameMap.containsKey (sName))
+    return m_aWriteLock.lockedGet ( () -> {
+      final Snapshot aNewSnapshot = m_aSnapshot.getWithAdded (aDescriptor);
+      if (aNewSnapshot == null)
       {
-        LOGGER.error ("A file format with name '" + sName + "' is already registered");
+        if (m_bStaging)
+          m_bRegistrationFailed = true;
         return ESuccess.FAILURE;
       }
 
-      // 2. check file extensions
-      for (final String sFileExt : aDescriptor.getAllAllowedFileExtensions ())
-        if (m_aFileExtMap.containsKey (sFileExt))
-        {
-          LOGGER.error ("The file extension '" + sFileExt + "' is already registered");
-          return ESuccess.FAILURE;
-        }
-
-      // 3. check MIME types
-      for (final String sMimeType : aDescriptor.getAllAllowedMimeTypes ())
-        if (m_aMimeTypeMap.containsKey (sMimeType))
-        {
-          LOGGER.error ("The MIME type '" + sMimeType + "' is already registered");
-          return ESuccess.FAILURE;
-        }
-
       LOGGER.info ("Registering File Format Descriptor for format '" +
-                   sName +
+                   aDescriptor.getName () +
                    "' (" +
                    aDescriptor.getShortName () +
                    ")");
 
-      // Now remember mappings
-      m_aNameMap.put (sName, aDescriptor);
-      for (final String sFileExt : aDescriptor.getAllAllowedFileExtensions ())
-        m_aFileExtMap.put (sFileExt, aDescriptor);
-      for (final String sMimeType : aDescriptor.getAllAllowedMimeTypes ())
-        m_aMimeTypeMap.put (sMimeType, aDescriptor);
+      _publish (aNewSnapshot);
       return ESuccess.SUCCESS;
     });
   }
 
+  @GuardedBy ("m_aWriteLock")
+  private void _publish (@NonNull final Snapshot aNewSnapshot)
+  {
+    // This single volatile write is the only thing readers ever see
+    m_aSnapshot = aNewSnapshot.getWithGeneration (m_aSnapshot.m_nGeneration + 1);
+  }
+
+  /**
+   * @return The generation of the currently active registry content. It changes every time a file
+   *         format is registered or the registry is reinitialized. If this value differs from a
+   *         previously remembered value, cached descriptors and content validators may be outdated.
+   */
+  @Nonnegative
+  public final long getGeneration ()
+  {
+    return m_aSnapshot.m_nGeneration;
+  }
+
   @NonNull
   @ReturnsMutableCopy
   public final ICommonsOrderedMap <String, IFileFormatDescriptor> getAllFileFormatDescriptors ()
   {
-    return m_aRWLock.readLockedGet ( () -> m_aNameMap.getClone ());
+    return m_aSnapshot.m_aNameMap.getClone ();
   }
 
   @Nullable
@@ -137,66 +277,192 @@ public class FileFormatRegistry implements IFileFormatRegistry
   {
     if (StringHelper.isEmpty (sName))
       return null;
-    return m_aRWLock.readLockedGet ( () -> m_aNameMap.get (sName));
+    return m_aSnapshot.m_aNameMap.get (sName);
   }
 
   @Nullable
   public final IFileFormatDescriptor getFileFormatDescriptorByFileExtension (@Nullable final String sFileExt)
   {
-    if (PhiveBinaryHelper.isValidFileExtension (sFileExt))
-      return m_aRWLock.readLockedGet ( () -> m_aFileExtMap.get (sFileExt));
+    // All registered file extensions are valid, so no need to check the parameter upfront
+    if (sFileExt == null)
+      return null;
+    return m_aSnapshot.m_aFileExtMap.get (sFileExt);
+  }
+
+  @Override
+  @Nullable
+  public final IFileFormatDescriptor getFileFormatDescriptorByFilename (@Nullable final CharSequence aFilename)
+  {
+    if (aFilename == null)
+      return null;
+
+    final Snapshot aSnapshot = m_aSnapshot;
+    final int nLen = aFilename.length ();
+    final int nNameStart = PhiveBinaryHelper.getFilenameStart (aFilename);
+    final int nMinStart = Math.max (nNameStart, nLen - 1 - aSnapshot.m_aFileExtIndex.getMaxKeyLength ());
+
+    // Find the left most dot that may start a registered extension
+    int nFirstDot = -1;
+    int nParts = 0;
+    for (int i = nLen - 1; i > nNameStart && i >= nMinStart; --i)
+      if (aFilename.charAt (i) == '.')
+      {
+        nFirstDot = i;
+        if (++nParts == aSnapshot.m_nMaxFileExtParts)
+          break;
+      }
+
+    if (nFirstDot >= 0)
+    {
+      // Start with the longest possible extension
+      for (int i = nFirstDot; i < nLen; ++i)
+        if (aFilename.charAt (i) == '.')
+        {
+          final IFileFormatDescriptor ret = aSnapshot.m_aFileExtIndex.get (aFilename, i + 1, nLen);
+          if (ret != null)
+            return ret;
+        }
+    }
     return null;
   }
 
   @Nullable
   public final IFileFormatDescriptor getFileFormatDescriptorByMimeType (@Nullable final String sMimeType)
   {
-    if (PhiveBinaryHelper.isValidMimeType (sMimeType))
-      return m_aRWLock.readLockedGet ( () -> m_aMimeTypeMap.get (sMimeType));
-    return null;
+    // All registered MIME types are valid, so no need to check the parameter upfront
+    if (sMimeType == null)
+      return null;
+    return m_aSnapshot.m_aMimeTypeMap.get (sMimeType);
+  }
+
+  @Override
+  @Nullable
+  public final IFileFormatDescriptor getFileFormatDescriptorByContentType (@Nullable final CharSequence aContentType)
+  {
+    if (aContentType == null)
+      return null;
+
+    // Works directly on the provided characters - no need to create a normalized String
+    final int nStart = PhiveBinaryHelper.getMimeTypeStart (aContentType);
+    final int nEnd = PhiveBinaryHelper.getMimeTypeEnd (aContentType, nStart);
+    return m_aSnapshot.m_aMimeTypeIndex.get (aContentType, nStart, nEnd);
+  }
+
+  @Override
+  @Nonnegative
+  public final int getMaxRequiredLeadingByteCount ()
+  {
+    return m_aSnapshot.m_nMaxRequiredLeadingByteCount;
+  }
+
+  @Override
+  @Nullable
+  public final IFileFormatDescriptor detectFileFormat (@NonNull final byte [] aData,
+                                                      @Nonnegative final int nOfs,
+                                                      @Nonnegative final int nLen)
+  {
+    ValueEnforcer.isArrayOfsLen (aData, nOfs, nLen);
+
+    return m_aSnapshot.m_aSignatureTrie.findFileFormat (aData, nOfs, nLen);
   }
 
   @Nonnegative
   public final int getRegisteredFileFormatDescriptorCount ()
   {
-    return m_aRWLock.readLockedInt ( () -> m_aNameMap.size ());
+    return m_aSnapshot.m_aNameMap.size ();
   }
 
-  private void _reinitialize ()
+  @NonNull
+  private ESuccess _reinitialize (final boolean bFailOnCollision)
   {
-    m_aRWLock.writeLocked ( () -> {
-      m_aNameMap.clear ();
-      m_aFileExtMap.clear ();
-      m_aMimeTypeMap.clear ();
+    return m_aWriteLock.lockedGet ( () -> {
+      // Build the new generation in a separate registry, so that readers continue to use the old
+      // snapshot until the new one is complete
+      final FileFormatRegistry aStaging = new FileFormatRegistry (true);
+      try
+      {
+        // Register all custom file formats.
+        for (final IFileFormatRegistrarSPI aSPI : ServiceLoaderHelper.getAllSPIImplementations (IFileFormatRegistrarSPI.class))
+        {
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Calling registerFileFormats on " + aSPI.getClass ().getName ());
+          aSPI.registerFileFormats (aStaging);
+        }
+      }
+      catch (final RuntimeException ex)
+      {
+        LOGGER.error ("Failed to initialize the file formats - keeping the previous " +
+                      getRegisteredFileFormatDescriptorCount () +
+                      " file formats",
+                      ex);
+        return ESuccess.FAILURE;
+      }
 
-      // Register all custom type converter.
-      // Must be in writeLock to ensure no reads happen during initialization
-      for (final IFileFormatRegistrarSPI aSPI : ServiceLoaderHelper.getAllSPIImplementations (IFileFormatRegistrarSPI.class))
+      // The staging registry is only used by the current thread
+      if (bFailOnCollision && aStaging.m_bRegistrationFailed)
       {
-        if (LOGGER.isDebugEnabled ())
-          LOGGER.debug ("Calling registerTypeConverter on " + aSPI.getClass ().getName ());
-        aSPI.registerFileFormats (this);
+        LOGGER.error ("At least one file format could not be registered - keeping the previous " +
+                      getRegisteredFileFormatDescriptorCount () +
+                      " file formats");
+        return ESuccess.FAILURE;
       }
+
+      // Atomically switch to the new generation
+      _publish (aStaging.m_aSnapshot);
+
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug (getRegisteredFileFormatDescriptorCount () +
+                      " file formats registered in generation " +
+                      getGeneration ());
+      return ESuccess.SUCCESS;
     });
+  }
 
+  /**
+   * Reload all file formats from the registered {@link IFileFormatRegistrarSPI} implementations.
+   * The new content is collected separately and only activated if all SPI implementations
+   * succeeded. If a file format collides with another one, the first registration wins, as for the
+   * initial content. Lookups are not blocked while reinitializing and never see a partially filled
+   * registry. Manually registered file formats are lost.
+   *
+   * @see #reinitializeChecked()
+   */
+  public void reinitialize ()
+  {
     if (LOGGER.isDebugEnabled ())
-      LOGGER.debug (getRegisteredFileFormatDescriptorCount () + " file formats registered");
+      LOGGER.debug ("Reinitializing " + getClass ().getName ());
+
+    _reinitialize (false);
   }
 
-  public void reinitialize ()
+  /**
+   * Reload all file formats from the registered {@link IFileFormatRegistrarSPI} implementations.
+   * The new content is collected separately and only activated if all SPI implementations
+   * succeeded and no file format collides with another one. Lookups are not blocked while
+   * reinitializing and never see a partially filled registry. Manually registered file formats are
+   * lost.
+   *
+   * @return {@link ESuccess#SUCCESS} if the new content was activated, {@link ESuccess#FAILURE} if
+   *         the previous content was kept. Never <code>null</code>.
+   * @since 0.3.1
+   */
+  @NonNull
+  public ESuccess reinitializeChecked ()
   {
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("Reinitializing " + getClass ().getName ());
 
-    _reinitialize ();
+    return _reinitialize (true);
   }
 
   @Override
   public String toString ()
   {
-    return new ToStringGenerator (null).append ("Descriptors", m_aNameMap)
-                                       .append ("FileExtCount", m_aFileExtMap.size ())
-                                       .append ("MimeTypeCount", m_aMimeTypeMap.size ())
+    final Snapshot aSnapshot = m_aSnapshot;
+    return new ToStringGenerator (null).append ("Descriptors", aSnapshot.m_aNameMap)
+                                       .append ("FileExtCount", aSnapshot.m_aFileExtMap.size ())
+                                       .append ("MimeTypeCount", aSnapshot.m_aMimeTypeMap.size ())
+                                       .append ("Generation", aSnapshot.m_nGeneration)
                                        .getToString ();
   }
 }
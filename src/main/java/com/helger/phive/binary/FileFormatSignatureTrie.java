@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * A prefix tree over the leading bytes of all registered file formats. It is used to identify the
+ * file format of unknown content with a single pass over the first bytes. File formats that use a
+ * {@link PhiveLeadingBytesContentValidator} are compiled into the tree. All other
+ * {@link EPhiveContentValidationMode#LEADING_BYTES} validators that are usable for detection are
+ * tried one by one, if the tree did not find a match.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+final class FileFormatSignatureTrie
+{
+  private static final byte [] NO_KEYS = new byte [0];
+  private static final Node [] NO_CHILDREN = new Node [0];
+
+  /**
+   * A single node of the tree. Only modified while the tree is built.
+   */
+  private static final class Node
+  {
+    // Parallel arrays of child bytes and child nodes - usually there are only very few children
+    private byte [] m_aKeys = NO_KEYS;
+    private Node [] m_aChildren = NO_CHILDREN;
+    // The file format whose prefix ends at this node
+    private IFileFormatDescriptor m_aDescriptor;
+
+    @Nullable
+    Node getChild (final byte b)
+    {
+      final byte [] aKeys = m_aKeys;
+      for (int i = 0; i < aKeys.length; ++i)
+        if (aKeys[i] == b)
+          return m_aChildren[i];
+      return null;
+    }
+
+    @NonNull
+    Node getOrCreateChild (final byte b)
+    {
+      Node ret = getChild (b);
+      if (ret == null)
+      {
+        ret = new Node ();
+        final int nCount = m_aKeys.length;
+        final byte [] aKeys = new byte [nCount + 1];
+        System.arraycopy (m_aKeys, 0, aKeys, 0, nCount);
+        aKeys[nCount] = b;
+        final Node [] aChildren = new Node [nCount + 1];
+        System.arraycopy (m_aChildren, 0, aChildren, 0, nCount);
+        aChildren[nCount] = ret;
+        m_aKeys = aKeys;
+        m_aChildren = aChildren;
+      }
+      return ret;
+    }
+  }
+
+  /**
+   * A descriptor with a validator that is not part of the tree.
+   */
+  private static final class Fallback
+  {
+    private final IFileFormatDescriptor m_aDescriptor;
+    private final IPhiveContentValidator m_aValidator;
+
+    Fallback (@NonNull final IFileFormatDescriptor aDescriptor, @NonNull final IPhiveContentValidator aValidator)
+    {
+      m_aDescriptor = aDescriptor;
+      m_aValidator = aValidator;
+    }
+  }
+
+  // Decision table for the first byte
+  private final Node [] m_aRoot = new Node [256];
+  private final ICommonsList <Fallback> m_aFallbacks = new CommonsArrayList <> ();
+
+  /**
+   * Constructor
+   *
+   * @param aDescriptors
+   *        All file format descriptors in registration order. If multiple descriptors use the same
+   *        prefix, the first one wins.
+   */
+  FileFormatSignatureTrie (@NonNull final Iterable <IFileFormatDescriptor> aDescriptors)
+  {
+    for (final IFileFormatDescriptor aDescriptor : aDescriptors)
+    {
+      final IPhiveContentValidator aValidator = aDescriptor.findContentValidator (EPhiveContentValidationMode.LEADING_BYTES);
+      if (aValidator == null || !aValidator.isUsableForDetection ())
+        continue;
+
+      // Subclasses may change the matching, so only the exact class is resolved via prefixes
+      if (aValidator.getClass () == PhiveLeadingBytesContentValidator.class)
+      {
+        for (final byte [] aPrefix : ((PhiveLeadingBytesContentValidator) aValidator).getAllPrefixes ())
+          _add (aPrefix, aDescriptor);
+      }
+      else
+        m_aFallbacks.add (new Fallback (aDescriptor, aValidator));
+    }
+  }
+
+  private void _add (@NonNull final byte [] aPrefix, @NonNull final IFileFormatDescriptor aDescriptor)
+  {
+    final int nFirst = aPrefix[0] & 0xff;
+    Node aNode = m_aRoot[nFirst];
+    if (aNode == null)
+    {
+      aNode = new Node ();
+      m_aRoot[nFirst] = aNode;
+    }
+    for (int i = 1; i < aPrefix.length; ++i)
+      aNode = aNode.getOrCreateChild (aPrefix[i]);
+    if (aNode.m_aDescriptor == null)
+      aNode.m_aDescriptor = aDescriptor;
+  }
+
+  /**
+   * Detect the file format of the provided content.
+   *
+   * @param aData
+   *        The data to check. May not be <code>null</code>.
+   * @param nOfs
+   *        The offset into the data to start at. Must be &ge; 0.
+   * @param nLen
+   *        The number of bytes to consider. Must be &ge; 0.
+   * @return The descriptor with the longest matching prefix, or the first matching fallback
+   *         descriptor, or <code>null</code> if nothing matches.
+   */
+  @Nullable
+  IFileFormatDescriptor findFileFormat (@NonNull final byte [] aData,
+                                        @Nonnegative final int nOfs,
+                                        @Nonnegative final int nLen)
+  {
+    if (nLen > 0)
+    {
+      IFileFormatDescriptor ret = null;
+      Node aNode = m_aRoot[aData[nOfs] & 0xff];
+      int nIndex = nOfs + 1;
+      final int nEnd = nOfs + nLen;
+      while (aNode != null)
+      {
+        // Remember the longest match
+        if (aNode.m_aDescriptor != null)
+          ret = aNode.m_aDescriptor;
+        if (nIndex == nEnd)
+          break;
+        aNode = aNode.getChild (aData[nIndex++]);
+      }
+      if (ret != null)
+        return ret;
+    }
+
+    for (final Fallback aFallback : m_aFallbacks)
+      if (aFallback.m_aValidator.isValidContent (aData, nOfs, nLen))
+        return aFallback.m_aDescriptor;
+    return null;
+  }
+}
@@ -16,10 +16,13 @@
  */
 package com.helger.phive.binary;
 
+import java.time.Duration;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.name.IHasName;
 import com.helger.collection.commons.ICommonsMap;
@@ -92,7 +95,9 @@ public interface IFileFormatDescriptor extends IHasName
   @Nullable
   default IPhiveContentValidator getContentValidatorFavourSpeed ()
   {
-    return findContentValidator (EPhiveContentValidationMode.LEADING_BYTES, EPhiveContentValidationMode.FULL_PARSE);
+    return findContentValidator (EPhiveContentValidationMode.LEADING_BYTES,
+                                 EPhiveContentValidationMode.HEAD_AND_TAIL,
+                                 EPhiveContentValidationMode.FULL_PARSE);
   }
 
   /**
@@ -102,6 +107,28 @@ public interface IFileFormatDescriptor extends IHasName
   @Nullable
   default IPhiveContentValidator getContentValidatorFavourAccuracy ()
   {
-    return findContentValidator (EPhiveContentValidationMode.FULL_PARSE, EPhiveContentValidationMode.LEADING_BYTES);
+    return findContentValidator (EPhiveContentValidationMode.FULL_PARSE,
+                                 EPhiveContentValidationMode.HEAD_AND_TAIL,
+                                 EPhiveContentValidationMode.LEADING_BYTES);
+  }
+
+  /**
+   * Get a content validator that executes all supported validation modes, starting with the
+   * cheapest one, and only escalates to deeper modes within the provided budget.
+   *
+   * @param nMaxEscalationBytes
+   *        The maximum number of bytes a deeper validation mode may need to read. Must be &ge; 0.
+   * @param aMaxEscalationDuration
+   *        The total duration after which no deeper validation mode is started. May not be
+   *        <code>null</code>.
+   * @return A new tiered content validator. Never <code>null</code>.
+   * @see PhiveTieredContentValidator
+   * @since 0.3.1
+   */
+  @NonNull
+  default PhiveTieredContentValidator getTieredContentValidator (@Nonnegative final long nMaxEscalationBytes,
+                                                                 @NonNull final Duration aMaxEscalationDuration)
+  {
+    return new PhiveTieredContentValidator (this, nMaxEscalationBytes, aMaxEscalationDuration);
   }
 }
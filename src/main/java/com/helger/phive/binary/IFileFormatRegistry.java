@@ -16,10 +16,15 @@
  */
 package com.helger.phive.binary;
 
+import java.nio.file.Path;
+import java.util.Locale;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.state.ESuccess;
 import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.mime.IMimeType;
@@ -99,4 +104,141 @@ public interface IFileFormatRegistry
   {
     return aMimeType == null ? null : getFileFormatDescriptorByMimeType (aMimeType.getAsStringWithoutParameters ());
   }
+
+  /**
+   * Find the file format descriptor based on a raw Content-Type value as used e.g. in HTTP or MIME
+   * headers. The MIME type is matched case-insensitively and all parameters are ignored, so e.g.
+   * <code>Application/PDF; name=x.pdf</code> is accepted.
+   *
+   * @param aContentType
+   *        The Content-Type value to use. May be <code>null</code>.
+   * @return <code>null</code> if no such file format descriptor exists
+   * @since 0.3.1
+   */
+  @Nullable
+  default IFileFormatDescriptor getFileFormatDescriptorByContentType (@Nullable final CharSequence aContentType)
+  {
+    final String sMimeType = PhiveBinaryHelper.getNormalizedMimeType (aContentType);
+    return sMimeType == null ? null : getFileFormatDescriptorByMimeType (sMimeType);
+  }
+
+  /**
+   * Find the file format descriptor based on a file name or a path. The file extension is matched
+   * case-insensitively and extensions consisting of multiple parts (like <code>tar.gz</code>) are
+   * supported. If multiple extensions match, the longest one wins. A leading dot of the file name
+   * (as in <code>.profile</code>) does not start an extension.
+   *
+   * @param aFilename
+   *        The file name or path to use. May be <code>null</code>.
+   * @return <code>null</code> if no such file format descriptor exists
+   * @since 0.3.1
+   */
+  @Nullable
+  default IFileFormatDescriptor getFileFormatDescriptorByFilename (@Nullable final CharSequence aFilename)
+  {
+    if (aFilename == null)
+      return null;
+
+    final int nLen = aFilename.length ();
+    // Start with the left most dot, to prefer the longest extension
+    for (int i = PhiveBinaryHelper.getFilenameStart (aFilename) + 1; i < nLen; ++i)
+      if (aFilename.charAt (i) == '.')
+      {
+        final String sFileExt = aFilename.subSequence (i + 1, nLen).toString ().toLowerCase (Locale.ROOT);
+        final IFileFormatDescriptor ret = getFileFormatDescriptorByFileExtension (sFileExt);
+        if (ret != null)
+          return ret;
+      }
+    return null;
+  }
+
+  /**
+   * Find the file format descriptor based on the file name of the provided path.
+   *
+   * @param aPath
+   *        The path to use. May be <code>null</code>.
+   * @return <code>null</code> if no such file format descriptor exists
+   * @see #getFileFormatDescriptorByFilename(CharSequence)
+   * @since 0.3.1
+   */
+  @Nullable
+  default IFileFormatDescriptor getFileFormatDescriptorByFilename (@Nullable final Path aPath)
+  {
+    if (aPath == null)
+      return null;
+    final Path aFilename = aPath.getFileName ();
+    return aFilename == null ? null : getFileFormatDescriptorByFilename (aFilename.toString ());
+  }
+
+  /**
+   * Get the maximum number of leading bytes that any of the
+   * {@link EPhiveContentValidationMode#LEADING_BYTES} content validators of all registered file
+   * formats need. Reading that many bytes of unknown content is sufficient for
+   * {@link #detectFileFormat(byte[])}. Content validators that don't declare the number of required
+   * leading bytes or that are not usable for detection are not considered.
+   *
+   * @return The maximum number of required leading bytes. Always &ge; 0.
+   * @see IPhiveContentValidator#getRequiredLeadingByteCount()
+   * @since 0.3.1
+   */
+  @Nonnegative
+  default int getMaxRequiredLeadingByteCount ()
+  {
+    int ret = 0;
+    for (final IFileFormatDescriptor aDescriptor : getAllFileFormatDescriptors ().values ())
+    {
+      final IPhiveContentValidator aValidator = aDescriptor.findContentValidator (EPhiveContentValidationMode.LEADING_BYTES);
+      if (aValidator != null && aValidator.isUsableForDetection ())
+        ret = Math.max (ret, aValidator.getRequiredLeadingByteCount ());
+    }
+    return ret;
+  }
+
+  /**
+   * Try to determine the file format of the provided content, based on the
+   * {@link EPhiveContentValidationMode#LEADING_BYTES} content validators of all registered file
+   * formats. This is meant for content where the file extension and MIME type are unknown or not
+   * trustworthy. Content validators that are not usable for detection are ignored.
+   *
+   * @param aData
+   *        The content to check. May not be <code>null</code>.
+   * @return <code>null</code> if the file format could not be determined.
+   * @since 0.3.1
+   */
+  @Nullable
+  default IFileFormatDescriptor detectFileFormat (@NonNull final byte [] aData)
+  {
+    ValueEnforcer.notNull (aData, "Data");
+
+    return detectFileFormat (aData, 0, aData.length);
+  }
+
+  /**
+   * Try to determine the file format of a part of the provided array.
+   *
+   * @param aData
+   *        The array containing the content to check. May not be <code>null</code>.
+   * @param nOfs
+   *        The offset of the content inside the array. Must be &ge; 0.
+   * @param nLen
+   *        The length of the content. Must be &ge; 0.
+   * @return <code>null</code> if the file format could not be determined.
+   * @see #detectFileFormat(byte[])
+   * @since 0.3.1
+   */
+  @Nullable
+  default IFileFormatDescriptor detectFileFormat (@NonNull final byte [] aData,
+                                                  @Nonnegative final int nOfs,
+                                                  @Nonnegative final int nLen)
+  {
+    ValueEnforcer.isArrayOfsLen (aData, nOfs, nLen);
+
+    for (final IFileFormatDescriptor aDescriptor : getAllFileFormatDescriptors ().values ())
+    {
+      final IPhiveContentValidator aValidator = aDescriptor.findContentValidator (EPhiveContentValidationMode.LEADING_BYTES);
+      if (aValidator != null && aValidator.isUsableForDetection () && aValidator.isValidContent (aData, nOfs, nLen))
+        return aDescriptor;
+    }
+    return null;
+  }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+
+/**
+ * Read-only positional access to the content that is validated. This allows content validators to
+ * be written once and work on byte arrays, {@link ByteBuffer}s, {@link FileChannel}s and
+ * {@link InputStream}s alike. Instances are not thread-safe and are meant to be used for a single
+ * validation only.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+public interface IPhiveByteSource
+{
+  /** Returned by {@link #getSize()} if the size is not known (yet). */
+  long UNKNOWN_SIZE = -1;
+
+  /**
+   * @return The total number of bytes or {@link #UNKNOWN_SIZE} if it is not known. The size of
+   *         stream based sources is only known after the end of the stream was reached.
+   */
+  long getSize ();
+
+  /**
+   * @return <code>true</code> if positions may be accessed in any order, <code>false</code> if only
+   *         positions at or after the previously accessed ones are supported (as for streams).
+   */
+  boolean isRandomAccess ();
+
+  /**
+   * Get a single byte.
+   *
+   * @param nPos
+   *        The position to read. Must be &ge; 0.
+   * @return The unsigned byte value (0-255) or -1 if the position is at or after the end.
+   * @throws IOException
+   *         In case of a read error
+   */
+  int getByte (@Nonnegative long nPos) throws IOException;
+
+  /**
+   * Read multiple bytes.
+   *
+   * @param nPos
+   *        The position to start reading at. Must be &ge; 0.
+   * @param aDst
+   *        The destination array. May not be <code>null</code>.
+   * @param nOfs
+   *        The offset into the destination array.
+   * @param nLen
+   *        The number of bytes to read.
+   * @return The number of bytes read. Less than <code>nLen</code> only if the end was reached.
+   * @throws IOException
+   *         In case of a read error
+   */
+  @Nonnegative
+  int read (@Nonnegative long nPos, @NonNull byte [] aDst, @Nonnegative int nOfs, @Nonnegative int nLen) throws IOException;
+
+  /**
+   * Read exactly the requested number of bytes.
+   *
+   * @param nPos
+   *        The position to start reading at. Must be &ge; 0.
+   * @param aDst
+   *        The destination array. May not be <code>null</code>.
+   * @param nOfs
+   *        The offset into the destination array.
+   * @param nLen
+   *        The number of bytes to read.
+   * @throws EOFException
+   *         If not enough bytes are available
+   * @throws IOException
+   *         In case of a read error
+   */
+  default void readFully (@Nonnegative final long nPos,
+                          @NonNull final byte [] aDst,
+                          @Nonnegative final int nOfs,
+                          @Nonnegative final int nLen) throws IOException
+  {
+    if (read (nPos, aDst, nOfs, nLen) < nLen)
+      throw new EOFException ("Cannot read " + nLen + " bytes at position " + nPos);
+  }
+
+  /**
+   * Get a single byte that must exist.
+   *
+   * @param nPos
+   *        The position to read. Must be &ge; 0.
+   * @return The unsigned byte value (0-255).
+   * @throws EOFException
+   *         If the position is at or after the end
+   * @throws IOException
+   *         In case of a read error
+   */
+  default int getUInt8 (@Nonnegative final long nPos) throws IOException
+  {
+    final int ret = getByte (nPos);
+    if (ret < 0)
+      throw new EOFException ("Cannot read byte at position " + nPos);
+    return ret;
+  }
+
+  /**
+   * Get an unsigned 16 bit integer.
+   *
+   * @param nPos
+   *        The position to read. Must be &ge; 0.
+   * @param bLittleEndian
+   *        <code>true</code> for little endian, <code>false</code> for big endian byte order.
+   * @return The value.
+   * @throws EOFException
+   *         If not enough bytes are available
+   * @throws IOException
+   *         In case of a read error
+   */
+  default int getUInt16 (@Nonnegative final long nPos, final boolean bLittleEndian) throws IOException
+  {
+    final int b0 = getUInt8 (nPos);
+    final int b1 = getUInt8 (nPos + 1);
+    return bLittleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+  }
+
+  /**
+   * Get an unsigned 32 bit integer.
+   *
+   * @param nPos
+   *        The position to read. Must be &ge; 0.
+   * @param bLittleEndian
+   *        <code>true</code> for little endian, <code>false</code> for big endian byte order.
+   * @return The value.
+   * @throws EOFException
+   *         If not enough bytes are available
+   * @throws IOException
+   *         In case of a read error
+   */
+  default long getUInt32 (@Nonnegative final long nPos, final boolean bLittleEndian) throws IOException
+  {
+    final long n0 = getUInt16 (nPos, bLittleEndian);
+    final long n1 = getUInt16 (nPos + 2, bLittleEndian);
+    return bLittleEndian ? (n1 << 16) | n0 : (n0 << 16) | n1;
+  }
+
+  /**
+   * Get a signed 64 bit integer.
+   *
+   * @param nPos
+   *        The position to read. Must be &ge; 0.
+   * @param bLittleEndian
+   *        <code>true</code> for little endian, <code>false</code> for big endian byte order.
+   * @return The value.
+   * @throws EOFException
+   *         If not enough bytes are available
+   * @throws IOException
+   *         In case of a read error
+   */
+  default long getInt64 (@Nonnegative final long nPos, final boolean bLittleEndian) throws IOException
+  {
+    final long n0 = getUInt32 (nPos, bLittleEndian);
+    final long n1 = getUInt32 (nPos + 4, bLittleEndian);
+    return bLittleEndian ? (n1 << 32) | n0 : (n0 << 32) | n1;
+  }
+
+  /**
+   * Check if the bytes at the provided position match the expected bytes.
+   *
+   * @param nPos
+   *        The position to start at. Must be &ge; 0.
+   * @param aExpected
+   *        The expected bytes. May not be <code>null</code>.
+   * @return <code>true</code> if all bytes are available and match.
+   * @throws IOException
+   *         In case of a read error
+   */
+  default boolean startsWith (@Nonnegative final long nPos, @NonNull final byte [] aExpected) throws IOException
+  {
+    for (int i = 0; i < aExpected.length; ++i)
+      if (getByte (nPos + i) != (aExpected[i] & 0xff))
+        return false;
+    return true;
+  }
+
+  /**
+   * Create a byte source for a part of a byte array.
+   *
+   * @param aData
+   *        The array. May not be <code>null</code>.
+   * @param nOfs
+   *        Offset of the content. Must be &ge; 0.
+   * @param nLen
+   *        Length of the content. Must be &ge; 0.
+   * @return A new byte source. Never <code>null</code>.
+   */
+  @NonNull
+  static IPhiveByteSource of (@NonNull final byte [] aData, @Nonnegative final int nOfs, @Nonnegative final int nLen)
+  {
+    return new ByteArrayByteSource (aData, nOfs, nLen);
+  }
+
+  /**
+   * Create a byte source for the remaining bytes of a buffer. The buffer state is not modified.
+   *
+   * @param aBuffer
+   *        The buffer. May not be <code>null</code>.
+   * @return A new byte source. Never <code>null</code>.
+   */
+  @NonNull
+  static IPhiveByteSource of (@NonNull final ByteBuffer aBuffer)
+  {
+    if (aBuffer.hasArray ())
+      return new ByteArrayByteSource (aBuffer.array (),
+                                      aBuffer.arrayOffset () + aBuffer.position (),
+                                      aBuffer.remaining ());
+    return new ByteBufferByteSource (aBuffer);
+  }
+
+  /**
+   * Create a byte source for a file channel, that uses positional reads. The channel position is
+   * not modified.
+   *
+   * @param aChannel
+   *        The channel. May not be <code>null</code>.
+   * @return A new byte source. Never <code>null</code>.
+   * @throws IOException
+   *         If the size of the channel cannot be determined
+   */
+  @NonNull
+  static IPhiveByteSource of (@NonNull final FileChannel aChannel) throws IOException
+  {
+    return new FileChannelByteSource (aChannel);
+  }
+
+  /**
+   * Create a forward-only byte source for a stream. Only a bounded window of the stream is kept in
+   * memory.
+   *
+   * @param aIS
+   *        The stream. May not be <code>null</code>.
+   * @return A new byte source. Never <code>null</code>.
+   */
+  @NonNull
+  static IPhiveByteSource of (@NonNull final InputStream aIS)
+  {
+    return new InputStreamByteSource (aIS);
+  }
+}
@@ -16,9 +16,19 @@
  */
 package com.helger.phive.binary;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
 import org.jspecify.annotations.NonNull;
 
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
 
 /**
  * A single content detector interface
@@ -28,6 +38,75 @@ import com.helger.annotation.concurrent.Immutable;
 @Immutable
 public interface IPhiveContentValidator
 {
+  /**
+   * Special value for {@link #getRequiredLeadingByteCount()} indicating that the whole content is
+   * needed.
+   *
+   * @since 0.3.1
+   */
+  int REQUIRES_ALL_BYTES = -1;
+
+  /**
+   * Get the number of leading bytes this validator needs to make its decision. This allows callers
+   * to read only a small block of the content, e.g. from a socket or an object storage. Passing
+   * more bytes than required does not change the result.
+   *
+   * @return The number of leading bytes needed (&gt; 0) or {@link #REQUIRES_ALL_BYTES} if the whole
+   *         content is needed. The default implementation returns {@link #REQUIRES_ALL_BYTES}.
+   * @since 0.3.1
+   */
+  default int getRequiredLeadingByteCount ()
+  {
+    return REQUIRES_ALL_BYTES;
+  }
+
+  /**
+   * Get the maximum number of bytes this validator reads from random access content (byte arrays,
+   * buffers and files) of the provided size. This is used to decide if a validation is affordable,
+   * before it is executed. The default implementation is based on
+   * {@link #getRequiredLeadingByteCount()}.
+   *
+   * @param nSize
+   *        The total size of the content. Must be &ge; 0.
+   * @return The number of bytes read. Always between 0 and <code>nSize</code>.
+   * @since 0.3.1
+   */
+  @Nonnegative
+  default long getMaxReadByteCount (@Nonnegative final long nSize)
+  {
+    final int nRequired = getRequiredLeadingByteCount ();
+    return nRequired == REQUIRES_ALL_BYTES ? nSize : Math.min (nSize, nRequired);
+  }
+
+  /**
+   * Check if {@link #isValidContent(InputStream)} reads the stream only once from the beginning to
+   * the end, with a bounded amount of memory and without buffering the content elsewhere.
+   *
+   * @return <code>true</code> if streams are validated sequentially. The default implementation
+   *         returns <code>false</code>, as it reads the complete stream into memory.
+   * @since 0.3.1
+   */
+  default boolean isSequentialAccess ()
+  {
+    return false;
+  }
+
+  /**
+   * Check if this validator recognizes its file format reliably enough, so that it can be used to
+   * detect the file format of unknown content. Heuristic validators, that also accept content of
+   * other file formats, should return <code>false</code>. They are neither used by
+   * {@link IFileFormatRegistry#detectFileFormat(byte[])} nor considered by
+   * {@link IFileFormatRegistry#getMaxRequiredLeadingByteCount()}.
+   *
+   * @return <code>true</code> if this validator may be used for file format detection. The default
+   *         implementation returns <code>true</code>.
+   * @since 0.3.1
+   */
+  default boolean isUsableForDetection ()
+  {
+    return true;
+  }
+
   /**
    * Check if the provided data matches the requirements.
    *
@@ -37,4 +116,127 @@ public interface IPhiveContentValidator
    *         <code>false</code> if not.
    */
   boolean isValidContent (@NonNull byte [] aData);
+
+  /**
+   * Check if a part of the provided data matches the requirements. The content is considered to
+   * start at <code>nOfs</code> and to have exactly <code>nLen</code> bytes. The default
+   * implementation copies the part to a new array, if it is not the whole array, and calls
+   * {@link #isValidContent(byte[])}.
+   *
+   * @param aData
+   *        the data to check. May not be <code>null</code>.
+   * @param nOfs
+   *        The offset of the content inside the array. Must be &ge; 0.
+   * @param nLen
+   *        The length of the content. Must be &ge; 0.
+   * @return <code>true</code> if the expected content was detected, <code>false</code> if not.
+   * @since 0.3.1
+   */
+  default boolean isValidContent (@NonNull final byte [] aData,
+                                  @Nonnegative final int nOfs,
+                                  @Nonnegative final int nLen)
+  {
+    ValueEnforcer.isArrayOfsLen (aData, nOfs, nLen);
+
+    if (nOfs == 0 && nLen == aData.length)
+      return isValidContent (aData);
+    return isValidContent (Arrays.copyOfRange (aData, nOfs, nOfs + nLen));
+  }
+
+  /**
+   * Check if the data of the provided stream matches the requirements. Implementations should only
+   * read as many bytes as they need. The default implementation reads the whole stream into memory
+   * and calls {@link #isValidContent(byte[])}, so that all existing implementations also work with
+   * streams. The stream is not closed by this method.<br>
+   * Validators that need random access have to buffer the stream. Their memory and disk usage must
+   * be bounded: the built-in validators buffer at most 8 MB in memory, and only write larger streams
+   * to a temporary file if a larger maximum stream size was explicitly configured (see
+   * {@link AbstractPhiveByteSourceContentValidator}). Streams exceeding the maximum size are rejected
+   * with an {@link IOException}.
+   *
+   * @param aIS
+   *        the stream to check. May not be <code>null</code>.
+   * @return <code>true</code> if the expected content was detected, <code>false</code> if not.
+   * @throws IOException
+   *         In case reading from the stream failed or the stream exceeds the maximum size supported
+   *         by the implementation
+   * @since 0.3.1
+   */
+  default boolean isValidContent (@NonNull final InputStream aIS) throws IOException
+  {
+    return isValidContent (aIS.readAllBytes ());
+  }
+
+  /**
+   * Check if the remaining bytes of the provided buffer (from its position up to its limit) match
+   * the requirements. The position and limit of the buffer are not modified. This works with heap
+   * and direct buffers. Off-heap <code>MemorySegment</code>s can be checked without copying by
+   * passing <code>aSegment.asByteBuffer ()</code>. The default implementation uses the backing
+   * array of heap buffers and copies the remaining bytes of all other buffers to a byte array.
+   *
+   * @param aBuffer
+   *        the buffer to check. May not be <code>null</code>.
+   * @return <code>true</code> if the expected content was detected, <code>false</code> if not.
+   * @since 0.3.1
+   */
+  default boolean isValidContent (@NonNull final ByteBuffer aBuffer)
+  {
+    if (aBuffer.hasArray ())
+      return isValidContent (aBuffer.array (), aBuffer.arrayOffset () + aBuffer.position (), aBuffer.remaining ());
+
+    final byte [] aData = new byte [aBuffer.remaining ()];
+    // Absolute bulk get does not modify the position
+    aBuffer.get (aBuffer.position (), aData);
+    return isValidContent (aData);
+  }
+
+  /**
+   * Check if the content of the provided file channel matches the requirements. The position of the
+   * channel is not modified and the channel is not closed. The default implementation performs a
+   * single positional read, if the number of required leading bytes is known. Otherwise the file is
+   * memory mapped, so that the content is served from the OS page cache without copying it into
+   * the Java heap (unless the implementation only supports {@link #isValidContent(byte[])}).
+   *
+   * @param aChannel
+   *        The file channel to check. May not be <code>null</code>.
+   * @return <code>true</code> if the expected content was detected, <code>false</code> if not.
+   * @throws IOException
+   *         In case reading failed or the file is too large to be mapped at once
+   * @since 0.3.1
+   */
+  default boolean isValidContent (@NonNull final FileChannel aChannel) throws IOException
+  {
+    final long nSize = aChannel.size ();
+    final int nRequired = getRequiredLeadingByteCount ();
+    if (nRequired != REQUIRES_ALL_BYTES)
+    {
+      final ByteBuffer aBuffer = ByteBuffer.allocate ((int) Math.min (nRequired, nSize));
+      PhiveBinaryHelper.readFully (aChannel, 0, aBuffer);
+      aBuffer.flip ();
+      return isValidContent (aBuffer);
+    }
+
+    if (nSize > Integer.MAX_VALUE)
+      throw new IOException ("The file with " + nSize + " bytes is too large to be mapped at once");
+    return isValidContent (aChannel.map (FileChannel.MapMode.READ_ONLY, 0, nSize));
+  }
+
+  /**
+   * Check if the content of the provided file matches the requirements.
+   *
+   * @param aPath
+   *        The file to check. May not be <code>null</code>.
+   * @return <code>true</code> if the expected content was detected, <code>false</code> if not.
+   * @throws IOException
+   *         In case reading failed
+   * @see #isValidContent(FileChannel)
+   * @since 0.3.1
+   */
+  default boolean isValidContent (@NonNull final Path aPath) throws IOException
+  {
+    try (final FileChannel aChannel = FileChannel.open (aPath, StandardOpenOption.READ))
+    {
+      return isValidContent (aChannel);
+    }
+  }
 }
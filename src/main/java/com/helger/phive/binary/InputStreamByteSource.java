@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Forward-only {@link IPhiveByteSource} for an {@link InputStream}. Only a bounded window of the
+ * stream is kept in memory. Accessing a position before the start of the window fails with an
+ * {@link IOException}.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+final class InputStreamByteSource implements IPhiveByteSource
+{
+  private static final int WINDOW_SIZE = 16 * 1024;
+
+  private final InputStream m_aIS;
+  private final byte [] m_aWindow = new byte [WINDOW_SIZE];
+  // The stream position of the first byte in the window
+  private long m_nWindowStart = 0;
+  private int m_nWindowLen = 0;
+  private boolean m_bEOF = false;
+
+  InputStreamByteSource (@NonNull final InputStream aIS)
+  {
+    m_aIS = aIS;
+  }
+
+  public long getSize ()
+  {
+    return m_bEOF ? m_nWindowStart + m_nWindowLen : UNKNOWN_SIZE;
+  }
+
+  public boolean isRandomAccess ()
+  {
+    return false;
+  }
+
+  /**
+   * Make sure the window contains the provided position and at least the provided number of bytes
+   * after it, unless the end of the stream is reached. The window is only moved forward if the
+   * requested range does not fit into it anymore.
+   *
+   * @return The number of bytes available in the window starting at the provided position.
+   */
+  private int _fill (@Nonnegative final long nPos, @Nonnegative final int nMinLen) throws IOException
+  {
+    if (nPos < m_nWindowStart)
+      throw new IOException ("Cannot go back to position " + nPos + " in a stream");
+
+    long nRel = nPos - m_nWindowStart;
+    if (nRel + nMinLen <= m_nWindowLen || m_bEOF)
+      return (int) Math.max (0, m_nWindowLen - nRel);
+
+    if (nRel > m_nWindowLen)
+    {
+      // Skip everything up to the requested position
+      long nSkip = nRel - m_nWindowLen;
+      m_nWindowStart += m_nWindowLen;
+      m_nWindowLen = 0;
+      while (nSkip > 0 && !m_bEOF)
+      {
+        long nSkipped = m_aIS.skip (nSkip);
+        if (nSkipped <= 0)
+        {
+          // skip is not reliable to detect the end of the stream
+          if (m_aIS.read () < 0)
+            m_bEOF = true;
+          else
+            nSkipped = 1;
+        }
+        if (nSkipped > 0)
+        {
+          nSkip -= nSkipped;
+          m_nWindowStart += nSkipped;
+        }
+      }
+      if (m_bEOF)
+        return 0;
+      nRel = 0;
+    }
+    else
+      if (nRel + nMinLen > WINDOW_SIZE)
+      {
+        // Keep the remaining bytes
+        System.arraycopy (m_aWindow, (int) nRel, m_aWindow, 0, m_nWindowLen - (int) nRel);
+        m_nWindowLen -= (int) nRel;
+        m_nWindowStart = nPos;
+        nRel = 0;
+      }
+
+    while (m_nWindowLen < nRel + nMinLen && !m_bEOF)
+    {
+      final int nRead = m_aIS.read (m_aWindow, m_nWindowLen, WINDOW_SIZE - m_nWindowLen);
+      if (nRead < 0)
+        m_bEOF = true;
+      else
+        m_nWindowLen += nRead;
+    }
+    return (int) Math.max (0, m_nWindowLen - nRel);
+  }
+
+  public int getByte (@Nonnegative final long nPos) throws IOException
+  {
+    final long nRel = nPos - m_nWindowStart;
+    if (nRel >= 0 && nRel < m_nWindowLen)
+      return m_aWindow[(int) nRel] & 0xff;
+    return _fill (nPos, 1) > 0 ? m_aWindow[(int) (nPos - m_nWindowStart)] & 0xff : -1;
+  }
+
+  @Nonnegative
+  public int read (@Nonnegative final long nPos,
+                   @NonNull final byte [] aDst,
+                   @Nonnegative final int nOfs,
+                   @Nonnegative final int nLen) throws IOException
+  {
+    int ret = 0;
+    while (ret < nLen)
+    {
+      final int nAvailable = _fill (nPos + ret, Math.min (nLen - ret, WINDOW_SIZE));
+      if (nAvailable == 0)
+        break;
+      final int nCopy = Math.min (nAvailable, nLen - ret);
+      System.arraycopy (m_aWindow, (int) (nPos + ret - m_nWindowStart), aDst, nOfs + ret, nCopy);
+      ret += nCopy;
+    }
+    return ret;
+  }
+}
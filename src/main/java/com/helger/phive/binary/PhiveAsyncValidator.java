@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * Asynchronous facade for {@link IPhiveContentValidator} and {@link IFileFormatDescriptor}. All
+ * validations are executed on a pluggable {@link Executor}, so that e.g. a long running
+ * {@link EPhiveContentValidationMode#FULL_PARSE} does not block the calling thread. By default a
+ * virtual thread per task is used on Java 21+ and a bounded pool of daemon threads on older Java
+ * versions.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@ThreadSafe
+public class PhiveAsyncValidator
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (PhiveAsyncValidator.class);
+
+  private static final class DefaultExecutorHolder
+  {
+    private static final ExecutorService INSTANCE = _createDefaultExecutor ();
+  }
+
+  private final Executor m_aExecutor;
+
+  /**
+   * Constructor using the default executor.
+   *
+   * @see #getDefaultExecutor()
+   */
+  public PhiveAsyncValidator ()
+  {
+    this (getDefaultExecutor ());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aExecutor
+   *        The executor to run the validations on. May not be <code>null</code>.
+   */
+  public PhiveAsyncValidator (@NonNull final Executor aExecutor)
+  {
+    ValueEnforcer.notNull (aExecutor, "Executor");
+    m_aExecutor = aExecutor;
+  }
+
+  @NonNull
+  private static ExecutorService _createDefaultExecutor ()
+  {
+    try
+    {
+      // Java 21+ only - the build targets an older version
+      final ExecutorService ret = (ExecutorService) Executors.class.getMethod ("newVirtualThreadPerTaskExecutor")
+                                                                   .invoke (null);
+      LOGGER.info ("Using virtual threads for asynchronous validation");
+      return ret;
+    }
+    catch (final ReflectiveOperationException ex)
+    {
+      // Virtual threads are not available
+    }
+
+    final int nThreads = Runtime.getRuntime ().availableProcessors ();
+    final AtomicInteger aCounter = new AtomicInteger (0);
+    final ThreadFactory aThreadFactory = r -> {
+      final Thread ret = new Thread (r, "phive-binary-validator-" + aCounter.incrementAndGet ());
+      ret.setDaemon (true);
+      return ret;
+    };
+    LOGGER.info ("Using a pool of " + nThreads + " threads for asynchronous validation");
+    return Executors.newFixedThreadPool (nThreads, aThreadFactory);
+  }
+
+  /**
+   * @return The default executor that is used if none is provided explicitly. It is created on
+   *         first access and shared by all instances. Never <code>null</code>.
+   */
+  @NonNull
+  public static ExecutorService getDefaultExecutor ()
+  {
+    return DefaultExecutorHolder.INSTANCE;
+  }
+
+  /**
+   * @return The executor used by this instance. Never <code>null</code>.
+   */
+  @NonNull
+  public final Executor getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  /**
+   * Validate the provided content asynchronously.
+   *
+   * @param aValidator
+   *        The validator to use. May not be <code>null</code>.
+   * @param aData
+   *        The data to check. May not be <code>null</code>.
+   * @return A future with the result of {@link IPhiveContentValidator#isValidContent(byte[])}.
+   *         Never <code>null</code>.
+   */
+  @NonNull
+  public CompletableFuture <Boolean> isValidContent (@NonNull final IPhiveContentValidator aValidator,
+                                                     @NonNull final byte [] aData)
+  {
+    ValueEnforcer.notNull (aValidator, "Validator");
+    ValueEnforcer.notNull (aData, "Data");
+
+    return CompletableFuture.supplyAsync ( () -> Boolean.valueOf (aValidator.isValidContent (aData)), m_aExecutor);
+  }
+
+  /**
+   * Validate the provided content asynchronously. The buffer must not be modified until the
+   * returned future is completed.
+   *
+   * @param aValidator
+   *        The validator to use. May not be <code>null</code>.
+   * @param aBuffer
+   *        The buffer to check. May not be <code>null</code>.
+   * @return A future with the result of {@link IPhiveContentValidator#isValidContent(ByteBuffer)}.
+   *         Never <code>null</code>.
+   */
+  @NonNull
+  public CompletableFuture <Boolean> isValidContent (@NonNull final IPhiveContentValidator aValidator,
+                                                     @NonNull final ByteBuffer aBuffer)
+  {
+    ValueEnforcer.notNull (aValidator, "Validator");
+    ValueEnforcer.notNull (aBuffer, "Buffer");
+
+    return CompletableFuture.supplyAsync ( () -> Boolean.valueOf (aValidator.isValidContent (aBuffer)), m_aExecutor);
+  }
+
+  /**
+   * Validate the provided file asynchronously.
+   *
+   * @param aValidator
+   *        The validator to use. May not be <code>null</code>.
+   * @param aPath
+   *        The file to check. May not be <code>null</code>.
+   * @return A future with the result of {@link IPhiveContentValidator#isValidContent(Path)}. If
+   *         reading fails, the future is completed exceptionally with an
+   *         {@link UncheckedIOException}. Never <code>null</code>.
+   */
+  @NonNull
+  public CompletableFuture <Boolean> isValidContent (@NonNull final IPhiveContentValidator aValidator,
+                                                     @NonNull final Path aPath)
+  {
+    ValueEnforcer.notNull (aValidator, "Validator");
+    ValueEnforcer.notNull (aPath, "Path");
+
+    return CompletableFuture.supplyAsync ( () -> {
+      try
+      {
+        return Boolean.valueOf (aValidator.isValidContent (aPath));
+      }
+      catch (final IOException ex)
+      {
+        throw new UncheckedIOException (ex);
+      }
+    }, m_aExecutor);
+  }
+
+  /**
+   * Validate the provided content asynchronously with the first content validator of the
+   * descriptor, that matches the provided modes.
+   *
+   * @param aDescriptor
+   *        The file format descriptor to use. May not be <code>null</code>.
+   * @param aData
+   *        The data to check. May not be <code>null</code>.
+   * @param aModes
+   *        The validation modes to try in the provided order. May neither be <code>null</code> nor
+   *        empty.
+   * @return A future with the validation result. Never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If the descriptor has no content validator for any of the provided modes
+   * @see IFileFormatDescriptor#findContentValidator(EPhiveContentValidationMode...)
+   */
+  @NonNull
+  public CompletableFuture <Boolean> isValidContent (@NonNull final IFileFormatDescriptor aDescriptor,
+                                                     @NonNull final byte [] aData,
+                                                     @NonNull final EPhiveContentValidationMode... aModes)
+  {
+    ValueEnforcer.notNull (aDescriptor, "Descriptor");
+
+    final IPhiveContentValidator aValidator = aDescriptor.findContentValidator (aModes);
+    if (aValidator == null)
+      throw new IllegalArgumentException ("The file format '" +
+                                          aDescriptor.getName () +
+                                          "' has no content validator for the provided modes");
+    return isValidContent (aValidator, aData);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Executor", m_aExecutor).getToString ();
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableObject;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * A single input item for {@link PhiveBatchValidator}.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public final class PhiveBatchValidationInput
+{
+  private final String m_sContentType;
+  private final byte [] m_aData;
+
+  /**
+   * Constructor
+   *
+   * @param sContentType
+   *        The MIME type or raw Content-Type value of the data. May be <code>null</code>.
+   * @param aData
+   *        The data to validate. May not be <code>null</code>. The array is not copied and must not
+   *        be modified while the batch is running.
+   */
+  public PhiveBatchValidationInput (@Nullable final String sContentType, @NonNull final byte [] aData)
+  {
+    ValueEnforcer.notNull (aData, "Data");
+    m_sContentType = sContentType;
+    m_aData = aData;
+  }
+
+  /**
+   * @return The MIME type or raw Content-Type value as provided in the constructor. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public String getContentType ()
+  {
+    return m_sContentType;
+  }
+
+  /**
+   * @return The data to validate. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableObject
+  public byte [] getData ()
+  {
+    return m_aData;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("ContentType", m_sContentType)
+                                       .append ("DataLength", m_aData.length)
+                                       .getToString ();
+  }
+}
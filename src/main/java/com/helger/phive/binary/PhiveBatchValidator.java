@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * Validates many items at once. The file format and content validator is resolved only once per
+ * distinct Content-Type and the validations are executed in parallel on a {@link ForkJoinPool}.
+ * The work is split based on the payload sizes, so that each task handles roughly the same number
+ * of bytes. The results are always returned in the order of the inputs.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@ThreadSafe
+public class PhiveBatchValidator
+{
+  /** The default number of bytes below which a task is not split any further */
+  public static final long DEFAULT_SPLIT_THRESHOLD_BYTES = 1024 * 1024;
+
+  // Marker for Content-Types without a validator
+  private static final IPhiveContentValidator NO_VALIDATOR = data -> false;
+
+  private final IFileFormatRegistry m_aRegistry;
+  private final Function <? super IFileFormatDescriptor, ? extends IPhiveContentValidator> m_aValidatorSelector;
+  private final ForkJoinPool m_aPool;
+  private final long m_nSplitThresholdBytes;
+
+  /**
+   * Constructor using the content validator favouring accuracy, the common pool and the default
+   * split threshold.
+   *
+   * @param aRegistry
+   *        The file format registry to use. May not be <code>null</code>.
+   */
+  public PhiveBatchValidator (@NonNull final IFileFormatRegistry aRegistry)
+  {
+    this (aRegistry,
+          IFileFormatDescriptor::getContentValidatorFavourAccuracy,
+          ForkJoinPool.commonPool (),
+          DEFAULT_SPLIT_THRESHOLD_BYTES);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aRegistry
+   *        The file format registry to use. May not be <code>null</code>.
+   * @param aValidatorSelector
+   *        The function to select the content validator of a file format. May not be
+   *        <code>null</code>. The function may return <code>null</code>.
+   * @param aPool
+   *        The pool to execute the validations on. May not be <code>null</code>.
+   * @param nSplitThresholdBytes
+   *        The number of payload bytes below which a task is not split any further. Must be &gt; 0.
+   */
+  public PhiveBatchValidator (@NonNull final IFileFormatRegistry aRegistry,
+                              @NonNull final Function <? super IFileFormatDescriptor, ? extends IPhiveContentValidator> aValidatorSelector,
+                              @NonNull final ForkJoinPool aPool,
+                              @Nonnegative final long nSplitThresholdBytes)
+  {
+    ValueEnforcer.notNull (aRegistry, "Registry");
+    ValueEnforcer.notNull (aValidatorSelector, "ValidatorSelector");
+    ValueEnforcer.notNull (aPool, "Pool");
+    ValueEnforcer.isGT0 (nSplitThresholdBytes, "SplitThresholdBytes");
+    m_aRegistry = aRegistry;
+    m_aValidatorSelector = aValidatorSelector;
+    m_aPool = aPool;
+    m_nSplitThresholdBytes = nSplitThresholdBytes;
+  }
+
+  /**
+   * The task validating a range of inputs. It splits itself, until the payload size of the range is
+   * below the threshold.
+   */
+  private final class ValidationTask extends RecursiveAction
+  {
+    private final PhiveBatchValidationInput [] m_aInputs;
+    private final IPhiveContentValidator [] m_aValidators;
+    // m_aOffsets[i] is the sum of the payload sizes of all inputs before index i
+    private final long [] m_aOffsets;
+    private final EPhiveBatchValidationResult [] m_aResults;
+    private final int m_nFrom;
+    private final int m_nTo;
+
+    ValidationTask (@NonNull final PhiveBatchValidationInput [] aInputs,
+                    @NonNull final IPhiveContentValidator [] aValidators,
+                    @NonNull final long [] aOffsets,
+                    @NonNull final EPhiveBatchValidationResult [] aResults,
+                    final int nFrom,
+                    final int nTo)
+    {
+      m_aInputs = aInputs;
+      m_aValidators = aValidators;
+      m_aOffsets = aOffsets;
+      m_aResults = aResults;
+      m_nFrom = nFrom;
+      m_nTo = nTo;
+    }
+
+    private int _getSplitIndex ()
+    {
+      // Find the first index where half of the payload bytes of this range are reached
+      final long nMiddle = (m_aOffsets[m_nFrom] + m_aOffsets[m_nTo]) / 2;
+      int nLow = m_nFrom + 1;
+      int nHigh = m_nTo - 1;
+      while (nLow < nHigh)
+      {
+        final int nMid = (nLow + nHigh) >>> 1;
+        if (m_aOffsets[nMid] < nMiddle)
+          nLow = nMid + 1;
+        else
+          nHigh = nMid;
+      }
+      return nLow;
+    }
+
+    @Override
+    protected void compute ()
+    {
+      if (m_nTo - m_nFrom > 1 && m_aOffsets[m_nTo] - m_aOffsets[m_nFrom] > m_nSplitThresholdBytes)
+      {
+        final int nSplit = _getSplitIndex ();
+        invokeAll (new ValidationTask (m_aInputs, m_aValidators, m_aOffsets, m_aResults, m_nFrom, nSplit),
+                   new ValidationTask (m_aInputs, m_aValidators, m_aOffsets, m_aResults, nSplit, m_nTo));
+      }
+      else
+      {
+        for (int i = m_nFrom; i < m_nTo; ++i)
+        {
+          final IPhiveContentValidator aValidator = m_aValidators[i];
+          if (aValidator != null && aValidator != NO_VALIDATOR)
+            m_aResults[i] = aValidator.isValidContent (m_aInputs[i].getData ()) ? EPhiveBatchValidationResult.VALID
+                                                                                : EPhiveBatchValidationResult.INVALID;
+        }
+      }
+    }
+  }
+
+  @Nullable
+  private IPhiveContentValidator _resolveValidator (@Nullable final String sContentType)
+  {
+    final IFileFormatDescriptor aDescriptor = m_aRegistry.getFileFormatDescriptorByContentType (sContentType);
+    if (aDescriptor == null)
+      return null;
+    final IPhiveContentValidator ret = m_aValidatorSelector.apply (aDescriptor);
+    return ret != null ? ret : NO_VALIDATOR;
+  }
+
+  /**
+   * Validate all provided inputs.
+   *
+   * @param aInputs
+   *        The inputs to validate. May not be <code>null</code> and may not contain
+   *        <code>null</code> elements.
+   * @return A list with one result per input, in the same order as the inputs. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <EPhiveBatchValidationResult> validate (@NonNull final Collection <? extends PhiveBatchValidationInput> aInputs)
+  {
+    ValueEnforcer.notNull (aInputs, "Inputs");
+
+    final PhiveBatchValidationInput [] aInputArray = aInputs.toArray (new PhiveBatchValidationInput [0]);
+    final int nCount = aInputArray.length;
+    final IPhiveContentValidator [] aValidators = new IPhiveContentValidator [nCount];
+    final long [] aOffsets = new long [nCount + 1];
+    final EPhiveBatchValidationResult [] aResults = new EPhiveBatchValidationResult [nCount];
+
+    // Resolve each distinct Content-Type only once
+    final Map <String, IPhiveContentValidator> aCache = new CommonsHashMap <> ();
+    for (int i = 0; i < nCount; ++i)
+    {
+      final PhiveBatchValidationInput aInput = aInputArray[i];
+      ValueEnforcer.notNull (aInput, "Input");
+      final String sContentType = aInput.getContentType ();
+      IPhiveContentValidator aValidator = aCache.get (sContentType);
+      if (aValidator == null && !aCache.containsKey (sContentType))
+      {
+        aValidator = _resolveValidator (sContentType);
+        aCache.put (sContentType, aValidator);
+      }
+      aValidators[i] = aValidator;
+      if (aValidator == null)
+        aResults[i] = EPhiveBatchValidationResult.UNKNOWN_FORMAT;
+      else
+        if (aValidator == NO_VALIDATOR)
+          aResults[i] = EPhiveBatchValidationResult.NO_VALIDATOR;
+      aOffsets[i + 1] = aOffsets[i] + aInput.getData ().length;
+    }
+
+    if (nCount > 0)
+      m_aPool.invoke (new ValidationTask (aInputArray, aValidators, aOffsets, aResults, 0, nCount));
+    return new CommonsArrayList <> (aResults);
+  }
+
+  /**
+   * Validate all provided inputs.
+   *
+   * @param aInputs
+   *        The inputs to validate. May not be <code>null</code> and may not contain
+   *        <code>null</code> elements.
+   * @return A list with one result per input, in the encounter order of the stream. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <EPhiveBatchValidationResult> validate (@NonNull final Stream <? extends PhiveBatchValidationInput> aInputs)
+  {
+    ValueEnforcer.notNull (aInputs, "Inputs");
+
+    return validate (aInputs.collect (Collectors.toList ()));
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Registry", m_aRegistry)
+                                       .append ("Pool", m_aPool)
+                                       .append ("SplitThresholdBytes", m_nSplitThresholdBytes)
+                                       .getToString ();
+  }
+}
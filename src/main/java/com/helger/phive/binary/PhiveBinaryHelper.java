@@ -16,10 +16,15 @@
  */
 package com.helger.phive.binary;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Locale;
 
+import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.concurrent.Immutable;
 import com.helger.base.string.StringHelper;
 import com.helger.mime.MimeType;
@@ -67,4 +72,131 @@ public final class PhiveBinaryHelper
     }
     return false;
   }
+
+  private static boolean _isWhitespace (final char c)
+  {
+    return c == ' ' || c == '\t';
+  }
+
+  /**
+   * Get the index of the first character of the MIME type inside a Content-Type value.
+   *
+   * @param aContentType
+   *        The Content-Type value to scan. May not be <code>null</code>.
+   * @return The index of the first non-whitespace character.
+   */
+  @Nonnegative
+  static int getMimeTypeStart (@NonNull final CharSequence aContentType)
+  {
+    final int nLen = aContentType.length ();
+    int ret = 0;
+    while (ret < nLen && _isWhitespace (aContentType.charAt (ret)))
+      ++ret;
+    return ret;
+  }
+
+  /**
+   * Get the exclusive end index of the MIME type inside a Content-Type value. This is the position
+   * of the first parameter separator (<code>;</code>) or the end of the value, with trailing
+   * whitespace removed.
+   *
+   * @param aContentType
+   *        The Content-Type value to scan. May not be <code>null</code>.
+   * @param nStart
+   *        The start index as returned by {@link #getMimeTypeStart(CharSequence)}.
+   * @return The exclusive end index. Is &ge; <code>nStart</code>.
+   */
+  @Nonnegative
+  static int getMimeTypeEnd (@NonNull final CharSequence aContentType, @Nonnegative final int nStart)
+  {
+    final int nLen = aContentType.length ();
+    int ret = nStart;
+    while (ret < nLen && aContentType.charAt (ret) != ';')
+      ++ret;
+    while (ret > nStart && _isWhitespace (aContentType.charAt (ret - 1)))
+      --ret;
+    return ret;
+  }
+
+  /**
+   * Extract the normalized MIME type from a raw Content-Type value like
+   * <code>Application/PDF; name=x.pdf</code>. Leading and trailing whitespace and all parameters
+   * are removed and the result is converted to lowercase.
+   *
+   * @param aContentType
+   *        The Content-Type value to normalize. May be <code>null</code>.
+   * @return <code>null</code> if no valid MIME type could be extracted.
+   * @see #isValidMimeType(String)
+   */
+  @Nullable
+  public static String getNormalizedMimeType (@Nullable final CharSequence aContentType)
+  {
+    if (aContentType == null)
+      return null;
+
+    final int nStart = getMimeTypeStart (aContentType);
+    final int nEnd = getMimeTypeEnd (aContentType, nStart);
+    if (nEnd == nStart)
+      return null;
+
+    final char [] aChars = new char [nEnd - nStart];
+    for (int i = nStart; i < nEnd; ++i)
+      aChars[i - nStart] = AsciiCaseInsensitiveIndex.toLowerCase (aContentType.charAt (i));
+    final String ret = new String (aChars);
+    return isValidMimeType (ret) ? ret : null;
+  }
+
+  /**
+   * Get the index of the first character of the file name, skipping all directory names.
+   *
+   * @param aPath
+   *        The path or file name to scan. May not be <code>null</code>.
+   * @return The index after the last path separator (<code>/</code> or <code>\</code>) or 0 if
+   *         there is none.
+   */
+  @Nonnegative
+  static int getFilenameStart (@NonNull final CharSequence aPath)
+  {
+    int ret = aPath.length ();
+    while (ret > 0)
+    {
+      final char c = aPath.charAt (ret - 1);
+      if (c == '/' || c == '\\')
+        break;
+      --ret;
+    }
+    return ret;
+  }
+
+  /**
+   * Fill the provided buffer from the provided file channel using positional reads. This does not
+   * modify the position of the channel.
+   *
+   * @param aChannel
+   *        The channel to read from. May not be <code>null</code>.
+   * @param nPosition
+   *        The file position to start reading at. Must be &ge; 0.
+   * @param aBuffer
+   *        The buffer to fill up to its limit. May not be <code>null</code>.
+   * @return The number of bytes read. Is less than the initially remaining bytes of the buffer, if
+   *         the end of the file was reached.
+   * @throws IOException
+   *         In case of a read error
+   * @since 0.3.1
+   */
+  @Nonnegative
+  public static int readFully (@NonNull final FileChannel aChannel,
+                               @Nonnegative final long nPosition,
+                               @NonNull final ByteBuffer aBuffer) throws IOException
+  {
+    int ret = 0;
+    while (aBuffer.hasRemaining ())
+    {
+      final int nRead = aChannel.read (aBuffer, nPosition + ret);
+      if (nRead < 0)
+        break;
+      ret += nRead;
+    }
+    return ret;
+  }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * A content validator for {@link EPhiveContentValidationMode#LEADING_BYTES} that checks if the
+ * content starts with one of a set of known byte sequences. Other than a plain lambda, the prefixes
+ * can be queried, which allows the {@link IFileFormatRegistry} to detect the file format of unknown
+ * content efficiently.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class PhiveLeadingBytesContentValidator implements IPhiveContentValidator
+{
+  private final ICommonsList <byte []> m_aPrefixes;
+  private final int m_nMaxPrefixLength;
+
+  public PhiveLeadingBytesContentValidator (@NonNull @Nonempty final byte []... aPrefixes)
+  {
+    this (new CommonsArrayList <> (aPrefixes));
+  }
+
+  public PhiveLeadingBytesContentValidator (@NonNull @Nonempty final Collection <byte []> aPrefixes)
+  {
+    ValueEnforcer.notEmpty (aPrefixes, "Prefixes");
+
+    m_aPrefixes = new CommonsArrayList <> (aPrefixes.size ());
+    int nMaxPrefixLength = 0;
+    for (final byte [] aPrefix : aPrefixes)
+    {
+      ValueEnforcer.notNull (aPrefix, "Prefix");
+      ValueEnforcer.isTrue (aPrefix.length > 0, "Prefix may not be empty");
+      m_aPrefixes.add (aPrefix.clone ());
+      nMaxPrefixLength = Math.max (nMaxPrefixLength, aPrefix.length);
+    }
+    m_nMaxPrefixLength = nMaxPrefixLength;
+  }
+
+  /**
+   * @return A copy of all the prefixes, in the order they were provided. Neither <code>null</code>
+   *         nor empty.
+   */
+  @NonNull
+  @Nonempty
+  @ReturnsMutableCopy
+  public final ICommonsList <byte []> getAllPrefixes ()
+  {
+    final ICommonsList <byte []> ret = new CommonsArrayList <> (m_aPrefixes.size ());
+    for (final byte [] aPrefix : m_aPrefixes)
+      ret.add (aPrefix.clone ());
+    return ret;
+  }
+
+  /**
+   * @return The length of the longest prefix. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getMaxPrefixLength ()
+  {
+    return m_nMaxPrefixLength;
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * This implementation returns {@link #getMaxPrefixLength()}.
+   */
+  @Override
+  public final int getRequiredLeadingByteCount ()
+  {
+    return m_nMaxPrefixLength;
+  }
+
+  private static boolean _startsWith (@NonNull final byte [] aData,
+                                      final int nOfs,
+                                      final int nLen,
+                                      @NonNull final byte [] aPrefix)
+  {
+    if (nLen < aPrefix.length)
+      return false;
+    for (int i = 0; i < aPrefix.length; ++i)
+      if (aData[nOfs + i] != aPrefix[i])
+        return false;
+    return true;
+  }
+
+  public boolean isValidContent (@NonNull final byte [] aData)
+  {
+    return isValidContent (aData, 0, aData.length);
+  }
+
+  @Override
+  public boolean isValidContent (@NonNull final byte [] aData,
+                                 @Nonnegative final int nOfs,
+                                 @Nonnegative final int nLen)
+  {
+    ValueEnforcer.isArrayOfsLen (aData, nOfs, nLen);
+
+    for (final byte [] aPrefix : m_aPrefixes)
+      if (_startsWith (aData, nOfs, nLen, aPrefix))
+        return true;
+    return false;
+  }
+
+  private static boolean _startsWith (@NonNull final ByteBuffer aBuffer,
+                                      final int nPos,
+                                      final int nRemaining,
+                                      @NonNull final byte [] aPrefix)
+  {
+    if (nRemaining < aPrefix.length)
+      return false;
+    for (int i = 0; i < aPrefix.length; ++i)
+      if (aBuffer.get (nPos + i) != aPrefix[i])
+        return false;
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * This implementation works directly on the buffer without copying.
+   */
+  @Override
+  public boolean isValidContent (@NonNull final ByteBuffer aBuffer)
+  {
+    if (aBuffer.hasArray ())
+      return isValidContent (aBuffer.array (), aBuffer.arrayOffset () + aBuffer.position (), aBuffer.remaining ());
+
+    final int nPos = aBuffer.position ();
+    final int nRemaining = aBuffer.remaining ();
+    for (final byte [] aPrefix : m_aPrefixes)
+      if (_startsWith (aBuffer, nPos, nRemaining, aPrefix))
+        return true;
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * This implementation returns <code>true</code>, as at most {@link #getMaxPrefixLength()} bytes
+   * are read from the stream.
+   */
+  @Override
+  public boolean isSequentialAccess ()
+  {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * This implementation reads at most {@link #getMaxPrefixLength()} bytes from the stream.
+   */
+  @Override
+  public boolean isValidContent (@NonNull final InputStream aIS) throws IOException
+  {
+    return isValidContent (aIS.readNBytes (m_nMaxPrefixLength));
+  }
+
+  /**
+   * Check the leading bytes of the provided stream and push all of them back afterwards, so that
+   * the stream can be forwarded unmodified.
+   *
+   * @param aPIS
+   *        The stream to check. It must have a pushback buffer of at least
+   *        {@link #getMaxPrefixLength()} bytes. May not be <code>null</code>.
+   * @return <code>true</code> if the expected content was detected, <code>false</code> if not.
+   * @throws IOException
+   *         In case reading from the stream failed or the pushback buffer is too small
+   */
+  public boolean isValidContentAndUnread (@NonNull final PushbackInputStream aPIS) throws IOException
+  {
+    final byte [] aLeadingBytes = aPIS.readNBytes (m_nMaxPrefixLength);
+    aPIS.unread (aLeadingBytes);
+    return isValidContent (aLeadingBytes);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("PrefixCount", m_aPrefixes.size ())
+                                       .append ("MaxPrefixLength", m_nMaxPrefixLength)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * A content validator that combines the validation modes of a file format: the cheapest mode is
+ * executed first and rejects invalid content immediately. If the content passes, the next deeper
+ * mode is executed, as long as the escalation stays within the budget:
+ * <ul>
+ * <li>The byte budget is the maximum number of bytes a deeper mode may need to read, as returned by
+ * {@link IPhiveContentValidator#getMaxReadByteCount(long)}.</li>
+ * <li>The time budget is the maximum total duration after which no further mode is started. A mode
+ * that was started is never interrupted, so the total duration may exceed the budget.</li>
+ * </ul>
+ * The modes are executed in the order {@link EPhiveContentValidationMode#LEADING_BYTES},
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} and
+ * {@link EPhiveContentValidationMode#FULL_PARSE}. Modes the file format does not support are
+ * skipped. Streams are only buffered in memory within the byte budget, see
+ * {@link #validate(InputStream)}.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class PhiveTieredContentValidator implements IPhiveContentValidator
+{
+  /** Budget value to escalate regardless of the content size */
+  public static final long UNLIMITED_BYTES = Long.MAX_VALUE;
+
+  /** The maximum number of bytes of a stream that are buffered */
+  private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+  private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+  private static final EPhiveContentValidationMode [] TIERS = { EPhiveContentValidationMode.LEADING_BYTES,
+                                                                EPhiveContentValidationMode.HEAD_AND_TAIL,
+                                                                EPhiveContentValidationMode.FULL_PARSE };
+
+  /**
+   * Executes a single validator on the content.
+   */
+  @FunctionalInterface
+  private interface IValidatorInvoker
+  {
+    boolean isValidContent (@NonNull IPhiveContentValidator aValidator) throws IOException;
+  }
+
+  private final EPhiveContentValidationMode [] m_aModes;
+  private final IPhiveContentValidator [] m_aValidators;
+  private final long m_nMaxEscalationBytes;
+  private final Duration m_aMaxEscalationDuration;
+  private final long m_nMaxEscalationNanos;
+
+  /**
+   * Constructor
+   *
+   * @param aDescriptor
+   *        The file format descriptor to take the content validators from. May not be
+   *        <code>null</code>.
+   * @param nMaxEscalationBytes
+   *        The maximum number of bytes a deeper validation mode may need to read. Must be &ge; 0. Use
+   *        {@link #UNLIMITED_BYTES} for no limit.
+   * @param aMaxEscalationDuration
+   *        The total duration after which no deeper validation mode is started. May not be
+   *        <code>null</code> and may not be negative.
+   */
+  public PhiveTieredContentValidator (@NonNull final IFileFormatDescriptor aDescriptor,
+                                      @Nonnegative final long nMaxEscalationBytes,
+                                      @NonNull final Duration aMaxEscalationDuration)
+  {
+    ValueEnforcer.notNull (aDescriptor, "Descriptor");
+    ValueEnforcer.isGE0 (nMaxEscalationBytes, "MaxEscalationBytes");
+    ValueEnforcer.notNull (aMaxEscalationDuration, "MaxEscalationDuration");
+    ValueEnforcer.isTrue (!aMaxEscalationDuration.isNegative (), "MaxEscalationDuration may not be negative");
+
+    int nCount = 0;
+    final EPhiveContentValidationMode [] aModes = new EPhiveContentValidationMode [TIERS.length];
+    final IPhiveContentValidator [] aValidators = new IPhiveContentValidator [TIERS.length];
+    for (final EPhiveContentValidationMode eMode : TIERS)
+    {
+      final IPhiveContentValidator aValidator = aDescriptor.findContentValidator (eMode);
+      if (aValidator != null)
+      {
+        aModes[nCount] = eMode;
+        aValidators[nCount] = aValidator;
+        nCount++;
+      }
+    }
+    m_aModes = Arrays.copyOf (aModes, nCount);
+    m_aValidators = Arrays.copyOf (aValidators, nCount);
+    m_nMaxEscalationBytes = nMaxEscalationBytes;
+    m_aMaxEscalationDuration = aMaxEscalationDuration;
+    // Saturate for very long durations
+    m_nMaxEscalationNanos = aMaxEscalationDuration.compareTo (Duration.ofNanos (Long.MAX_VALUE)) >= 0 ? Long.MAX_VALUE
+                                                                                                      : aMaxEscalationDuration.toNanos ();
+  }
+
+  /**
+   * @return The maximum number of bytes a deeper validation mode may need to read. Always &ge; 0.
+   */
+  @Nonnegative
+  public final long getMaxEscalationBytes ()
+  {
+    return m_nMaxEscalationBytes;
+  }
+
+  /**
+   * @return The total duration after which no deeper validation mode is started. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public final Duration getMaxEscalationDuration ()
+  {
+    return m_aMaxEscalationDuration;
+  }
+
+  @NonNull
+  private PhiveTieredValidationResult _validate (final long nStart,
+                                                 final int nFirstTier,
+                                                 final long nSize,
+                                                 @NonNull final IValidatorInvoker aInvoker) throws IOException
+  {
+    // Only called with a first tier > 0 if all previous tiers passed
+    boolean bValid = nFirstTier > 0;
+    EPhiveContentValidationMode eDecidingMode = nFirstTier > 0 ? m_aModes[nFirstTier - 1] : null;
+    boolean bBudgetExceeded = false;
+    for (int i = nFirstTier; i < m_aValidators.length; ++i)
+    {
+      final IPhiveContentValidator aValidator = m_aValidators[i];
+      if (i > 0 &&
+          (aValidator.getMaxReadByteCount (nSize) > m_nMaxEscalationBytes ||
+           System.nanoTime () - nStart > m_nMaxEscalationNanos))
+      {
+        // Stop escalating - the previous mode decided
+        bBudgetExceeded = true;
+        break;
+      }
+
+      bValid = aInvoker.isValidContent (aValidator);
+      eDecidingMode = m_aModes[i];
+      if (!bValid)
+        break;
+    }
+    return new PhiveTieredValidationResult (bValid,
+                                            eDecidingMode,
+                                            bBudgetExceeded,
+                                            Duration.ofNanos (System.nanoTime () - nStart));
+  }
+
+  /**
+   * Create the result for content that was decided by the provided tier.
+   */
+  @NonNull
+  private PhiveTieredValidationResult _createResult (final long nStart,
+                                                     final int nTier,
+                                                     final boolean bValid,
+                                                     final boolean bBudgetExceeded)
+  {
+    return new PhiveTieredValidationResult (bValid,
+                                            m_aModes[nTier],
+                                            bBudgetExceeded,
+                                            Duration.ofNanos (System.nanoTime () - nStart));
+  }
+
+  @NonNull
+  private PhiveTieredValidationResult _validateInMemory (final long nStart,
+                                                         final int nFirstTier,
+                                                         final long nSize,
+                                                         @NonNull final IValidatorInvoker aInvoker)
+  {
+    try
+    {
+      return _validate (nStart, nFirstTier, nSize, aInvoker);
+    }
+    catch (final IOException ex)
+    {
+      // Cannot happen for in-memory content
+      throw new UncheckedIOException (ex);
+    }
+  }
+
+  /**
+   * Validate the provided data.
+   *
+   * @param aData
+   *        The data to validate. May not be <code>null</code>.
+   * @return The validation result. Never <code>null</code>.
+   */
+  @NonNull
+  public PhiveTieredValidationResult validate (@NonNull final byte [] aData)
+  {
+    ValueEnforcer.notNull (aData, "Data");
+
+    return _validateInMemory (System.nanoTime (), 0, aData.length, x -> x.isValidContent (aData));
+  }
+
+  /**
+   * Validate the content of the provided stream. Only the leading bytes needed by the first mode
+   * are read first. If the content passes, the stream is buffered in memory as long as it fits into
+   * the byte budget, so that all modes are executed exactly as for a byte array. If the content
+   * exceeds the byte budget, its size is unknown and the stream can only be read once: the next
+   * mode is only executed, if it reads the stream sequentially and its
+   * {@link IPhiveContentValidator#getMaxReadByteCount(long)} for content of unknown size is within
+   * the budget. No further mode is executed afterwards. The stream is not closed.
+   *
+   * @param aIS
+   *        The stream to validate. May not be <code>null</code>.
+   * @return The validation result. Never <code>null</code>.
+   * @throws IOException
+   *         In case reading failed
+   */
+  @NonNull
+  public PhiveTieredValidationResult validate (@NonNull final InputStream aIS) throws IOException
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
+    final long nStart = System.nanoTime ();
+    if (m_aValidators.length == 0)
+      return _validate (nStart, 0, 0, x -> false);
+
+    byte [] aBuffer;
+    int nBuffered;
+    final int nNextTier;
+    final IPhiveContentValidator aFirst = m_aValidators[0];
+    final int nRequired = aFirst.getRequiredLeadingByteCount ();
+    if (nRequired == REQUIRES_ALL_BYTES)
+    {
+      aBuffer = new byte [INITIAL_BUFFER_SIZE];
+      nBuffered = 0;
+      nNextTier = 0;
+    }
+    else
+    {
+      aBuffer = new byte [nRequired];
+      nBuffered = aIS.readNBytes (aBuffer, 0, nRequired);
+      if (nBuffered < nRequired)
+      {
+        // The stream ended - the complete content is known
+        final byte [] aData = aBuffer;
+        final int nLen = nBuffered;
+        return _validateInMemory (nStart, 0, nLen, x -> x.isValidContent (aData, 0, nLen));
+      }
+
+      if (!aFirst.isValidContent (aBuffer))
+        return _createResult (nStart, 0, false, false);
+      if (m_aValidators.length == 1)
+        return _createResult (nStart, 0, true, false);
+      if (System.nanoTime () - nStart > m_nMaxEscalationNanos)
+        return _createResult (nStart, 0, true, true);
+      nNextTier = 1;
+    }
+
+    // Buffer at most one byte more than the budget, to know if the content fits into it
+    final int nLimit = (int) Math.min (m_nMaxEscalationBytes, MAX_BUFFER_SIZE - 1);
+    while (nBuffered <= nLimit)
+    {
+      if (nBuffered == aBuffer.length)
+        aBuffer = Arrays.copyOf (aBuffer, (int) Math.min (nLimit + 1L, Math.max (aBuffer.length * 2L, INITIAL_BUFFER_SIZE)));
+      final int nRead = aIS.read (aBuffer, nBuffered, aBuffer.length - nBuffered);
+      if (nRead < 0)
+      {
+        // The complete content fits into the budget
+        final byte [] aData = aBuffer;
+        final int nLen = nBuffered;
+        return _validate (nStart, nNextTier, nLen, x -> x.isValidContent (aData, 0, nLen));
+      }
+      nBuffered += nRead;
+    }
+
+    // The content exceeds the budget
+    final IPhiveContentValidator aValidator = m_aValidators[nNextTier];
+    if (nNextTier > 0 &&
+        (!aValidator.isSequentialAccess () ||
+         aValidator.getMaxReadByteCount (Long.MAX_VALUE) > m_nMaxEscalationBytes ||
+         System.nanoTime () - nStart > m_nMaxEscalationNanos))
+      return _createResult (nStart, nNextTier - 1, true, true);
+
+    final boolean bValid = aValidator.isValidContent (new SequenceInputStream (new ByteArrayInputStream (aBuffer,
+                                                                                                        0,
+                                                                                                        nBuffered),
+                                                                                aIS));
+    // The stream was consumed, so no deeper mode can be executed
+    return _createResult (nStart, nNextTier, bValid, bValid && nNextTier + 1 < m_aValidators.length);
+  }
+
+  /**
+   * Validate the remaining bytes of the provided buffer. The position and limit of the buffer are
+   * not modified.
+   *
+   * @param aBuffer
+   *        The buffer to validate. May not be <code>null</code>.
+   * @return The validation result. Never <code>null</code>.
+   */
+  @NonNull
+  public PhiveTieredValidationResult validate (@NonNull final ByteBuffer aBuffer)
+  {
+    ValueEnforcer.notNull (aBuffer, "Buffer");
+
+    return _validateInMemory (System.nanoTime (), 0, aBuffer.remaining (), x -> x.isValidContent (aBuffer));
+  }
+
+  /**
+   * Validate the content of the provided file channel. The position of the channel is not modified
+   * and the channel is not closed.
+   *
+   * @param aChannel
+   *        The file channel to validate. May not be <code>null</code>.
+   * @return The validation result. Never <code>null</code>.
+   * @throws IOException
+   *         In case reading failed
+   */
+  @NonNull
+  public PhiveTieredValidationResult validate (@NonNull final FileChannel aChannel) throws IOException
+  {
+    ValueEnforcer.notNull (aChannel, "Channel");
+
+    return _validate (System.nanoTime (), 0, aChannel.size (), x -> x.isValidContent (aChannel));
+  }
+
+  @Override
+  public boolean isValidContent (@NonNull final byte [] aData)
+  {
+    return validate (aData).isValid ();
+  }
+
+  @Override
+  public boolean isValidContent (@NonNull final InputStream aIS) throws IOException
+  {
+    return validate (aIS).isValid ();
+  }
+
+  @Override
+  public boolean isValidContent (@NonNull final ByteBuffer aBuffer)
+  {
+    return validate (aBuffer).isValid ();
+  }
+
+  @Override
+  public boolean isValidContent (@NonNull final FileChannel aChannel) throws IOException
+  {
+    return validate (aChannel).isValid ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Modes", m_aModes)
+                                       .append ("MaxEscalationBytes", m_nMaxEscalationBytes)
+                                       .append ("MaxEscalationDuration", m_aMaxEscalationDuration)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import java.time.Duration;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * The result of a validation with {@link PhiveTieredContentValidator}. Besides the outcome, it
+ * contains the validation mode that made the decision and whether a deeper validation mode was
+ * skipped because of the budget, so that the budgets can be tuned based on real data.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public final class PhiveTieredValidationResult
+{
+  private final boolean m_bValid;
+  private final EPhiveContentValidationMode m_eDecidingMode;
+  private final boolean m_bBudgetExceeded;
+  private final Duration m_aDuration;
+
+  /**
+   * Constructor
+   *
+   * @param bValid
+   *        <code>true</code> if the content is valid.
+   * @param eDecidingMode
+   *        The validation mode that made the decision. May be <code>null</code> if the file format
+   *        has no content validator.
+   * @param bBudgetExceeded
+   *        <code>true</code> if a deeper validation mode was available but not executed, because the
+   *        budget was exceeded.
+   * @param aDuration
+   *        The total duration of the validation. May not be <code>null</code>.
+   */
+  public PhiveTieredValidationResult (final boolean bValid,
+                                      @Nullable final EPhiveContentValidationMode eDecidingMode,
+                                      final boolean bBudgetExceeded,
+                                      @NonNull final Duration aDuration)
+  {
+    ValueEnforcer.notNull (aDuration, "Duration");
+    m_bValid = bValid;
+    m_eDecidingMode = eDecidingMode;
+    m_bBudgetExceeded = bBudgetExceeded;
+    m_aDuration = aDuration;
+  }
+
+  /**
+   * @return <code>true</code> if the content is valid, <code>false</code> if not.
+   */
+  public boolean isValid ()
+  {
+    return m_bValid;
+  }
+
+  /**
+   * @return The validation mode that made the decision. For invalid content this is the mode that
+   *         rejected it, for valid content this is the deepest mode that was executed. May be
+   *         <code>null</code> if the file format has no content validator.
+   */
+  @Nullable
+  public EPhiveContentValidationMode getDecidingMode ()
+  {
+    return m_eDecidingMode;
+  }
+
+  /**
+   * @return <code>true</code> if a deeper validation mode was available but not executed, because
+   *         the byte or time budget was exceeded. In that case the content was only accepted by a
+   *         cheaper validation mode.
+   */
+  public boolean isBudgetExceeded ()
+  {
+    return m_bBudgetExceeded;
+  }
+
+  /**
+   * @return The total duration of the validation over all executed modes. Never <code>null</code>.
+   */
+  @NonNull
+  public Duration getDuration ()
+  {
+    return m_aDuration;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("Valid", m_bValid)
+                                       .append ("DecidingMode", m_eDecidingMode)
+                                       .append ("BudgetExceeded", m_bBudgetExceeded)
+                                       .append ("Duration", m_aDuration)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Incremental RFC 4180 structure scanner for CSV content in an ASCII compatible encoding. The
+ * content is fed in arbitrary chunks. Fields may be quoted, quotes inside quoted fields must be
+ * doubled, records are terminated by CRLF or LF, and every record must have the same number of
+ * fields. Empty lines are ignored. Control characters other than tab, CR and LF are not
+ * allowed.<br>
+ * The hot loop processes 8 bytes at a time with SWAR ("SIMD within a register") bit tricks, and
+ * only falls back to a byte by byte state machine for quotes, separators and control characters.
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+final class CSVScanner
+{
+  private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle (long [].class,
+                                                                                  ByteOrder.LITTLE_ENDIAN);
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+  private static final long QUOTES = ONES * '"';
+  private static final long CONTROLS = ONES * 0x20;
+
+  private static final int STATE_FIELD_START = 0;
+  private static final int STATE_UNQUOTED = 1;
+  private static final int STATE_QUOTED = 2;
+  private static final int STATE_QUOTED_QUOTE = 3;
+  private static final int STATE_CR = 4;
+
+  private final int m_nSeparator;
+  private final long m_nSeparators;
+  private final int m_nMinFieldCount;
+  private int m_nState = STATE_FIELD_START;
+  private boolean m_bInRecord = false;
+  private int m_nFieldCount = 0;
+  private int m_nExpectedFieldCount = -1;
+  private long m_nRecordCount = 0;
+  private boolean m_bError = false;
+
+  CSVScanner (final char cSeparator, @Nonnegative final int nMinFieldCount)
+  {
+    m_nSeparator = cSeparator;
+    m_nSeparators = ONES * cSeparator;
+    m_nMinFieldCount = nMinFieldCount;
+  }
+
+  /**
+   * @return A mask with the high bit set in the first byte that equals the provided byte pattern.
+   *         Bits above the first match may be wrong.
+   */
+  private static long _matches (final long nWord, final long nPattern)
+  {
+    final long x = nWord ^ nPattern;
+    return (x - ONES) & ~x & HIGHS;
+  }
+
+  /**
+   * @return A mask with the high bit set in the first byte that is a control character. Bits
+   *         above the first match may be wrong.
+   */
+  private static long _controls (final long nWord)
+  {
+    return (nWord - CONTROLS) & ~nWord & HIGHS;
+  }
+
+  static boolean isInvalidControl (final int c)
+  {
+    return c < 0x20 && c != '\t' && c != '\r' && c != '\n';
+  }
+
+  private void _endRecord ()
+  {
+    if (!m_bInRecord && m_nFieldCount == 0)
+    {
+      // Empty lines, e.g. at the end of the content, are ignored
+      m_nState = STATE_FIELD_START;
+      return;
+    }
+
+    m_nFieldCount++;
+    if (m_nExpectedFieldCount < 0)
+    {
+      if (m_nFieldCount < m_nMinFieldCount)
+        m_bError = true;
+      m_nExpectedFieldCount = m_nFieldCount;
+    }
+    else
+      if (m_nFieldCount != m_nExpectedFieldCount)
+        m_bError = true;
+    m_nRecordCount++;
+    m_nFieldCount = 0;
+    m_nState = STATE_FIELD_START;
+    m_bInRecord = false;
+  }
+
+  private void _process (final int c)
+  {
+    switch (m_nState)
+    {
+      case STATE_FIELD_START:
+      case STATE_UNQUOTED:
+        if (c == m_nSeparator)
+        {
+          m_nFieldCount++;
+          m_nState = STATE_FIELD_START;
+          m_bInRecord = true;
+        }
+        else
+          if (c == '"')
+          {
+            // Quotes are only allowed around complete fields
+            if (m_nState == STATE_UNQUOTED)
+              m_bError = true;
+            m_nState = STATE_QUOTED;
+            m_bInRecord = true;
+          }
+          else
+            if (c == '\n')
+              _endRecord ();
+            else
+              if (c == '\r')
+                m_nState = STATE_CR;
+              else
+                if (isInvalidControl (c))
+                  m_bError = true;
+                else
+                {
+                  m_nState = STATE_UNQUOTED;
+                  m_bInRecord = true;
+                }
+        break;
+      case STATE_QUOTED:
+        if (c == '"')
+          m_nState = STATE_QUOTED_QUOTE;
+        else
+          if (isInvalidControl (c))
+            m_bError = true;
+        break;
+      case STATE_QUOTED_QUOTE:
+        if (c == '"')
+        {
+          // Escaped quote
+          m_nState = STATE_QUOTED;
+        }
+        else
+          if (c == m_nSeparator)
+          {
+            m_nFieldCount++;
+            m_nState = STATE_FIELD_START;
+          }
+          else
+            if (c == '\n')
+              _endRecord ();
+            else
+              if (c == '\r')
+                m_nState = STATE_CR;
+              else
+                m_bError = true;
+        break;
+      case STATE_CR:
+        if (c == '\n')
+          _endRecord ();
+        else
+          m_bError = true;
+        break;
+      default:
+        throw new IllegalStateException ("Unexpected state " + m_nState);
+    }
+  }
+
+  /**
+   * Feed the next chunk of content.
+   *
+   * @param aData
+   *        Content buffer. May not be <code>null</code>.
+   * @param nOfs
+   *        Offset into the buffer.
+   * @param nLen
+   *        Number of bytes to scan.
+   * @return <code>false</code> if the content is invalid.
+   */
+  boolean feed (@NonNull final byte [] aData, @Nonnegative final int nOfs, @Nonnegative final int nLen)
+  {
+    final int nEnd = nOfs + nLen;
+    int i = nOfs;
+    while (i < nEnd && !m_bError)
+    {
+      if (m_nState <= STATE_QUOTED)
+      {
+        // Skip all bytes without a meaning for the structure, one word at a time
+        int nSkipped = 0;
+        while (i + 8 <= nEnd)
+        {
+          final long nWord = (long) LONG_LE.get (aData, i);
+          final long nMask;
+          if (m_nState == STATE_QUOTED)
+            nMask = _matches (nWord, QUOTES) | _controls (nWord);
+          else
+            nMask = _matches (nWord, QUOTES) | _matches (nWord, m_nSeparators) | _controls (nWord);
+          if (nMask != 0)
+          {
+            final int nPlain = Long.numberOfTrailingZeros (nMask) >>> 3;
+            i += nPlain;
+            nSkipped += nPlain;
+            break;
+          }
+          i += 8;
+          nSkipped += 8;
+        }
+        if (nSkipped > 0 && m_nState != STATE_QUOTED)
+        {
+          m_nState = STATE_UNQUOTED;
+          m_bInRecord = true;
+        }
+        if (i >= nEnd)
+          break;
+      }
+      _process (aData[i] & 0xff);
+      i++;
+    }
+    return !m_bError;
+  }
+
+  /**
+   * Signal the end of the content.
+   *
+   * @return <code>true</code> if the complete content is valid CSV.
+   */
+  boolean finish ()
+  {
+    if (m_nState == STATE_QUOTED || m_nState == STATE_CR)
+      m_bError = true;
+    else
+      if (m_bInRecord || m_nState == STATE_QUOTED_QUOTE)
+      {
+        // Last record without a line terminator
+        _endRecord ();
+      }
+    return !m_bError && m_nRecordCount > 0;
+  }
+
+  /**
+   * @return <code>true</code> if the content scanned so far can be the start of valid CSV, even if
+   *         the first record is not yet complete.
+   */
+  boolean isValidPrefix ()
+  {
+    if (m_bError)
+      return false;
+    if (m_nRecordCount > 0)
+      return true;
+    // First record is incomplete
+    return m_nFieldCount + 1 >= m_nMinFieldCount;
+  }
+
+  /**
+   * @return The number of complete records scanned so far.
+   */
+  @Nonnegative
+  long getRecordCount ()
+  {
+    return m_nRecordCount;
+  }
+}
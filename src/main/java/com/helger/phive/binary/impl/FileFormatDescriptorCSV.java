@@ -16,10 +16,16 @@
  */
 package com.helger.phive.binary.impl;
 
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashMap;
 import com.helger.mime.CMimeType;
 import com.helger.phive.binary.AbstractFileFormatDescriptor;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveContentValidator;
 
 /**
  * File format descriptor for CSV
@@ -30,12 +36,22 @@ public class FileFormatDescriptorCSV extends AbstractFileFormatDescriptor
 {
   public static final String NAME = "Comma-separated values";
 
+  @NonNull
+  private static Map <EPhiveContentValidationMode, IPhiveContentValidator> _getContentValidators ()
+  {
+    final Map <EPhiveContentValidationMode, IPhiveContentValidator> ret = new CommonsHashMap <> ();
+    ret.put (EPhiveContentValidationMode.LEADING_BYTES, new LeadingBytesContentValidatorCSV ());
+    ret.put (EPhiveContentValidationMode.HEAD_AND_TAIL, new HeadAndTailContentValidatorCSV ());
+    ret.put (EPhiveContentValidationMode.FULL_PARSE, new FullParseContentValidatorCSV ());
+    return ret;
+  }
+
   public FileFormatDescriptorCSV ()
   {
     super (NAME,
            "CSV",
            new CommonsArrayList <> ("csv"),
            new CommonsArrayList <> (CMimeType.TEXT_CSV.getAsString ()),
-           new CommonsHashMap <> ());
+           _getContentValidators ());
   }
 }
@@ -20,13 +20,13 @@ import java.util.Map;
 
 import org.jspecify.annotations.NonNull;
 
-import com.helger.base.array.ArrayHelper;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashMap;
 import com.helger.mime.CMimeType;
 import com.helger.phive.binary.AbstractFileFormatDescriptor;
 import com.helger.phive.binary.EPhiveContentValidationMode;
 import com.helger.phive.binary.IPhiveContentValidator;
+import com.helger.phive.binary.PhiveLeadingBytesContentValidator;
 
 /**
  * File format descriptor for GIF
@@ -44,7 +44,9 @@ public class FileFormatDescriptorGIF extends AbstractFileFormatDescriptor
   {
     final Map <EPhiveContentValidationMode, IPhiveContentValidator> ret = new CommonsHashMap <> ();
     ret.put (EPhiveContentValidationMode.LEADING_BYTES,
-             data -> ArrayHelper.startsWith (data, MIME_ID_GIF87A) || ArrayHelper.startsWith (data, MIME_ID_GIF89A));
+             new PhiveLeadingBytesContentValidator (MIME_ID_GIF87A, MIME_ID_GIF89A));
+    ret.put (EPhiveContentValidationMode.HEAD_AND_TAIL, new HeadAndTailContentValidatorGIF ());
+    ret.put (EPhiveContentValidationMode.FULL_PARSE, new FullParseContentValidatorGIF ());
     return ret;
   }
 
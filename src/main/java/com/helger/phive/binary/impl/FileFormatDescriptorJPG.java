@@ -20,13 +20,13 @@ import java.util.Map;
 
 import org.jspecify.annotations.NonNull;
 
-import com.helger.base.array.ArrayHelper;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashMap;
 import com.helger.mime.CMimeType;
 import com.helger.phive.binary.AbstractFileFormatDescriptor;
 import com.helger.phive.binary.EPhiveContentValidationMode;
 import com.helger.phive.binary.IPhiveContentValidator;
+import com.helger.phive.binary.PhiveLeadingBytesContentValidator;
 
 /**
  * File format descriptor for JPG/JPEG
@@ -42,7 +42,9 @@ public class FileFormatDescriptorJPG extends AbstractFileFormatDescriptor
   private static Map <EPhiveContentValidationMode, IPhiveContentValidator> _getContentValidators ()
   {
     final Map <EPhiveContentValidationMode, IPhiveContentValidator> ret = new CommonsHashMap <> ();
-    ret.put (EPhiveContentValidationMode.LEADING_BYTES, data -> ArrayHelper.startsWith (data, MIME_ID_JPG));
+    ret.put (EPhiveContentValidationMode.LEADING_BYTES, new PhiveLeadingBytesContentValidator (MIME_ID_JPG));
+    ret.put (EPhiveContentValidationMode.HEAD_AND_TAIL, new HeadAndTailContentValidatorJPG ());
+    ret.put (EPhiveContentValidationMode.FULL_PARSE, new FullParseContentValidatorJPG ());
     return ret;
   }
 
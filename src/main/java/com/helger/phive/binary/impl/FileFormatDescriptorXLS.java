@@ -20,13 +20,13 @@ import java.util.Map;
 
 import org.jspecify.annotations.NonNull;
 
-import com.helger.base.array.ArrayHelper;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashMap;
 import com.helger.mime.CMimeType;
 import com.helger.phive.binary.AbstractFileFormatDescriptor;
 import com.helger.phive.binary.EPhiveContentValidationMode;
 import com.helger.phive.binary.IPhiveContentValidator;
+import com.helger.phive.binary.PhiveLeadingBytesContentValidator;
 
 /**
  * File format descriptor for Excel XLS files
@@ -36,13 +36,22 @@ import com.helger.phive.binary.IPhiveContentValidator;
 public class FileFormatDescriptorXLS extends AbstractFileFormatDescriptor
 {
   public static final String NAME = "Excel Document (before 2007)";
-  private static final byte [] MIME_ID_XLS = { (byte) 0xD0, (byte) 0xcd, 0x11, (byte) 0xe0 };
+  private static final byte [] MIME_ID_XLS = { (byte) 0xd0,
+                                               (byte) 0xcf,
+                                               0x11,
+                                               (byte) 0xe0,
+                                               (byte) 0xa1,
+                                               (byte) 0xb1,
+                                               0x1a,
+                                               (byte) 0xe1 };
 
   @NonNull
   private static Map <EPhiveContentValidationMode, IPhiveContentValidator> _getContentValidators ()
   {
     final Map <EPhiveContentValidationMode, IPhiveContentValidator> ret = new CommonsHashMap <> ();
-    ret.put (EPhiveContentValidationMode.LEADING_BYTES, data -> ArrayHelper.startsWith (data, MIME_ID_XLS));
+    ret.put (EPhiveContentValidationMode.LEADING_BYTES, new PhiveLeadingBytesContentValidator (MIME_ID_XLS));
+    ret.put (EPhiveContentValidationMode.HEAD_AND_TAIL, new HeadAndTailContentValidatorXLS ());
+    ret.put (EPhiveContentValidationMode.FULL_PARSE, new FullParseContentValidatorXLS ());
     return ret;
   }
 
@@ -29,6 +29,7 @@ import com.helger.mime.CMimeType;
 import com.helger.phive.binary.AbstractFileFormatDescriptor;
 import com.helger.phive.binary.EPhiveContentValidationMode;
 import com.helger.phive.binary.IPhiveContentValidator;
+import com.helger.phive.binary.PhiveLeadingBytesContentValidator;
 
 /**
  * File format descriptor for XML documents
@@ -70,16 +71,23 @@ public class FileFormatDescriptorXML extends AbstractFileFormatDescriptor
       }
   }
 
+  /**
+   * @return A new leading bytes content validator for all XML prefixes. Each validator has its own
+   *         copy of the prefixes.
+   */
+  @NonNull
+  static PhiveLeadingBytesContentValidator createLeadingBytesValidator ()
+  {
+    return new PhiveLeadingBytesContentValidator (PREFIXES);
+  }
+
   @NonNull
   private static Map <EPhiveContentValidationMode, IPhiveContentValidator> _getContentValidators ()
   {
     final Map <EPhiveContentValidationMode, IPhiveContentValidator> ret = new CommonsHashMap <> ();
-    ret.put (EPhiveContentValidationMode.LEADING_BYTES, data -> {
-      for (final byte [] aPrefix : PREFIXES)
-        if (ArrayHelper.startsWith (data, aPrefix))
-          return true;
-      return false;
-    });
+    ret.put (EPhiveContentValidationMode.LEADING_BYTES, createLeadingBytesValidator ());
+    ret.put (EPhiveContentValidationMode.HEAD_AND_TAIL, new HeadAndTailContentValidatorXML ());
+    ret.put (EPhiveContentValidationMode.FULL_PARSE, new FullParseContentValidatorXML ());
     return ret;
   }
 
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.IOException;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.phive.binary.AbstractPhiveByteSourceContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#FULL_PARSE} content validator for CSV according to RFC 4180.
+ * The complete content is streamed through a structure scanner, that checks the quoting and that
+ * all records have the same number of fields. Single column CSV is supported, and empty lines are
+ * ignored. The content must use an ASCII compatible encoding, and an optional UTF-8 BOM is
+ * skipped.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class FullParseContentValidatorCSV extends AbstractPhiveByteSourceContentValidator
+{
+  /** The default field separator */
+  public static final char DEFAULT_SEPARATOR = ',';
+  static final byte [] UTF8_BOM = { (byte) 0xef, (byte) 0xbb, (byte) 0xbf };
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final char m_cSeparator;
+
+  public FullParseContentValidatorCSV ()
+  {
+    this (DEFAULT_SEPARATOR);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param cSeparator
+   *        The field separator to use. Must be a printable ASCII character other than the double
+   *        quote, or a tab.
+   */
+  public FullParseContentValidatorCSV (final char cSeparator)
+  {
+    super (true);
+    ValueEnforcer.isTrue (isValidSeparator (cSeparator), () -> "Invalid separator " + (int) cSeparator);
+    m_cSeparator = cSeparator;
+  }
+
+  static boolean isValidSeparator (final char c)
+  {
+    return c == '\t' || (c >= 0x20 && c < 0x7f && c != '"');
+  }
+
+  /**
+   * @return The field separator to use.
+   */
+  public final char getSeparator ()
+  {
+    return m_cSeparator;
+  }
+
+  @Override
+  protected boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    final CSVScanner aScanner = new CSVScanner (m_cSeparator, 1);
+    final byte [] aBuffer = new byte [BUFFER_SIZE];
+    long nPos = aSource.startsWith (0, UTF8_BOM) ? UTF8_BOM.length : 0;
+    int nRead;
+    while ((nRead = aSource.read (nPos, aBuffer, 0, aBuffer.length)) > 0)
+    {
+      if (!aScanner.feed (aBuffer, 0, nRead))
+        return false;
+      nPos += nRead;
+    }
+    return aScanner.finish ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return ToStringGenerator.getDerived (super.toString ()).append ("Separator", m_cSeparator).getToString ();
+  }
+}
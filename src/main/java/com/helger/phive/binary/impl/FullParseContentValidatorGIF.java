@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.IOException;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.phive.binary.AbstractPhiveByteSourceContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#FULL_PARSE} content validator for GIF. It checks the logical
+ * screen descriptor and walks all extension and image blocks up to the trailer. The data sub-blocks
+ * are skipped without LZW decoding, and the content is read sequentially. Optionally the number of
+ * frames (images) can be limited, to reject very large animations before they are decoded. By
+ * default, trailing bytes after the trailer are ignored, as decoders do.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class FullParseContentValidatorGIF extends AbstractPhiveByteSourceContentValidator
+{
+  /** The frame count that indicates that there is no limit */
+  public static final int UNLIMITED_FRAME_COUNT = Integer.MAX_VALUE;
+
+  private static final byte [] SIGNATURE_87A = { 'G', 'I', 'F', '8', '7', 'a' };
+  private static final byte [] SIGNATURE_89A = { 'G', 'I', 'F', '8', '9', 'a' };
+  private static final int LOGICAL_SCREEN_DESCRIPTOR_POS = 6;
+  private static final int LOGICAL_SCREEN_DESCRIPTOR_SIZE = 7;
+  private static final int IMAGE_DESCRIPTOR_SIZE = 9;
+  private static final int BLOCK_EXTENSION = 0x21;
+  private static final int BLOCK_IMAGE = 0x2c;
+  private static final int BLOCK_TRAILER = 0x3b;
+  private static final int EXT_GRAPHIC_CONTROL = 0xf9;
+  private static final int FLAG_COLOR_TABLE = 0x80;
+  private static final int MAX_LZW_CODE_SIZE = 11;
+
+  private final int m_nMaxFrameCount;
+  private final boolean m_bRejectTrailingBytes;
+
+  /**
+   * Constructor without a frame limit.
+   */
+  public FullParseContentValidatorGIF ()
+  {
+    this (UNLIMITED_FRAME_COUNT);
+  }
+
+  /**
+   * Constructor that ignores trailing bytes after the trailer.
+   *
+   * @param nMaxFrameCount
+   *        The maximum number of frames a valid GIF may contain. Must be &gt; 0.
+   */
+  public FullParseContentValidatorGIF (@Nonnegative final int nMaxFrameCount)
+  {
+    this (nMaxFrameCount, false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxFrameCount
+   *        The maximum number of frames a valid GIF may contain. Must be &gt; 0.
+   * @param bRejectTrailingBytes
+   *        <code>true</code> if the trailer must be the end of the content, <code>false</code> to
+   *        ignore any trailing bytes.
+   */
+  public FullParseContentValidatorGIF (@Nonnegative final int nMaxFrameCount, final boolean bRejectTrailingBytes)
+  {
+    super (true);
+    ValueEnforcer.isGT0 (nMaxFrameCount, "MaxFrameCount");
+    m_nMaxFrameCount = nMaxFrameCount;
+    m_bRejectTrailingBytes = bRejectTrailingBytes;
+  }
+
+  /**
+   * @return The maximum number of frames a valid GIF may contain. Always &gt; 0.
+   *         {@link #UNLIMITED_FRAME_COUNT} if there is no limit.
+   */
+  @Nonnegative
+  public final int getMaxFrameCount ()
+  {
+    return m_nMaxFrameCount;
+  }
+
+  /**
+   * @return <code>true</code> if the trailer must be the end of the content.
+   */
+  public final boolean isRejectTrailingBytes ()
+  {
+    return m_bRejectTrailingBytes;
+  }
+
+  /**
+   * @return The number of bytes of a color table, based on the packed fields.
+   */
+  private static int _getColorTableSize (final int nPackedFields)
+  {
+    return (nPackedFields & FLAG_COLOR_TABLE) == 0 ? 0 : 3 << ((nPackedFields & 0x07) + 1);
+  }
+
+  /**
+   * Skip a sequence of data sub-blocks including the block terminator.
+   *
+   * @return The position after the block terminator.
+   */
+  private static long _skipSubBlocks (@NonNull final IPhiveByteSource aSource, final long nStartPos) throws IOException
+  {
+    long nPos = nStartPos;
+    int nBlockSize;
+    while ((nBlockSize = aSource.getUInt8 (nPos)) != 0)
+      nPos += nBlockSize + 1;
+    return nPos + 1;
+  }
+
+  @Override
+  protected boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    if (!aSource.startsWith (0, SIGNATURE_89A) && !aSource.startsWith (0, SIGNATURE_87A))
+      return false;
+
+    // Logical screen descriptor
+    final int nWidth = aSource.getUInt16 (LOGICAL_SCREEN_DESCRIPTOR_POS, true);
+    final int nHeight = aSource.getUInt16 (LOGICAL_SCREEN_DESCRIPTOR_POS + 2, true);
+    final int nPackedFields = aSource.getUInt8 (LOGICAL_SCREEN_DESCRIPTOR_POS + 4);
+    if (nWidth == 0 || nHeight == 0)
+      return false;
+    long nPos = LOGICAL_SCREEN_DESCRIPTOR_POS + LOGICAL_SCREEN_DESCRIPTOR_SIZE + _getColorTableSize (nPackedFields);
+
+    int nFrameCount = 0;
+    while (true)
+    {
+      final int nBlockType = aSource.getUInt8 (nPos);
+      switch (nBlockType)
+      {
+        case BLOCK_EXTENSION:
+        {
+          final int nLabel = aSource.getUInt8 (nPos + 1);
+          if (nLabel == EXT_GRAPHIC_CONTROL && aSource.getUInt8 (nPos + 2) != 4)
+            return false;
+          nPos = _skipSubBlocks (aSource, nPos + 2);
+          break;
+        }
+        case BLOCK_IMAGE:
+        {
+          final int nImagePackedFields = aSource.getUInt8 (nPos + 9);
+          nPos += 1 + IMAGE_DESCRIPTOR_SIZE + _getColorTableSize (nImagePackedFields);
+          final int nLZWCodeSize = aSource.getUInt8 (nPos);
+          if (nLZWCodeSize == 0 || nLZWCodeSize > MAX_LZW_CODE_SIZE)
+            return false;
+          nPos = _skipSubBlocks (aSource, nPos + 1);
+          nFrameCount++;
+          if (nFrameCount > m_nMaxFrameCount)
+            return false;
+          break;
+        }
+        case BLOCK_TRAILER:
+          if (nFrameCount == 0)
+            return false;
+          return !m_bRejectTrailingBytes || aSource.getByte (nPos + 1) < 0;
+        default:
+          return false;
+      }
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return ToStringGenerator.getDerived (super.toString ())
+                            .append ("MaxFrameCount", m_nMaxFrameCount)
+                            .append ("RejectTrailingBytes", m_bRejectTrailingBytes)
+                            .getToString ();
+  }
+}
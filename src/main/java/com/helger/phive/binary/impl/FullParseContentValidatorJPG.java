@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.IOException;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.phive.binary.AbstractPhiveByteSourceContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#FULL_PARSE} content validator for JPEG. It walks the marker
+ * segments from the start of image (SOI) to the end of image (EOI) marker. A frame header (SOF)
+ * must precede the first scan (SOS), and the entropy coded data after each scan header is skipped
+ * by scanning for the next marker. Nothing is decoded, and the content is read sequentially. By
+ * default, trailing bytes after the end of image marker are ignored, as many cameras append
+ * additional data or padding and all mainstream decoders accept it.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class FullParseContentValidatorJPG extends AbstractPhiveByteSourceContentValidator
+{
+  private static final int MARKER_PREFIX = 0xff;
+  private static final int SOI = 0xd8;
+  private static final int EOI = 0xd9;
+  private static final int SOS = 0xda;
+  private static final int DHT = 0xc4;
+  private static final int JPG = 0xc8;
+  private static final int DAC = 0xcc;
+  private static final int TEM = 0x01;
+  private static final int RST0 = 0xd0;
+  private static final int RST7 = 0xd7;
+
+  private final boolean m_bRejectTrailingBytes;
+
+  /**
+   * Constructor that ignores trailing bytes after the end of image marker.
+   */
+  public FullParseContentValidatorJPG ()
+  {
+    this (false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bRejectTrailingBytes
+   *        <code>true</code> if the end of image marker must be the end of the content,
+   *        <code>false</code> to ignore any trailing bytes.
+   */
+  public FullParseContentValidatorJPG (final boolean bRejectTrailingBytes)
+  {
+    super (true);
+    m_bRejectTrailingBytes = bRejectTrailingBytes;
+  }
+
+  /**
+   * @return <code>true</code> if the end of image marker must be the end of the content.
+   */
+  public final boolean isRejectTrailingBytes ()
+  {
+    return m_bRejectTrailingBytes;
+  }
+
+  private static boolean _isSOF (final int nMarker)
+  {
+    return nMarker >= 0xc0 && nMarker <= 0xcf && nMarker != DHT && nMarker != JPG && nMarker != DAC;
+  }
+
+  /**
+   * Skip the entropy coded data starting at the provided position.
+   *
+   * @return The position of the next marker prefix, that is not a restart marker.
+   */
+  private static long _skipEntropyCodedData (@NonNull final IPhiveByteSource aSource, final long nStartPos) throws IOException
+  {
+    long nPos = nStartPos;
+    while (true)
+    {
+      if (aSource.getUInt8 (nPos) == MARKER_PREFIX)
+      {
+        final int nNext = aSource.getUInt8 (nPos + 1);
+        // Stuffed zero byte or restart marker
+        if (nNext == 0 || (nNext >= RST0 && nNext <= RST7))
+          nPos += 2;
+        else
+          if (nNext == MARKER_PREFIX)
+          {
+            // Fill byte
+            nPos++;
+          }
+          else
+            return nPos;
+      }
+      else
+        nPos++;
+    }
+  }
+
+  @Override
+  protected boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    if (aSource.getUInt8 (0) != MARKER_PREFIX || aSource.getUInt8 (1) != SOI)
+      return false;
+
+    long nPos = 2;
+    boolean bFrame = false;
+    boolean bScan = false;
+    while (true)
+    {
+      if (aSource.getUInt8 (nPos) != MARKER_PREFIX)
+        return false;
+      nPos++;
+      int nMarker = aSource.getUInt8 (nPos);
+      while (nMarker == MARKER_PREFIX)
+      {
+        // Skip optional fill bytes
+        nPos++;
+        nMarker = aSource.getUInt8 (nPos);
+      }
+      nPos++;
+
+      if (nMarker == EOI)
+      {
+        if (!bFrame || !bScan)
+          return false;
+        return !m_bRejectTrailingBytes || aSource.getByte (nPos) < 0;
+      }
+      if (nMarker == TEM)
+        continue;
+      if (nMarker < 0xc0 || nMarker == SOI || (nMarker >= RST0 && nMarker <= RST7))
+      {
+        // Reserved or misplaced marker
+        return false;
+      }
+
+      final int nLength = aSource.getUInt16 (nPos, false);
+      if (nLength < 2)
+        return false;
+
+      if (_isSOF (nMarker))
+      {
+        // Precision, height, width, number of components, 3 bytes per component
+        final int nPrecision = aSource.getUInt8 (nPos + 2);
+        final int nWidth = aSource.getUInt16 (nPos + 5, false);
+        final int nComponents = aSource.getUInt8 (nPos + 7);
+        if (bFrame ||
+            (nPrecision != 8 && nPrecision != 12 && nPrecision != 16) ||
+            nWidth == 0 ||
+            nComponents == 0 ||
+            nLength != 8 + 3 * nComponents)
+          return false;
+        bFrame = true;
+      }
+      else
+        if (nMarker == SOS)
+        {
+          // Number of components, 2 bytes per component, 3 bytes spectral selection
+          final int nComponents = aSource.getUInt8 (nPos + 2);
+          if (!bFrame || nComponents == 0 || nComponents > 4 || nLength != 6 + 2 * nComponents)
+            return false;
+          bScan = true;
+          nPos = _skipEntropyCodedData (aSource, nPos + nLength);
+          continue;
+        }
+      nPos += nLength;
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return ToStringGenerator.getDerived (super.toString ())
+                            .append ("RejectTrailingBytes", m_bRejectTrailingBytes)
+                            .getToString ();
+  }
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveByteSourceContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#FULL_PARSE} content validator for PDF. It checks the structure
+ * of the document starting from the end: the trailing <code>%%EOF</code> marker and the
+ * <code>startxref</code> offset are located in the last bytes, and then the chain of cross
+ * reference sections (classic tables and cross reference streams, including incremental updates
+ * and linearized files) is followed. For classic cross reference tables, the header of each used
+ * object is verified. Content streams are never parsed, and the entries of (usually compressed)
+ * cross reference streams are not checked.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class FullParseContentValidatorPDF extends AbstractPhiveByteSourceContentValidator
+{
+  private static final byte [] HEADER = { '%', 'P', 'D', 'F', '-' };
+  private static final byte [] EOF_MARKER = { '%', '%', 'E', 'O', 'F' };
+  private static final byte [] STARTXREF = { 's', 't', 'a', 'r', 't', 'x', 'r', 'e', 'f' };
+  private static final byte [] XREF = { 'x', 'r', 'e', 'f' };
+  private static final byte [] TRAILER = { 't', 'r', 'a', 'i', 'l', 'e', 'r' };
+  private static final byte [] OBJ = { 'o', 'b', 'j' };
+  private static final byte [] STREAM = { 's', 't', 'r', 'e', 'a', 'm' };
+  private static final byte [] NAME_PREV = { 'P', 'r', 'e', 'v' };
+  private static final byte [] NAME_XREFSTM = { 'X', 'R', 'e', 'f', 'S', 't', 'm' };
+  private static final byte [] NAME_SIZE = { 'S', 'i', 'z', 'e' };
+  private static final byte [] NAME_TYPE = { 'T', 'y', 'p', 'e' };
+  private static final byte [] NAME_XREF = { 'X', 'R', 'e', 'f' };
+  private static final byte [] NAME_LENGTH = { 'L', 'e', 'n', 'g', 't', 'h' };
+
+  /** The number of bytes at the end of the file, in which <code>%%EOF</code> must be located */
+  private static final int TAIL_SIZE = 1024;
+  /** The maximum number of cross reference sections to follow */
+  private static final int MAX_XREF_SECTIONS = 4096;
+  /** The initial capacity of the visited sections - most files have only a few */
+  private static final int INITIAL_VISITED_CAPACITY = 8;
+  /** The maximum number of bytes a dictionary may span */
+  private static final int MAX_DICT_SIZE = 1024 * 1024;
+
+  private static final long NONE = -1;
+  private static final long ERROR = -2;
+
+  /**
+   * The relevant entries of a dictionary. Only direct values are considered.
+   */
+  private static final class DictInfo
+  {
+    private long m_nPrev = NONE;
+    private long m_nXRefStm = NONE;
+    private long m_nSize = NONE;
+    private long m_nLength = NONE;
+    private boolean m_bTypeXRef = false;
+    // The position after the closing ">>"
+    private long m_nEnd;
+  }
+
+  /**
+   * A minimal PDF tokenizer on top of a byte source. It can be repositioned by setting the
+   * position.
+   */
+  private static final class Tokenizer
+  {
+    private final IPhiveByteSource m_aSource;
+    private long m_nPos;
+
+    Tokenizer (@NonNull final IPhiveByteSource aSource, @Nonnegative final long nPos)
+    {
+      m_aSource = aSource;
+      m_nPos = nPos;
+    }
+
+    private static boolean _isWhitespace (final int c)
+    {
+      return c == 0 || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == ' ';
+    }
+
+    private static boolean _isDelimiter (final int c)
+    {
+      return c == '(' ||
+             c == ')' ||
+             c == '<' ||
+             c == '>' ||
+             c == '[' ||
+             c == ']' ||
+             c == '{' ||
+             c == '}' ||
+             c == '/' ||
+             c == '%';
+    }
+
+    private static boolean _isRegular (final int c)
+    {
+      return c >= 0 && !_isWhitespace (c) && !_isDelimiter (c);
+    }
+
+    int peek () throws IOException
+    {
+      return m_aSource.getByte (m_nPos);
+    }
+
+    void skipWhitespaceAndComments () throws IOException
+    {
+      while (true)
+      {
+        final int c = peek ();
+        if (_isWhitespace (c))
+          m_nPos++;
+        else
+          if (c == '%')
+          {
+            // Comment up to the end of the line
+            int c2;
+            while ((c2 = peek ()) >= 0 && c2 != '\r' && c2 != '\n')
+              m_nPos++;
+          }
+          else
+            break;
+      }
+    }
+
+    /**
+     * @return The parsed non-negative integer or {@link #NONE} if there is no number.
+     */
+    long readUnsigned () throws IOException
+    {
+      skipWhitespaceAndComments ();
+      long ret = 0;
+      int nDigits = 0;
+      int c;
+      while ((c = peek ()) >= '0' && c <= '9')
+      {
+        ret = ret * 10 + (c - '0');
+        // Avoid overflows
+        if (++nDigits > 18)
+          return NONE;
+        m_nPos++;
+      }
+      return nDigits > 0 && !_isRegular (c) ? ret : NONE;
+    }
+
+    /**
+     * Read the provided keyword, that must be followed by a non-regular character.
+     */
+    boolean readKeyword (@NonNull final byte [] aKeyword) throws IOException
+    {
+      skipWhitespaceAndComments ();
+      if (!m_aSource.startsWith (m_nPos, aKeyword) || _isRegular (m_aSource.getByte (m_nPos + aKeyword.length)))
+        return false;
+      m_nPos += aKeyword.length;
+      return true;
+    }
+
+    boolean readObjectHeader (final long nObjNum, final long nGeneration) throws IOException
+    {
+      return readUnsigned () == nObjNum && readUnsigned () == nGeneration && readKeyword (OBJ);
+    }
+
+    private boolean _isName (final long nStart, final long nEnd, @NonNull final byte [] aName) throws IOException
+    {
+      return nEnd - nStart == aName.length && m_aSource.startsWith (nStart, aName);
+    }
+
+    /**
+     * Read a value that may be an indirect reference.
+     *
+     * @return The direct integer value or {@link #NONE}
+     */
+    private long _readDirectUnsigned () throws IOException
+    {
+      final long ret = readUnsigned ();
+      if (ret >= 0)
+      {
+        // Check for an indirect reference "n g R"
+        final long nAfter = m_nPos;
+        if (readUnsigned () >= 0)
+        {
+          skipWhitespaceAndComments ();
+          if (peek () == 'R')
+          {
+            m_nPos++;
+            return NONE;
+          }
+        }
+        m_nPos = nAfter;
+      }
+      return ret;
+    }
+
+    private void _skipLiteralString () throws IOException
+    {
+      // Current position is after the opening bracket
+      int nDepth = 1;
+      while (nDepth > 0)
+      {
+        final int c = m_aSource.getUInt8 (m_nPos++);
+        if (c == '\\')
+          m_nPos++;
+        else
+          if (c == '(')
+            nDepth++;
+          else
+            if (c == ')')
+              nDepth--;
+      }
+    }
+
+    /**
+     * Read a dictionary starting at the current position.
+     *
+     * @return <code>null</code> if there is no syntactically correct dictionary.
+     */
+    DictInfo readDictionary () throws IOException
+    {
+      skipWhitespaceAndComments ();
+      if (peek () != '<' || m_aSource.getByte (m_nPos + 1) != '<')
+        return null;
+      final long nStart = m_nPos;
+      m_nPos += 2;
+
+      final DictInfo ret = new DictInfo ();
+      int nDepth = 1;
+      while (nDepth > 0)
+      {
+        if (m_nPos - nStart > MAX_DICT_SIZE)
+          return null;
+        skipWhitespaceAndComments ();
+        final int c = m_aSource.getUInt8 (m_nPos);
+        if (c == '<')
+        {
+          if (m_aSource.getByte (m_nPos + 1) == '<')
+          {
+            nDepth++;
+            m_nPos += 2;
+          }
+          else
+          {
+            // Hex string
+            while (m_aSource.getUInt8 (m_nPos) != '>')
+              m_nPos++;
+            m_nPos++;
+          }
+        }
+        else
+          if (c == '>')
+          {
+            if (m_aSource.getByte (m_nPos + 1) != '>')
+              return null;
+            nDepth--;
+            m_nPos += 2;
+          }
+          else
+            if (c == '(')
+            {
+              m_nPos++;
+              _skipLiteralString ();
+            }
+            else
+              if (c == '/')
+              {
+                final long nNameStart = ++m_nPos;
+                while (_isRegular (peek ()))
+                  m_nPos++;
+                final long nNameEnd = m_nPos;
+                // Only the keys of the outer most dictionary are relevant
+                if (nDepth == 1)
+                {
+                  if (_isName (nNameStart, nNameEnd, NAME_PREV))
+                    ret.m_nPrev = _readDirectUnsigned ();
+                  else
+                    if (_isName (nNameStart, nNameEnd, NAME_XREFSTM))
+                      ret.m_nXRefStm = _readDirectUnsigned ();
+                    else
+                      if (_isName (nNameStart, nNameEnd, NAME_SIZE))
+                        ret.m_nSize = _readDirectUnsigned ();
+                      else
+                        if (_isName (nNameStart, nNameEnd, NAME_LENGTH))
+                          ret.m_nLength = _readDirectUnsigned ();
+                        else
+                          if (_isName (nNameStart, nNameEnd, NAME_TYPE))
+                          {
+                            skipWhitespaceAndComments ();
+                            if (peek () == '/')
+                            {
+                              final long nValueStart = ++m_nPos;
+                              while (_isRegular (peek ()))
+                                m_nPos++;
+                              ret.m_bTypeXRef = _isName (nValueStart, m_nPos, NAME_XREF);
+                            }
+                          }
+                }
+              }
+              else
+                if (_isRegular (c))
+                {
+                  // Numbers, keywords etc.
+                  while (_isRegular (peek ()))
+                    m_nPos++;
+                }
+                else
+                {
+                  // Array brackets and other delimiters
+                  m_nPos++;
+                }
+      }
+      ret.m_nEnd = m_nPos;
+      return ret;
+    }
+  }
+
+  public FullParseContentValidatorPDF ()
+  {
+    super (false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxStreamSize
+   *        The maximum size of streams to validate. As random access is needed, streams larger than
+   *        8 MB are copied into a temporary file. Must be &ge; 0.
+   * @see AbstractPhiveByteSourceContentValidator#DEFAULT_MAX_STREAM_SIZE
+   */
+  public FullParseContentValidatorPDF (@Nonnegative final long nMaxStreamSize)
+  {
+    super (false, nMaxStreamSize);
+  }
+
+  private static int _lastIndexOf (@NonNull final byte [] aData, final int nEnd, @NonNull final byte [] aSearch)
+  {
+    outer: for (int i = nEnd - aSearch.length; i >= 0; --i)
+    {
+      for (int j = 0; j < aSearch.length; ++j)
+        if (aData[i + j] != aSearch[j])
+          continue outer;
+      return i;
+    }
+    return -1;
+  }
+
+  /**
+   * Check a cross reference stream.
+   *
+   * @return The offset of the previous section, {@link #NONE} or {@link #ERROR}
+   */
+  private static long _checkXRefStream (@NonNull final IPhiveByteSource aSource,
+                                        final long nSize,
+                                        @NonNull final Tokenizer aTokenizer) throws IOException
+  {
+    if (aTokenizer.readUnsigned () < 0 || aTokenizer.readUnsigned () < 0 || !aTokenizer.readKeyword (OBJ))
+      return ERROR;
+    final DictInfo aDict = aTokenizer.readDictionary ();
+    if (aDict == null || !aDict.m_bTypeXRef || aDict.m_nSize < 0 || !aTokenizer.readKeyword (STREAM))
+      return ERROR;
+
+    if (aDict.m_nLength >= 0)
+    {
+      // The stream data must be completely inside the file
+      long nDataStart = aTokenizer.m_nPos;
+      if (aSource.getByte (nDataStart) == '\r')
+        nDataStart++;
+      if (aSource.getByte (nDataStart) == '\n')
+        nDataStart++;
+      if (nDataStart + aDict.m_nLength > nSize)
+        return ERROR;
+    }
+    return aDict.m_nPrev;
+  }
+
+  /**
+   * Check a classic cross reference table incl. its trailer.
+   *
+   * @return The offset of the previous section, {@link #NONE} or {@link #ERROR}
+   */
+  private static long _checkXRefTable (@NonNull final IPhiveByteSource aSource,
+                                       final long nSize,
+                                       @NonNull final Tokenizer aTokenizer,
+                                       @NonNull final Tokenizer aObjTokenizer) throws IOException
+  {
+    final byte [] aEntry = new byte [18];
+    while (!aTokenizer.readKeyword (TRAILER))
+    {
+      // Subsection header
+      final long nFirstObjNum = aTokenizer.readUnsigned ();
+      final long nCount = aTokenizer.readUnsigned ();
+      if (nFirstObjNum < 0 || nCount < 0)
+        return ERROR;
+      aTokenizer.skipWhitespaceAndComments ();
+
+      for (long i = 0; i < nCount; ++i)
+      {
+        // Each entry: "nnnnnnnnnn ggggg n" followed by a 2 byte end of line
+        aSource.readFully (aTokenizer.m_nPos, aEntry, 0, aEntry.length);
+        long nOffset = 0;
+        for (int j = 0; j < 10; ++j)
+        {
+          final int c = aEntry[j];
+          if (c < '0' || c > '9')
+            return ERROR;
+          nOffset = nOffset * 10 + (c - '0');
+        }
+        long nGeneration = 0;
+        for (int j = 11; j < 16; ++j)
+        {
+          final int c = aEntry[j];
+          if (c < '0' || c > '9')
+            return ERROR;
+          nGeneration = nGeneration * 10 + (c - '0');
+        }
+        if (aEntry[10] != ' ' || aEntry[16] != ' ')
+          return ERROR;
+
+        if (aEntry[17] == 'n')
+        {
+          // Object in use - check the object header
+          if (nOffset == 0 || nOffset >= nSize)
+            return ERROR;
+          aObjTokenizer.m_nPos = nOffset;
+          if (!aObjTokenizer.readObjectHeader (nFirstObjNum + i, nGeneration))
+            return ERROR;
+        }
+        else
+          if (aEntry[17] != 'f')
+            return ERROR;
+
+        // Be lenient on the end of line
+        aTokenizer.m_nPos += aEntry.length;
+        aTokenizer.skipWhitespaceAndComments ();
+      }
+    }
+
+    final DictInfo aTrailer = aTokenizer.readDictionary ();
+    if (aTrailer == null || aTrailer.m_nSize < 0)
+      return ERROR;
+
+    if (aTrailer.m_nXRefStm >= 0)
+    {
+      // Hybrid file - the additional cross reference stream must be valid
+      if (aTrailer.m_nXRefStm >= nSize)
+        return ERROR;
+      aObjTokenizer.m_nPos = aTrailer.m_nXRefStm;
+      if (_checkXRefStream (aSource, nSize, aObjTokenizer) == ERROR)
+        return ERROR;
+    }
+    return aTrailer.m_nPrev;
+  }
+
+  @Override
+  protected boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    final long nSize = aSource.getSize ();
+    if (nSize < HEADER.length + EOF_MARKER.length || !aSource.startsWith (0, HEADER))
+      return false;
+
+    // Tail first: find the last "%%EOF" and the "startxref" before it
+    final int nTailLen = (int) Math.min (TAIL_SIZE, nSize);
+    final long nTailStart = nSize - nTailLen;
+    final byte [] aTail = new byte [nTailLen];
+    aSource.readFully (nTailStart, aTail, 0, nTailLen);
+    final int nEOFIndex = _lastIndexOf (aTail, nTailLen, EOF_MARKER);
+    if (nEOFIndex < 0)
+      return false;
+    final int nStartXRefIndex = _lastIndexOf (aTail, nEOFIndex, STARTXREF);
+    if (nStartXRefIndex < 0)
+      return false;
+
+    final Tokenizer aTokenizer = new Tokenizer (aSource, nTailStart + nStartXRefIndex + STARTXREF.length);
+    long nXRefOffset = aTokenizer.readUnsigned ();
+    if (nXRefOffset < 0)
+      return false;
+
+    // Follow the chain of cross reference sections
+    final Tokenizer aObjTokenizer = new Tokenizer (aSource, 0);
+    long [] aVisited = new long [INITIAL_VISITED_CAPACITY];
+    int nVisited = 0;
+    while (nXRefOffset != NONE)
+    {
+      if (nXRefOffset < 0 || nXRefOffset >= nSize || nVisited == MAX_XREF_SECTIONS)
+        return false;
+      for (int i = 0; i < nVisited; ++i)
+        if (aVisited[i] == nXRefOffset)
+        {
+          // Cycle
+          return false;
+        }
+      if (nVisited == aVisited.length)
+        aVisited = Arrays.copyOf (aVisited, Math.min (nVisited * 2, MAX_XREF_SECTIONS));
+      aVisited[nVisited++] = nXRefOffset;
+
+      // Reuse the tokenizer of the startxref value for all sections
+      aTokenizer.m_nPos = nXRefOffset;
+      if (aTokenizer.readKeyword (XREF))
+        nXRefOffset = _checkXRefTable (aSource, nSize, aTokenizer, aObjTokenizer);
+      else
+        nXRefOffset = _checkXRefStream (aSource, nSize, aTokenizer);
+      if (nXRefOffset == ERROR)
+        return false;
+    }
+    return true;
+  }
+}
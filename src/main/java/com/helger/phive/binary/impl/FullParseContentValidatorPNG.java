@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveByteSourceContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#FULL_PARSE} content validator for PNG. It walks the chunk
+ * sequence and verifies the CRC of every chunk. The header chunk (IHDR) must be first, the image
+ * data chunks (IDAT) must be contiguous and the end chunk (IEND) must be last. Pixel data is never
+ * decompressed and the content is read sequentially in bounded memory.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class FullParseContentValidatorPNG extends AbstractPhiveByteSourceContentValidator
+{
+  private static final byte [] SIGNATURE = { (byte) 0x89, 0x50, 0x4e, 0x47, 0x0d, 0x0a, 0x1a, 0x0a };
+  private static final int TYPE_IHDR = 0x49484452;
+  private static final int TYPE_PLTE = 0x504c5445;
+  private static final int TYPE_IDAT = 0x49444154;
+  private static final int TYPE_IEND = 0x49454e44;
+  private static final int IHDR_LENGTH = 13;
+  private static final int BUFFER_SIZE = 8 * 1024;
+
+  public FullParseContentValidatorPNG ()
+  {
+    super (true);
+  }
+
+  private static boolean _isLetter (final int c)
+  {
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+  }
+
+  private static boolean _isValidChunkType (final int nType)
+  {
+    return _isLetter (nType >>> 24) &&
+           _isLetter ((nType >>> 16) & 0xff) &&
+           _isLetter ((nType >>> 8) & 0xff) &&
+           _isLetter (nType & 0xff);
+  }
+
+  private static boolean _isCritical (final int nType)
+  {
+    // Bit 5 of the first byte is 0 for critical chunks
+    return (nType & 0x20000000) == 0;
+  }
+
+  private static boolean _isValidHeader (@NonNull final byte [] aHeader)
+  {
+    final long nWidth = (aHeader[0] & 0xffL) << 24 | (aHeader[1] & 0xff) << 16 | (aHeader[2] & 0xff) << 8 | aHeader[3] & 0xff;
+    final long nHeight = (aHeader[4] & 0xffL) << 24 | (aHeader[5] & 0xff) << 16 | (aHeader[6] & 0xff) << 8 | aHeader[7] & 0xff;
+    if (nWidth == 0 || nWidth > Integer.MAX_VALUE || nHeight == 0 || nHeight > Integer.MAX_VALUE)
+      return false;
+
+    final int nBitDepth = aHeader[8];
+    final int nColorType = aHeader[9];
+    final boolean bValidDepth;
+    switch (nColorType)
+    {
+      case 0:
+        // Greyscale
+        bValidDepth = nBitDepth == 1 || nBitDepth == 2 || nBitDepth == 4 || nBitDepth == 8 || nBitDepth == 16;
+        break;
+      case 3:
+        // Indexed colour
+        bValidDepth = nBitDepth == 1 || nBitDepth == 2 || nBitDepth == 4 || nBitDepth == 8;
+        break;
+      case 2:
+      case 4:
+      case 6:
+        // Truecolour, greyscale with alpha, truecolour with alpha
+        bValidDepth = nBitDepth == 8 || nBitDepth == 16;
+        break;
+      default:
+        return false;
+    }
+    // Compression method, filter method and interlace method
+    return bValidDepth && aHeader[10] == 0 && aHeader[11] == 0 && (aHeader[12] == 0 || aHeader[12] == 1);
+  }
+
+  @Override
+  protected boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    if (!aSource.startsWith (0, SIGNATURE))
+      return false;
+
+    final CRC32 aCRC = new CRC32 ();
+    final byte [] aBuffer = new byte [BUFFER_SIZE];
+    long nPos = SIGNATURE.length;
+    int nChunkIndex = 0;
+    boolean bPalette = false;
+    boolean bHeaderIndexed = false;
+    // 0 = no IDAT yet, 1 = in IDAT sequence, 2 = after IDAT sequence
+    int nIDATState = 0;
+    while (true)
+    {
+      final long nLength = aSource.getUInt32 (nPos, false);
+      final int nType = (int) aSource.getUInt32 (nPos + 4, false);
+      if (nLength > Integer.MAX_VALUE || !_isValidChunkType (nType))
+        return false;
+
+      // The CRC covers chunk type and chunk data
+      aCRC.reset ();
+      aSource.readFully (nPos + 4, aBuffer, 0, 4);
+      aCRC.update (aBuffer, 0, 4);
+      final long nDataStart = nPos + 8;
+      if (nChunkIndex == 0)
+      {
+        if (nType != TYPE_IHDR || nLength != IHDR_LENGTH)
+          return false;
+        aSource.readFully (nDataStart, aBuffer, 0, IHDR_LENGTH);
+        if (!_isValidHeader (aBuffer))
+          return false;
+        bHeaderIndexed = aBuffer[9] == 3;
+        aCRC.update (aBuffer, 0, IHDR_LENGTH);
+      }
+      else
+      {
+        long nRemaining = nLength;
+        long nDataPos = nDataStart;
+        while (nRemaining > 0)
+        {
+          final int nChunk = (int) Math.min (nRemaining, BUFFER_SIZE);
+          aSource.readFully (nDataPos, aBuffer, 0, nChunk);
+          aCRC.update (aBuffer, 0, nChunk);
+          nDataPos += nChunk;
+          nRemaining -= nChunk;
+        }
+      }
+      final long nCRCPos = nDataStart + nLength;
+      if (aSource.getUInt32 (nCRCPos, false) != aCRC.getValue ())
+        return false;
+      nPos = nCRCPos + 4;
+
+      // Chunk ordering
+      if (nType == TYPE_IDAT)
+      {
+        if (nIDATState == 2)
+          return false;
+        nIDATState = 1;
+      }
+      else
+      {
+        if (nIDATState == 1)
+          nIDATState = 2;
+
+        if (nType == TYPE_IEND)
+        {
+          // Nothing may follow
+          return nLength == 0 &&
+                 nIDATState == 2 &&
+                 (!bHeaderIndexed || bPalette) &&
+                 aSource.getByte (nPos) < 0;
+        }
+
+        if (nType == TYPE_PLTE)
+        {
+          if (bPalette || nIDATState != 0 || nLength == 0 || nLength % 3 != 0 || nLength > 256 * 3)
+            return false;
+          bPalette = true;
+        }
+        else
+          if (nChunkIndex > 0 && _isCritical (nType))
+          {
+            // Duplicate header or unknown critical chunk
+            return false;
+          }
+      }
+      nChunkIndex++;
+    }
+  }
+}
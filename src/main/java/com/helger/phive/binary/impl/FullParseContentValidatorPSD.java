@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.IOException;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveByteSourceContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#FULL_PARSE} content validator for Photoshop PSD and PSB (large
+ * document format) files. It checks the file header, hops over the color mode data, the image
+ * resources and the layer and mask information sections using their declared lengths, and checks
+ * that the image data section lies inside the file. Neither pixel nor layer data is read.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class FullParseContentValidatorPSD extends AbstractPhiveByteSourceContentValidator
+{
+  private static final byte [] SIGNATURE = { '8', 'B', 'P', 'S' };
+  private static final byte [] RESOURCE_SIGNATURE = { '8', 'B', 'I', 'M' };
+  private static final int VERSION_PSD = 1;
+  private static final int VERSION_PSB = 2;
+  private static final int HEADER_SIZE = 26;
+  private static final int MAX_CHANNELS = 56;
+  private static final long MAX_DIMENSION_PSD = 30_000;
+  private static final long MAX_DIMENSION_PSB = 300_000;
+  private static final int COLOR_MODE_INDEXED = 2;
+  private static final int COLOR_MODE_DUOTONE = 8;
+  private static final int INDEXED_COLOR_DATA_SIZE = 768;
+  private static final long MAX_SECTION_LENGTH = Long.MAX_VALUE / 4;
+  private static final int COMPRESSION_RAW = 0;
+  private static final int COMPRESSION_RLE = 1;
+  private static final int COMPRESSION_ZIP_WITH_PREDICTION = 3;
+
+  public FullParseContentValidatorPSD ()
+  {
+    super (true);
+  }
+
+  private static boolean _isValidDepth (final int nDepth)
+  {
+    return nDepth == 1 || nDepth == 8 || nDepth == 16 || nDepth == 32;
+  }
+
+  private static boolean _isValidColorMode (final int nColorMode)
+  {
+    // Bitmap, Grayscale, Indexed, RGB, CMYK, Multichannel, Duotone, Lab
+    return (nColorMode >= 0 && nColorMode <= 4) || (nColorMode >= 7 && nColorMode <= 9);
+  }
+
+  /**
+   * Check that the range up to the provided end position is present, without reading it.
+   */
+  private static boolean _isPresent (@NonNull final IPhiveByteSource aSource,
+                                     final long nStart,
+                                     final long nEnd) throws IOException
+  {
+    return nEnd >= nStart && (nEnd == nStart || aSource.getByte (nEnd - 1) >= 0);
+  }
+
+  @Override
+  protected boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    if (!aSource.startsWith (0, SIGNATURE))
+      return false;
+
+    final int nVersion = aSource.getUInt16 (4, false);
+    if (nVersion != VERSION_PSD && nVersion != VERSION_PSB)
+      return false;
+    final boolean bPSB = nVersion == VERSION_PSB;
+    // Reserved bytes must be 0
+    if (aSource.getUInt32 (6, false) != 0 || aSource.getUInt16 (10, false) != 0)
+      return false;
+
+    final int nChannels = aSource.getUInt16 (12, false);
+    final long nHeight = aSource.getUInt32 (14, false);
+    final long nWidth = aSource.getUInt32 (18, false);
+    final int nDepth = aSource.getUInt16 (22, false);
+    final int nColorMode = aSource.getUInt16 (24, false);
+    final long nMaxDimension = bPSB ? MAX_DIMENSION_PSB : MAX_DIMENSION_PSD;
+    if (nChannels < 1 ||
+        nChannels > MAX_CHANNELS ||
+        nHeight < 1 ||
+        nHeight > nMaxDimension ||
+        nWidth < 1 ||
+        nWidth > nMaxDimension ||
+        !_isValidDepth (nDepth) ||
+        !_isValidColorMode (nColorMode))
+      return false;
+
+    // Color mode data section
+    long nPos = HEADER_SIZE;
+    final long nColorModeDataLen = aSource.getUInt32 (nPos, false);
+    if (nColorMode == COLOR_MODE_INDEXED ? nColorModeDataLen != INDEXED_COLOR_DATA_SIZE
+                                         : nColorMode != COLOR_MODE_DUOTONE && nColorModeDataLen != 0)
+      return false;
+    nPos += 4 + nColorModeDataLen;
+
+    // Image resources section
+    final long nImageResourcesLen = aSource.getUInt32 (nPos, false);
+    nPos += 4;
+    if (nImageResourcesLen > 0 && !aSource.startsWith (nPos, RESOURCE_SIGNATURE))
+      return false;
+    nPos += nImageResourcesLen;
+
+    // Layer and mask information section
+    final long nLayerAndMaskLen = bPSB ? aSource.getInt64 (nPos, false) : aSource.getUInt32 (nPos, false);
+    // Also avoids overflows of the position
+    if (nLayerAndMaskLen < 0 || nLayerAndMaskLen > MAX_SECTION_LENGTH)
+      return false;
+    nPos += (bPSB ? 8 : 4) + nLayerAndMaskLen;
+
+    // Image data section
+    final int nCompression = aSource.getUInt16 (nPos, false);
+    nPos += 2;
+    final long nRowBytes = nDepth == 1 ? (nWidth + 7) / 8 : nWidth * (nDepth / 8);
+    switch (nCompression)
+    {
+      case COMPRESSION_RAW:
+        // All channels are stored uncompressed
+        return _isPresent (aSource, nPos, nPos + nChannels * nHeight * nRowBytes);
+      case COMPRESSION_RLE:
+        // At least the byte counts for all rows of all channels
+        return _isPresent (aSource, nPos, nPos + nChannels * nHeight * (bPSB ? 4 : 2));
+      default:
+        // ZIP without or with prediction
+        return nCompression <= COMPRESSION_ZIP_WITH_PREDICTION && _isPresent (aSource, nPos, nPos + 1);
+    }
+  }
+}
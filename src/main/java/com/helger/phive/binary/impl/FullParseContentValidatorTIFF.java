@@ -0,0 +1,414 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.IOException;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.phive.binary.AbstractPhiveByteSourceContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#FULL_PARSE} content validator for TIFF and BigTIFF. It checks
+ * the byte order mark and the magic number, and follows the chain of image file directories (IFDs)
+ * with cycle detection. Every IFD must describe an image, all out-of-line entry values must be
+ * inside the file, and all strips or tiles must be inside the file. Only positional reads are
+ * used, so large files are never loaded completely.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class FullParseContentValidatorTIFF extends AbstractPhiveByteSourceContentValidator
+{
+  private static final int MAGIC_CLASSIC = 42;
+  private static final int MAGIC_BIGTIFF = 43;
+
+  private static final int TAG_IMAGE_WIDTH = 256;
+  private static final int TAG_IMAGE_LENGTH = 257;
+  private static final int TAG_STRIP_OFFSETS = 273;
+  private static final int TAG_STRIP_BYTE_COUNTS = 279;
+  private static final int TAG_TILE_OFFSETS = 324;
+  private static final int TAG_TILE_BYTE_COUNTS = 325;
+
+  private static final int TYPE_SHORT = 3;
+  private static final int TYPE_LONG = 4;
+  private static final int TYPE_IFD = 13;
+  private static final int TYPE_LONG8 = 16;
+  private static final int TYPE_IFD8 = 18;
+
+  /** Byte size per field type, indexed by type. 0 for unknown types. */
+  private static final int [] TYPE_SIZES = { 0, 1, 1, 2, 4, 8, 1, 1, 2, 4, 8, 4, 8, 4, 0, 0, 8, 8, 8 };
+
+  /**
+   * A minimal open addressing set of positive long values to detect IFD cycles without boxing.
+   */
+  @NotThreadSafe
+  private static final class LongSet
+  {
+    private long [] m_aValues = new long [16];
+    private int m_nCount = 0;
+
+    private static int _hash (final long n)
+    {
+      final long h = n * 0x9e3779b97f4a7c15L;
+      return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * @return <code>true</code> if the value was added, <code>false</code> if it was already
+     *         contained.
+     */
+    boolean add (final long nValue)
+    {
+      if ((m_nCount + 1) * 2 > m_aValues.length)
+      {
+        // Rehash
+        final long [] aOld = m_aValues;
+        m_aValues = new long [aOld.length * 2];
+        for (final long n : aOld)
+          if (n != 0)
+            _insert (n);
+      }
+      if (!_insert (nValue))
+        return false;
+      m_nCount++;
+      return true;
+    }
+
+    private boolean _insert (final long nValue)
+    {
+      final int nMask = m_aValues.length - 1;
+      int nIndex = _hash (nValue) & nMask;
+      while (m_aValues[nIndex] != 0)
+      {
+        if (m_aValues[nIndex] == nValue)
+          return false;
+        nIndex = (nIndex + 1) & nMask;
+      }
+      m_aValues[nIndex] = nValue;
+      return true;
+    }
+  }
+
+  /**
+   * The layout of the file, depending on classic TIFF or BigTIFF and the byte order.
+   */
+  private static final class Layout
+  {
+    private final IPhiveByteSource m_aSource;
+    private final long m_nSize;
+    private final boolean m_bLittleEndian;
+    private final boolean m_bBigTIFF;
+
+    Layout (@NonNull final IPhiveByteSource aSource,
+            final long nSize,
+            final boolean bLittleEndian,
+            final boolean bBigTIFF)
+    {
+      m_aSource = aSource;
+      m_nSize = nSize;
+      m_bLittleEndian = bLittleEndian;
+      m_bBigTIFF = bBigTIFF;
+    }
+
+    int getEntrySize ()
+    {
+      return m_bBigTIFF ? 20 : 12;
+    }
+
+    int getInlineSize ()
+    {
+      return m_bBigTIFF ? 8 : 4;
+    }
+
+    /**
+     * Read an offset or count. BigTIFF values that exceed {@link Long#MAX_VALUE} are negative.
+     */
+    long readOffset (final long nPos) throws IOException
+    {
+      return m_bBigTIFF ? m_aSource.getInt64 (nPos, m_bLittleEndian) : m_aSource.getUInt32 (nPos, m_bLittleEndian);
+    }
+
+    int readUInt16 (final long nPos) throws IOException
+    {
+      return m_aSource.getUInt16 (nPos, m_bLittleEndian);
+    }
+
+    /**
+     * Read an unsigned integer value of the provided type.
+     *
+     * @return -1 if the type is not an unsigned integer type.
+     */
+    long readUnsigned (final long nPos, final int nType) throws IOException
+    {
+      switch (nType)
+      {
+        case TYPE_SHORT:
+          return m_aSource.getUInt16 (nPos, m_bLittleEndian);
+        case TYPE_LONG:
+        case TYPE_IFD:
+          return m_aSource.getUInt32 (nPos, m_bLittleEndian);
+        case TYPE_LONG8:
+        case TYPE_IFD8:
+          return m_aSource.getInt64 (nPos, m_bLittleEndian);
+        default:
+          return -1;
+      }
+    }
+
+    boolean isInside (final long nOffset, final long nLength)
+    {
+      return nOffset >= 0 && nLength >= 0 && nOffset <= m_nSize && nLength <= m_nSize - nOffset;
+    }
+  }
+
+  public FullParseContentValidatorTIFF ()
+  {
+    super (false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxStreamSize
+   *        The maximum size of streams to validate. As random access is needed, streams larger than
+   *        8 MB are copied into a temporary file. Must be &ge; 0.
+   * @see AbstractPhiveByteSourceContentValidator#DEFAULT_MAX_STREAM_SIZE
+   */
+  public FullParseContentValidatorTIFF (@Nonnegative final long nMaxStreamSize)
+  {
+    super (false, nMaxStreamSize);
+  }
+
+  /**
+   * Check that all blocks (strips or tiles) are inside the file.
+   */
+  private static boolean _checkBlocks (@NonNull final Layout aLayout,
+                                       final int nOffsetsType,
+                                       final long nCount,
+                                       final long nOffsetsPos,
+                                       final int nByteCountsType,
+                                       final long nByteCountsCount,
+                                       final long nByteCountsPos) throws IOException
+  {
+    if (nCount == 0)
+      return false;
+
+    final int nOffsetSize = TYPE_SIZES[nOffsetsType];
+    if (nByteCountsPos < 0)
+    {
+      // No byte counts - the offsets must at least be inside the file
+      for (long i = 0; i < nCount; ++i)
+        if (!aLayout.isInside (aLayout.readUnsigned (nOffsetsPos + i * nOffsetSize, nOffsetsType), 1))
+          return false;
+      return true;
+    }
+
+    if (nByteCountsCount != nCount)
+      return false;
+    final int nByteCountSize = TYPE_SIZES[nByteCountsType];
+    for (long i = 0; i < nCount; ++i)
+    {
+      final long nOffset = aLayout.readUnsigned (nOffsetsPos + i * nOffsetSize, nOffsetsType);
+      final long nByteCount = aLayout.readUnsigned (nByteCountsPos + i * nByteCountSize, nByteCountsType);
+      if (!aLayout.isInside (nOffset, nByteCount))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Check a single IFD.
+   *
+   * @return The offset of the next IFD, 0 if there is none, or -1 if the IFD is invalid.
+   */
+  private static long _checkIFD (@NonNull final Layout aLayout, final long nIFDOffset) throws IOException
+  {
+    final long nEntryCount = aLayout.m_bBigTIFF ? aLayout.readOffset (nIFDOffset) : aLayout.readUInt16 (nIFDOffset);
+    final int nCountSize = aLayout.m_bBigTIFF ? 8 : 2;
+    final int nEntrySize = aLayout.getEntrySize ();
+    final int nInlineSize = aLayout.getInlineSize ();
+    if (nEntryCount <= 0 || nEntryCount > aLayout.m_nSize || !aLayout.isInside (nIFDOffset + nCountSize, nEntryCount * nEntrySize + nInlineSize))
+      return -1;
+
+    boolean bWidth = false;
+    boolean bHeight = false;
+    int nStripsType = 0;
+    long nStripsCount = 0;
+    long nStripsPos = -1;
+    int nStripBytesType = 0;
+    long nStripBytesCount = 0;
+    long nStripBytesPos = -1;
+    int nTilesType = 0;
+    long nTilesCount = 0;
+    long nTilesPos = -1;
+    int nTileBytesType = 0;
+    long nTileBytesCount = 0;
+    long nTileBytesPos = -1;
+
+    final long nEntriesStart = nIFDOffset + nCountSize;
+    for (long i = 0; i < nEntryCount; ++i)
+    {
+      final long nEntryPos = nEntriesStart + i * nEntrySize;
+      final int nTag = aLayout.readUInt16 (nEntryPos);
+      final int nType = aLayout.readUInt16 (nEntryPos + 2);
+      final long nCount = aLayout.readOffset (nEntryPos + 4);
+      final long nValueFieldPos = nEntryPos + 4 + nInlineSize;
+
+      final int nTypeSize = nType < TYPE_SIZES.length ? TYPE_SIZES[nType] : 0;
+      if (nTypeSize == 0)
+      {
+        // Unknown field types must be ignored
+        continue;
+      }
+      // Every value has at least one byte, so this also avoids overflows
+      if (nCount < 0 || nCount > aLayout.m_nSize)
+        return -1;
+      final long nValueSize = nCount * nTypeSize;
+      final long nValuePos;
+      if (nValueSize <= nInlineSize)
+        nValuePos = nValueFieldPos;
+      else
+      {
+        nValuePos = aLayout.readOffset (nValueFieldPos);
+        if (!aLayout.isInside (nValuePos, nValueSize))
+          return -1;
+      }
+
+      switch (nTag)
+      {
+        case TAG_IMAGE_WIDTH:
+          bWidth = nCount == 1 && aLayout.readUnsigned (nValuePos, nType) > 0;
+          break;
+        case TAG_IMAGE_LENGTH:
+          bHeight = nCount == 1 && aLayout.readUnsigned (nValuePos, nType) > 0;
+          break;
+        case TAG_STRIP_OFFSETS:
+          nStripsType = nType;
+          nStripsCount = nCount;
+          nStripsPos = nValuePos;
+          break;
+        case TAG_STRIP_BYTE_COUNTS:
+          nStripBytesType = nType;
+          nStripBytesCount = nCount;
+          nStripBytesPos = nValuePos;
+          break;
+        case TAG_TILE_OFFSETS:
+          nTilesType = nType;
+          nTilesCount = nCount;
+          nTilesPos = nValuePos;
+          break;
+        case TAG_TILE_BYTE_COUNTS:
+          nTileBytesType = nType;
+          nTileBytesCount = nCount;
+          nTileBytesPos = nValuePos;
+          break;
+      }
+    }
+
+    if (!bWidth || !bHeight)
+      return -1;
+
+    // The offsets and byte counts must be of an unsigned integer type
+    if ((nStripsPos >= 0 && aLayout.readUnsigned (nStripsPos, nStripsType) < 0) ||
+        (nStripBytesPos >= 0 && aLayout.readUnsigned (nStripBytesPos, nStripBytesType) < 0) ||
+        (nTilesPos >= 0 && aLayout.readUnsigned (nTilesPos, nTilesType) < 0) ||
+        (nTileBytesPos >= 0 && aLayout.readUnsigned (nTileBytesPos, nTileBytesType) < 0))
+      return -1;
+
+    final boolean bValidBlocks;
+    if (nStripsPos >= 0)
+      bValidBlocks = _checkBlocks (aLayout,
+                                   nStripsType,
+                                   nStripsCount,
+                                   nStripsPos,
+                                   nStripBytesType,
+                                   nStripBytesCount,
+                                   nStripBytesPos);
+    else
+      if (nTilesPos >= 0)
+        bValidBlocks = _checkBlocks (aLayout,
+                                     nTilesType,
+                                     nTilesCount,
+                                     nTilesPos,
+                                     nTileBytesType,
+                                     nTileBytesCount,
+                                     nTileBytesPos);
+      else
+        bValidBlocks = false;
+    if (!bValidBlocks)
+      return -1;
+
+    return aLayout.readOffset (nEntriesStart + nEntryCount * nEntrySize);
+  }
+
+  @Override
+  protected boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    final long nSize = aSource.getSize ();
+
+    final int nByteOrder1 = aSource.getUInt8 (0);
+    final int nByteOrder2 = aSource.getUInt8 (1);
+    final boolean bLittleEndian;
+    if (nByteOrder1 == 'I' && nByteOrder2 == 'I')
+      bLittleEndian = true;
+    else
+      if (nByteOrder1 == 'M' && nByteOrder2 == 'M')
+        bLittleEndian = false;
+      else
+        return false;
+
+    final int nMagic = aSource.getUInt16 (2, bLittleEndian);
+    final Layout aLayout;
+    long nIFDOffset;
+    if (nMagic == MAGIC_CLASSIC)
+    {
+      aLayout = new Layout (aSource, nSize, bLittleEndian, false);
+      nIFDOffset = aLayout.readOffset (4);
+    }
+    else
+      if (nMagic == MAGIC_BIGTIFF)
+      {
+        // Offset byte size must be 8, followed by a 0 constant
+        if (aSource.getUInt16 (4, bLittleEndian) != 8 || aSource.getUInt16 (6, bLittleEndian) != 0)
+          return false;
+        aLayout = new Layout (aSource, nSize, bLittleEndian, true);
+        nIFDOffset = aLayout.readOffset (8);
+      }
+      else
+        return false;
+
+    // At least one IFD is required
+    if (nIFDOffset == 0)
+      return false;
+
+    final LongSet aVisited = new LongSet ();
+    while (nIFDOffset != 0)
+    {
+      if (nIFDOffset < 0 || nIFDOffset >= nSize || !aVisited.add (nIFDOffset))
+        return false;
+      nIFDOffset = _checkIFD (aLayout, nIFDOffset);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.IOException;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveByteSourceContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#FULL_PARSE} content validator for legacy XLS files. It parses
+ * the header of the Compound File Binary (CFB, also known as OLE2) container, collects the FAT
+ * sectors via the DIFAT, and follows the directory sector chain. The root storage must directly
+ * contain a stream called <code>Workbook</code> (BIFF8) or <code>Book</code> (BIFF5). Sectors are
+ * accessed individually with positional reads, and the file is never loaded completely.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class FullParseContentValidatorXLS extends AbstractPhiveByteSourceContentValidator
+{
+  private static final byte [] SIGNATURE = { (byte) 0xd0,
+                                             (byte) 0xcf,
+                                             0x11,
+                                             (byte) 0xe0,
+                                             (byte) 0xa1,
+                                             (byte) 0xb1,
+                                             0x1a,
+                                             (byte) 0xe1 };
+  private static final int HEADER_SIZE = 512;
+  private static final int HEADER_DIFAT_ENTRIES = 109;
+  private static final int BYTE_ORDER_MARK = 0xfffe;
+  private static final int DIRECTORY_ENTRY_SIZE = 128;
+  private static final long MAX_REGULAR_SECTOR = 0xfffffffaL;
+  private static final long END_OF_CHAIN = 0xfffffffeL;
+  private static final long NO_STREAM = 0xffffffffL;
+  private static final int ENTRY_TYPE_STREAM = 2;
+  private static final int ENTRY_TYPE_ROOT = 5;
+  private static final long MINI_STREAM_CUTOFF = 4096;
+  private static final char [] NAME_WORKBOOK = "WORKBOOK".toCharArray ();
+  private static final char [] NAME_BOOK = "BOOK".toCharArray ();
+
+  /**
+   * The parsed container structure.
+   */
+  private static final class Container
+  {
+    private final IPhiveByteSource m_aSource;
+    private final int m_nSectorShift;
+    private final int m_nSectorSize;
+    private final long m_nSectorCount;
+    // Sector numbers of all FAT sectors
+    private final long [] m_aFATSectors;
+
+    Container (@NonNull final IPhiveByteSource aSource,
+               final int nSectorShift,
+               final long nSectorCount,
+               @NonNull final long [] aFATSectors)
+    {
+      m_aSource = aSource;
+      m_nSectorShift = nSectorShift;
+      m_nSectorSize = 1 << nSectorShift;
+      m_nSectorCount = nSectorCount;
+      m_aFATSectors = aFATSectors;
+    }
+
+    boolean isValidSector (final long nSector)
+    {
+      return nSector >= 0 && nSector < m_nSectorCount;
+    }
+
+    long getSectorOffset (final long nSector)
+    {
+      return (nSector + 1) << m_nSectorShift;
+    }
+
+    /**
+     * @return The next sector in the chain. May be a special value or an invalid sector number.
+     */
+    long getNextSector (final long nSector) throws IOException
+    {
+      final int nEntriesPerSector = m_nSectorSize / 4;
+      final long nFATIndex = nSector / nEntriesPerSector;
+      if (nFATIndex >= m_aFATSectors.length)
+        return NO_STREAM;
+      return m_aSource.getUInt32 (getSectorOffset (m_aFATSectors[(int) nFATIndex]) +
+                                  (nSector % nEntriesPerSector) * 4,
+                                  true);
+    }
+
+    /**
+     * Follow a sector chain.
+     *
+     * @return The sectors of the chain or <code>null</code> if the chain is invalid.
+     */
+    long [] getChain (final long nStartSector, final long nMaxLength) throws IOException
+    {
+      long [] ret = new long [16];
+      int nCount = 0;
+      long nSector = nStartSector;
+      while (nSector != END_OF_CHAIN)
+      {
+        // A chain longer than the number of sectors contains a cycle
+        if (!isValidSector (nSector) || nCount >= nMaxLength || nCount >= m_nSectorCount)
+          return null;
+        if (nCount == ret.length)
+        {
+          final long [] aNew = new long [nCount * 2];
+          System.arraycopy (ret, 0, aNew, 0, nCount);
+          ret = aNew;
+        }
+        ret[nCount++] = nSector;
+        nSector = getNextSector (nSector);
+      }
+      final long [] aResult = new long [nCount];
+      System.arraycopy (ret, 0, aResult, 0, nCount);
+      return aResult;
+    }
+  }
+
+  public FullParseContentValidatorXLS ()
+  {
+    super (false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxStreamSize
+   *        The maximum size of streams to validate. As random access is needed, streams larger than
+   *        8 MB are copied into a temporary file. Must be &ge; 0.
+   * @see AbstractPhiveByteSourceContentValidator#DEFAULT_MAX_STREAM_SIZE
+   */
+  public FullParseContentValidatorXLS (@Nonnegative final long nMaxStreamSize)
+  {
+    super (false, nMaxStreamSize);
+  }
+
+  /**
+   * Read the header and collect all FAT sectors.
+   *
+   * @return <code>null</code> if the header or the DIFAT is invalid.
+   */
+  private static Container _readContainer (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    final long nSize = aSource.getSize ();
+    if (nSize < HEADER_SIZE || !aSource.startsWith (0, SIGNATURE))
+      return null;
+
+    final int nMajorVersion = aSource.getUInt16 (0x1a, true);
+    final int nByteOrder = aSource.getUInt16 (0x1c, true);
+    final int nSectorShift = aSource.getUInt16 (0x1e, true);
+    final int nMiniSectorShift = aSource.getUInt16 (0x20, true);
+    if (nByteOrder != BYTE_ORDER_MARK ||
+        nMiniSectorShift != 6 ||
+        !((nMajorVersion == 3 && nSectorShift == 9) || (nMajorVersion == 4 && nSectorShift == 12)))
+      return null;
+
+    final int nSectorSize = 1 << nSectorShift;
+    // The last sector may be truncated
+    final long nSectorCount = (nSize - nSectorSize + nSectorSize - 1) / nSectorSize;
+    final long nFATSectorCount = aSource.getUInt32 (0x2c, true);
+    final long nDIFATSectorCount = aSource.getUInt32 (0x48, true);
+    if (nFATSectorCount == 0 || nFATSectorCount > nSectorCount || nDIFATSectorCount > nSectorCount)
+      return null;
+
+    final long [] aFATSectors = new long [(int) nFATSectorCount];
+    int nFATIndex = 0;
+    // The first entries are in the header
+    for (int i = 0; i < HEADER_DIFAT_ENTRIES && nFATIndex < aFATSectors.length; ++i)
+      aFATSectors[nFATIndex++] = aSource.getUInt32 (0x4c + i * 4, true);
+
+    // Then follow the DIFAT chain
+    final int nEntriesPerDIFATSector = nSectorSize / 4 - 1;
+    long nDIFATSector = aSource.getUInt32 (0x44, true);
+    for (long i = 0; i < nDIFATSectorCount && nFATIndex < aFATSectors.length; ++i)
+    {
+      if (nDIFATSector >= nSectorCount)
+        return null;
+      final long nOffset = (nDIFATSector + 1) << nSectorShift;
+      for (int j = 0; j < nEntriesPerDIFATSector && nFATIndex < aFATSectors.length; ++j)
+        aFATSectors[nFATIndex++] = aSource.getUInt32 (nOffset + j * 4, true);
+      nDIFATSector = aSource.getUInt32 (nOffset + nEntriesPerDIFATSector * 4, true);
+    }
+    if (nFATIndex < aFATSectors.length)
+      return null;
+
+    for (final long nFATSector : aFATSectors)
+      if (nFATSector >= nSectorCount || nFATSector > MAX_REGULAR_SECTOR)
+        return null;
+    return new Container (aSource, nSectorShift, nSectorCount, aFATSectors);
+  }
+
+  private static boolean _isName (@NonNull final IPhiveByteSource aSource,
+                                  final long nEntryPos,
+                                  @NonNull final char [] aName) throws IOException
+  {
+    // Length in bytes incl. the terminating null character
+    final int nNameLen = aSource.getUInt16 (nEntryPos + 64, true);
+    if (nNameLen != (aName.length + 1) * 2)
+      return false;
+    for (int i = 0; i < aName.length; ++i)
+    {
+      // Names are compared case-insensitive
+      final int c = aSource.getUInt16 (nEntryPos + i * 2, true);
+      if (Character.toUpperCase (c) != aName[i])
+        return false;
+    }
+    return true;
+  }
+
+  private static boolean _isBOFRecord (final int nRecordType)
+  {
+    // BIFF8, BIFF4, BIFF3 and BIFF2 beginning of file
+    return nRecordType == 0x0809 || nRecordType == 0x0409 || nRecordType == 0x0209 || nRecordType == 0x0009;
+  }
+
+  /**
+   * Check the workbook stream.
+   */
+  private static boolean _isValidWorkbookStream (@NonNull final Container aContainer,
+                                                 final long nEntryPos,
+                                                 final long nMiniStreamSize) throws IOException
+  {
+    final IPhiveByteSource aSource = aContainer.m_aSource;
+    final long nStartSector = aSource.getUInt32 (nEntryPos + 116, true);
+    long nStreamSize = aSource.getInt64 (nEntryPos + 120, true);
+    if (aContainer.m_nSectorSize == 512)
+    {
+      // Version 3 may contain garbage in the high part
+      nStreamSize &= 0xffffffffL;
+    }
+    if (nStreamSize <= 0)
+      return false;
+
+    if (nStreamSize < MINI_STREAM_CUTOFF)
+    {
+      // Stored in the mini stream
+      return nStreamSize <= nMiniStreamSize;
+    }
+
+    final long nExpectedSectors = (nStreamSize + aContainer.m_nSectorSize - 1) / aContainer.m_nSectorSize;
+    final long [] aChain = aContainer.getChain (nStartSector, nExpectedSectors);
+    if (aChain == null || aChain.length != nExpectedSectors)
+      return false;
+    return _isBOFRecord (aSource.getUInt16 (aContainer.getSectorOffset (aChain[0]), true));
+  }
+
+  @Override
+  protected boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    final Container aContainer = _readContainer (aSource);
+    if (aContainer == null)
+      return false;
+
+    // Directory
+    final long [] aDirSectors = aContainer.getChain (aSource.getUInt32 (0x30, true), Integer.MAX_VALUE);
+    if (aDirSectors == null || aDirSectors.length == 0)
+      return false;
+    final int nEntriesPerSector = aContainer.m_nSectorSize / DIRECTORY_ENTRY_SIZE;
+    final long nEntryCount = (long) aDirSectors.length * nEntriesPerSector;
+
+    // The first entry is the root storage
+    final long nRootPos = aContainer.getSectorOffset (aDirSectors[0]);
+    if (aSource.getUInt8 (nRootPos + 66) != ENTRY_TYPE_ROOT)
+      return false;
+    long nMiniStreamSize = aSource.getInt64 (nRootPos + 120, true);
+    if (aContainer.m_nSectorSize == 512)
+      nMiniStreamSize &= 0xffffffffL;
+
+    // Walk the red-black tree of the direct children of the root storage
+    final long [] aStack = new long [64];
+    int nStackSize = 0;
+    long nVisited = 0;
+    final long nRootChildID = aSource.getUInt32 (nRootPos + 76, true);
+    if (nRootChildID != NO_STREAM)
+      aStack[nStackSize++] = nRootChildID;
+    while (nStackSize > 0)
+    {
+      final long nEntryID = aStack[--nStackSize];
+      // More visits than entries means a cycle
+      if (nEntryID >= nEntryCount || ++nVisited > nEntryCount)
+        return false;
+
+      final long nEntryPos = aContainer.getSectorOffset (aDirSectors[(int) (nEntryID / nEntriesPerSector)]) +
+                             (nEntryID % nEntriesPerSector) * DIRECTORY_ENTRY_SIZE;
+      if (aSource.getUInt8 (nEntryPos + 66) == ENTRY_TYPE_STREAM &&
+          (_isName (aSource, nEntryPos, NAME_WORKBOOK) || _isName (aSource, nEntryPos, NAME_BOOK)))
+        return _isValidWorkbookStream (aContainer, nEntryPos, nMiniStreamSize);
+
+      // Left and right sibling
+      for (int nSiblingOfs = 68; nSiblingOfs <= 72; nSiblingOfs += 4)
+      {
+        final long nSiblingID = aSource.getUInt32 (nEntryPos + nSiblingOfs, true);
+        if (nSiblingID != NO_STREAM)
+        {
+          if (nStackSize == aStack.length)
+          {
+            // The tree is balanced, so this only happens on broken files
+            return false;
+          }
+          aStack[nStackSize++] = nSiblingID;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveByteSourceContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#FULL_PARSE} content validator for XLSX. It locates the ZIP End
+ * Of Central Directory record (incl. the ZIP64 variant) from the end of the file, and scans the
+ * central directory. The package must contain the entries <code>[Content_Types].xml</code> and
+ * <code>xl/workbook.xml</code>. No entry is decompressed, so the effort only depends on the size of
+ * the central directory.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class FullParseContentValidatorXLSX extends AbstractPhiveByteSourceContentValidator
+{
+  private static final long SIG_LOCAL_FILE_HEADER = 0x04034b50L;
+  private static final long SIG_CENTRAL_DIRECTORY = 0x02014b50L;
+  private static final long SIG_EOCD = 0x06054b50L;
+  private static final long SIG_ZIP64_EOCD = 0x06064b50L;
+  private static final long SIG_ZIP64_EOCD_LOCATOR = 0x07064b50L;
+
+  static final int EOCD_SIZE = 22;
+  private static final int MAX_COMMENT_LENGTH = 0xffff;
+  /** The number of bytes at the end, that may contain the End Of Central Directory record */
+  static final int MAX_EOCD_SEARCH_SIZE = EOCD_SIZE + MAX_COMMENT_LENGTH;
+  private static final int ZIP64_EOCD_LOCATOR_SIZE = 20;
+  private static final int ZIP64_EOCD_SIZE = 56;
+  private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+  private static final int MAGIC_16 = 0xffff;
+  private static final long MAGIC_32 = 0xffffffffL;
+
+  private static final byte [] ENTRY_CONTENT_TYPES = "[Content_Types].xml".getBytes (StandardCharsets.US_ASCII);
+  private static final byte [] ENTRY_WORKBOOK = "xl/workbook.xml".getBytes (StandardCharsets.US_ASCII);
+
+  public FullParseContentValidatorXLSX ()
+  {
+    super (false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param nMaxStreamSize
+   *        The maximum size of streams to validate. As random access is needed, streams larger than
+   *        8 MB are copied into a temporary file. Must be &ge; 0.
+   * @see AbstractPhiveByteSourceContentValidator#DEFAULT_MAX_STREAM_SIZE
+   */
+  public FullParseContentValidatorXLSX (@Nonnegative final long nMaxStreamSize)
+  {
+    super (false, nMaxStreamSize);
+  }
+
+  /**
+   * Find the End Of Central Directory record in the last bytes of a ZIP file.
+   *
+   * @param aTail
+   *        The last bytes of the file. May not be <code>null</code>.
+   * @param nTailLen
+   *        The number of bytes in the tail.
+   * @return The index of the record in the tail or -1 if none was found.
+   */
+  static int findEOCD (@NonNull final byte [] aTail, final int nTailLen)
+  {
+    // Search backwards - the comment length must match the remaining bytes
+    for (int i = nTailLen - EOCD_SIZE; i >= 0; --i)
+      if (aTail[i] == 0x50 && aTail[i + 1] == 0x4b && aTail[i + 2] == 0x05 && aTail[i + 3] == 0x06)
+      {
+        final int nCommentLen = (aTail[i + 20] & 0xff) | (aTail[i + 21] & 0xff) << 8;
+        if (i + EOCD_SIZE + nCommentLen == nTailLen)
+          return i;
+      }
+    return -1;
+  }
+
+  /**
+   * @return The position of the End Of Central Directory record or -1 if none was found.
+   */
+  private static long _findEOCD (@NonNull final IPhiveByteSource aSource, final long nSize) throws IOException
+  {
+    final int nTailLen = (int) Math.min (nSize, MAX_EOCD_SEARCH_SIZE);
+    final long nTailStart = nSize - nTailLen;
+    final byte [] aTail = new byte [nTailLen];
+    aSource.readFully (nTailStart, aTail, 0, nTailLen);
+
+    final int nIndex = findEOCD (aTail, nTailLen);
+    return nIndex < 0 ? -1 : nTailStart + nIndex;
+  }
+
+  @Override
+  protected boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    final long nSize = aSource.getSize ();
+    if (aSource.getUInt32 (0, true) != SIG_LOCAL_FILE_HEADER)
+      return false;
+
+    final long nEOCDPos = _findEOCD (aSource, nSize);
+    if (nEOCDPos < 0 || aSource.getUInt32 (nEOCDPos, true) != SIG_EOCD)
+      return false;
+
+    long nDiskNumber = aSource.getUInt16 (nEOCDPos + 4, true);
+    long nCDDiskNumber = aSource.getUInt16 (nEOCDPos + 6, true);
+    long nEntriesOnDisk = aSource.getUInt16 (nEOCDPos + 8, true);
+    long nEntries = aSource.getUInt16 (nEOCDPos + 10, true);
+    long nCDSize = aSource.getUInt32 (nEOCDPos + 12, true);
+    long nCDOffset = aSource.getUInt32 (nEOCDPos + 16, true);
+    long nCDEndLimit = nEOCDPos;
+
+    if (nDiskNumber == MAGIC_16 ||
+        nCDDiskNumber == MAGIC_16 ||
+        nEntriesOnDisk == MAGIC_16 ||
+        nEntries == MAGIC_16 ||
+        nCDSize == MAGIC_32 ||
+        nCDOffset == MAGIC_32)
+    {
+      // ZIP64 - the locator is directly before the End Of Central Directory record
+      final long nLocatorPos = nEOCDPos - ZIP64_EOCD_LOCATOR_SIZE;
+      if (nLocatorPos < 0 || aSource.getUInt32 (nLocatorPos, true) != SIG_ZIP64_EOCD_LOCATOR)
+        return false;
+      final long nZip64EOCDPos = aSource.getInt64 (nLocatorPos + 8, true);
+      if (nZip64EOCDPos < 0 ||
+          nZip64EOCDPos > nLocatorPos - ZIP64_EOCD_SIZE ||
+          aSource.getUInt32 (nZip64EOCDPos, true) != SIG_ZIP64_EOCD)
+        return false;
+      nDiskNumber = aSource.getUInt32 (nZip64EOCDPos + 16, true);
+      nCDDiskNumber = aSource.getUInt32 (nZip64EOCDPos + 20, true);
+      nEntriesOnDisk = aSource.getInt64 (nZip64EOCDPos + 24, true);
+      nEntries = aSource.getInt64 (nZip64EOCDPos + 32, true);
+      nCDSize = aSource.getInt64 (nZip64EOCDPos + 40, true);
+      nCDOffset = aSource.getInt64 (nZip64EOCDPos + 48, true);
+      nCDEndLimit = nZip64EOCDPos;
+    }
+
+    // Multi-volume archives are not supported
+    if (nDiskNumber != 0 || nCDDiskNumber != 0 || nEntriesOnDisk != nEntries)
+      return false;
+    if (nEntries <= 0 || nCDSize < 0 || nCDOffset < 0 || nCDSize > nCDEndLimit - nCDOffset)
+      return false;
+
+    // Scan the central directory
+    boolean bContentTypes = false;
+    boolean bWorkbook = false;
+    final long nCDEnd = nCDOffset + nCDSize;
+    long nPos = nCDOffset;
+    for (long i = 0; i < nEntries; ++i)
+    {
+      if (nPos > nCDEnd - CENTRAL_DIRECTORY_HEADER_SIZE || aSource.getUInt32 (nPos, true) != SIG_CENTRAL_DIRECTORY)
+        return false;
+      final int nNameLen = aSource.getUInt16 (nPos + 28, true);
+      final int nExtraLen = aSource.getUInt16 (nPos + 30, true);
+      final int nCommentLen = aSource.getUInt16 (nPos + 32, true);
+      final long nLocalHeaderOffset = aSource.getUInt32 (nPos + 42, true);
+      if (nLocalHeaderOffset != MAGIC_32 && nLocalHeaderOffset >= nCDOffset)
+        return false;
+
+      final long nNamePos = nPos + CENTRAL_DIRECTORY_HEADER_SIZE;
+      if (nNameLen == ENTRY_CONTENT_TYPES.length && aSource.startsWith (nNamePos, ENTRY_CONTENT_TYPES))
+        bContentTypes = true;
+      else
+        if (nNameLen == ENTRY_WORKBOOK.length && aSource.startsWith (nNamePos, ENTRY_WORKBOOK))
+          bWorkbook = true;
+
+      nPos = nNamePos + nNameLen + nExtraLen + nCommentLen;
+    }
+    return nPos == nCDEnd && bContentTypes && bWorkbook;
+  }
+}
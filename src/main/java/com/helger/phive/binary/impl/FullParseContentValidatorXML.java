@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.jspecify.annotations.NonNull;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveContentValidator;
+import com.helger.phive.binary.PhiveBinaryHelper;
+
+/**
+ * {@link EPhiveContentValidationMode#FULL_PARSE} content validator for XML. It checks the
+ * well-formedness of the document with a streaming SAX parser, so the memory usage does not depend
+ * on the document size. External entities and external DTDs are never resolved, and secure
+ * processing is enabled to limit entity expansion. Parsers are kept in a small pool that is shared
+ * by all threads, so that they are also reused when each validation runs on a new (virtual)
+ * thread.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@ThreadSafe
+public class FullParseContentValidatorXML implements IPhiveContentValidator
+{
+  private static final int BUFFER_SIZE = 16 * 1024;
+  private static final DefaultHandler NOOP_HANDLER = new DefaultHandler ()
+  {
+    @Override
+    public InputSource resolveEntity (final String sPublicId, final String sSystemId)
+    {
+      // Never resolve external entities
+      return new InputSource (new StringReader (""));
+    }
+  };
+  /** The maximum number of idle parsers that are kept for reuse */
+  static final int MAX_POOLED_READERS = 16;
+  private static final Queue <XMLReader> POOL = new ConcurrentLinkedQueue <> ();
+  // The queue size is not a constant time operation
+  private static final AtomicInteger POOL_SIZE = new AtomicInteger (0);
+
+  @NonNull
+  private static XMLReader _createXMLReader ()
+  {
+    try
+    {
+      final SAXParserFactory aFactory = SAXParserFactory.newInstance ();
+      aFactory.setNamespaceAware (true);
+      aFactory.setValidating (false);
+      aFactory.setXIncludeAware (false);
+      aFactory.setFeature (XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      aFactory.setFeature ("http://xml.org/sax/features/external-general-entities", false);
+      aFactory.setFeature ("http://xml.org/sax/features/external-parameter-entities", false);
+      aFactory.setFeature ("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+
+      final SAXParser aParser = aFactory.newSAXParser ();
+      aParser.setProperty (XMLConstants.ACCESS_EXTERNAL_DTD, "");
+      aParser.setProperty (XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+
+      final XMLReader ret = aParser.getXMLReader ();
+      ret.setContentHandler (NOOP_HANDLER);
+      ret.setDTDHandler (NOOP_HANDLER);
+      ret.setEntityResolver (NOOP_HANDLER);
+      ret.setErrorHandler (NOOP_HANDLER);
+      return ret;
+    }
+    catch (final ParserConfigurationException | SAXException ex)
+    {
+      throw new IllegalStateException ("Failed to create hardened XML reader", ex);
+    }
+  }
+
+  private static final class NonClosingInputStream extends FilterInputStream
+  {
+    NonClosingInputStream (@NonNull final InputStream aIS)
+    {
+      super (aIS);
+    }
+
+    @Override
+    public void close ()
+    {
+      // The caller is responsible for closing
+    }
+  }
+
+  /**
+   * Stream the remaining bytes of a buffer, without modifying it.
+   */
+  private static final class ByteBufferInputStream extends InputStream
+  {
+    private final ByteBuffer m_aBuffer;
+
+    ByteBufferInputStream (@NonNull final ByteBuffer aBuffer)
+    {
+      m_aBuffer = aBuffer.duplicate ();
+    }
+
+    @Override
+    public int read ()
+    {
+      return m_aBuffer.hasRemaining () ? m_aBuffer.get () & 0xff : -1;
+    }
+
+    @Override
+    public int read (@NonNull final byte [] aDst, final int nOfs, final int nLen)
+    {
+      if (nLen == 0)
+        return 0;
+      if (!m_aBuffer.hasRemaining ())
+        return -1;
+      final int nRead = Math.min (nLen, m_aBuffer.remaining ());
+      m_aBuffer.get (aDst, nOfs, nRead);
+      return nRead;
+    }
+  }
+
+  /**
+   * Stream the content of a file channel with positional reads, without modifying the channel
+   * position.
+   */
+  private static final class FileChannelInputStream extends InputStream
+  {
+    private final FileChannel m_aChannel;
+    private final ByteBuffer m_aBuffer = ByteBuffer.allocate (BUFFER_SIZE).flip ();
+    private long m_nPosition = 0;
+
+    FileChannelInputStream (@NonNull final FileChannel aChannel)
+    {
+      m_aChannel = aChannel;
+    }
+
+    private boolean _fill () throws IOException
+    {
+      if (m_aBuffer.hasRemaining ())
+        return true;
+      m_aBuffer.clear ();
+      final int nRead = PhiveBinaryHelper.readFully (m_aChannel, m_nPosition, m_aBuffer);
+      m_aBuffer.flip ();
+      m_nPosition += nRead;
+      return nRead > 0;
+    }
+
+    @Override
+    public int read () throws IOException
+    {
+      return _fill () ? m_aBuffer.get () & 0xff : -1;
+    }
+
+    @Override
+    public int read (@NonNull final byte [] aDst, final int nOfs, final int nLen) throws IOException
+    {
+      if (nLen == 0)
+        return 0;
+      if (!_fill ())
+        return -1;
+      final int nRead = Math.min (nLen, m_aBuffer.remaining ());
+      m_aBuffer.get (aDst, nOfs, nRead);
+      return nRead;
+    }
+  }
+
+  public FullParseContentValidatorXML ()
+  {}
+
+  @NonNull
+  private static XMLReader _borrowXMLReader ()
+  {
+    final XMLReader ret = POOL.poll ();
+    if (ret == null)
+      return _createXMLReader ();
+    POOL_SIZE.decrementAndGet ();
+    return ret;
+  }
+
+  private static void _returnXMLReader (@NonNull final XMLReader aReader)
+  {
+    // The parser resets its state when the next parse starts, only the handlers need to be restored
+    aReader.setContentHandler (NOOP_HANDLER);
+    aReader.setDTDHandler (NOOP_HANDLER);
+    aReader.setEntityResolver (NOOP_HANDLER);
+    aReader.setErrorHandler (NOOP_HANDLER);
+    if (POOL_SIZE.incrementAndGet () <= MAX_POOLED_READERS)
+      POOL.offer (aReader);
+    else
+      POOL_SIZE.decrementAndGet ();
+  }
+
+  /**
+   * @return The number of idle parsers in the pool. Only for testing.
+   */
+  @Nonnegative
+  static int getPooledReaderCount ()
+  {
+    return POOL_SIZE.get ();
+  }
+
+  private static boolean _isWellFormed (@NonNull final InputStream aIS) throws IOException
+  {
+    final XMLReader aReader = _borrowXMLReader ();
+    boolean bReusable = false;
+    try
+    {
+      aReader.parse (new InputSource (aIS));
+      bReusable = true;
+      return true;
+    }
+    catch (final SAXException ex)
+    {
+      // Not well-formed or limits exceeded
+      bReusable = true;
+      return false;
+    }
+    finally
+    {
+      // Parsers that failed with an IOException or a RuntimeException are discarded
+      if (bReusable)
+        _returnXMLReader (aReader);
+    }
+  }
+
+  private static boolean _isWellFormedInMemory (@NonNull final InputStream aIS)
+  {
+    try
+    {
+      return _isWellFormed (aIS);
+    }
+    catch (final IOException ex)
+    {
+      // Cannot happen for in-memory content
+      throw new UncheckedIOException (ex);
+    }
+  }
+
+  public boolean isValidContent (@NonNull final byte [] aData)
+  {
+    return isValidContent (aData, 0, aData.length);
+  }
+
+  @Override
+  public boolean isValidContent (@NonNull final byte [] aData,
+                                 @Nonnegative final int nOfs,
+                                 @Nonnegative final int nLen)
+  {
+    ValueEnforcer.isArrayOfsLen (aData, nOfs, nLen);
+
+    return _isWellFormedInMemory (new ByteArrayInputStream (aData, nOfs, nLen));
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * This implementation returns <code>true</code>, as the stream is parsed while it is read.
+   */
+  @Override
+  public boolean isSequentialAccess ()
+  {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * The stream is parsed while it is read, and it is not closed.
+   */
+  @Override
+  public boolean isValidContent (@NonNull final InputStream aIS) throws IOException
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
+    return _isWellFormed (new NonClosingInputStream (aIS));
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * The buffer content is streamed into the parser without copying the complete buffer into a byte
+   * array.
+   */
+  @Override
+  public boolean isValidContent (@NonNull final ByteBuffer aBuffer)
+  {
+    ValueEnforcer.notNull (aBuffer, "Buffer");
+
+    return _isWellFormedInMemory (new ByteBufferInputStream (aBuffer));
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * The channel content is streamed into the parser with positional reads, so files of any size
+   * are supported.
+   */
+  @Override
+  public boolean isValidContent (@NonNull final FileChannel aChannel) throws IOException
+  {
+    ValueEnforcer.notNull (aChannel, "Channel");
+
+    return _isWellFormed (new FileChannelInputStream (aChannel));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+
+/**
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validator for CSV. The head must contain
+ * a structurally valid start of a CSV file. Like {@link FullParseContentValidatorCSV}, single
+ * column CSV is accepted. The tail must not contain any control characters
+ * other than tab, CR and LF, so that binary content that only starts like CSV is rejected. If the
+ * complete content fits into the head, it is scanned completely.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class HeadAndTailContentValidatorCSV extends AbstractPhiveHeadAndTailContentValidator
+{
+  private static final int HEAD_SIZE = LeadingBytesContentValidatorCSV.LEADING_BYTE_COUNT;
+  private static final int TAIL_SIZE = 1024;
+
+  private final char m_cSeparator;
+
+  public HeadAndTailContentValidatorCSV ()
+  {
+    this (FullParseContentValidatorCSV.DEFAULT_SEPARATOR);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param cSeparator
+   *        The field separator to use. Must be a printable ASCII character other than the double
+   *        quote, or a tab.
+   */
+  public HeadAndTailContentValidatorCSV (final char cSeparator)
+  {
+    super (HEAD_SIZE, TAIL_SIZE);
+    ValueEnforcer.isTrue (FullParseContentValidatorCSV.isValidSeparator (cSeparator),
+                          () -> "Invalid separator " + (int) cSeparator);
+    m_cSeparator = cSeparator;
+  }
+
+  /**
+   * @return The field separator to use.
+   */
+  public final char getSeparator ()
+  {
+    return m_cSeparator;
+  }
+
+  @Override
+  protected boolean isValidHeadAndTail (@NonNull final byte [] aHead,
+                                        final int nHeadLen,
+                                        @NonNull final byte [] aTail,
+                                        final int nTailLen,
+                                        final long nSize)
+  {
+    final int nStart = nHeadLen >= 3 &&
+                       aHead[0] == FullParseContentValidatorCSV.UTF8_BOM[0] &&
+                       aHead[1] == FullParseContentValidatorCSV.UTF8_BOM[1] &&
+                       aHead[2] == FullParseContentValidatorCSV.UTF8_BOM[2] ? 3 : 0;
+
+    final CSVScanner aScanner = new CSVScanner (m_cSeparator, 1);
+    if (!aScanner.feed (aHead, nStart, nHeadLen - nStart))
+      return false;
+    if (nSize == nHeadLen)
+    {
+      // The complete content was scanned
+      return aScanner.finish ();
+    }
+    if (!aScanner.isValidPrefix ())
+      return false;
+
+    for (int i = 0; i < nTailLen; ++i)
+      if (CSVScanner.isInvalidControl (aTail[i] & 0xff))
+        return false;
+    return true;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return ToStringGenerator.getDerived (super.toString ()).append ("Separator", m_cSeparator).getToString ();
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+
+/**
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validator for GIF. The head must contain
+ * the GIF signature and a logical screen descriptor with non-zero dimensions, and the tail must
+ * contain the trailer directly after a block terminator. Like for
+ * {@link FullParseContentValidatorGIF}, any bytes may follow the trailer within the tail.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class HeadAndTailContentValidatorGIF extends AbstractPhiveHeadAndTailContentValidator
+{
+  private static final int HEAD_SIZE = 13;
+  private static final int TAIL_SIZE = 1024;
+  private static final int TRAILER = 0x3b;
+
+  public HeadAndTailContentValidatorGIF ()
+  {
+    super (HEAD_SIZE, TAIL_SIZE);
+  }
+
+  @Override
+  protected boolean isValidHeadAndTail (@NonNull final byte [] aHead,
+                                        final int nHeadLen,
+                                        @NonNull final byte [] aTail,
+                                        final int nTailLen,
+                                        final long nSize)
+  {
+    if (nSize <= HEAD_SIZE ||
+        aHead[0] != 'G' ||
+        aHead[1] != 'I' ||
+        aHead[2] != 'F' ||
+        aHead[3] != '8' ||
+        (aHead[4] != '7' && aHead[4] != '9') ||
+        aHead[5] != 'a')
+      return false;
+    final int nWidth = (aHead[6] & 0xff) | (aHead[7] & 0xff) << 8;
+    final int nHeight = (aHead[8] & 0xff) | (aHead[9] & 0xff) << 8;
+    if (nWidth == 0 || nHeight == 0)
+      return false;
+
+    // Block terminator and trailer after the head
+    final int nMinIndex = (int) Math.max (0, HEAD_SIZE - (nSize - nTailLen));
+    for (int i = nTailLen - 2; i >= nMinIndex; --i)
+      if (aTail[i] == 0 && (aTail[i + 1] & 0xff) == TRAILER)
+        return true;
+    return false;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+
+/**
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validator for JPEG. The head must be the
+ * start of image marker followed by another marker, and the tail must contain the end of image
+ * marker. Like for {@link FullParseContentValidatorJPG}, any bytes may follow the end of image
+ * marker within the tail.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class HeadAndTailContentValidatorJPG extends AbstractPhiveHeadAndTailContentValidator
+{
+  private static final int HEAD_SIZE = 3;
+  private static final int TAIL_SIZE = 1024;
+
+  public HeadAndTailContentValidatorJPG ()
+  {
+    super (HEAD_SIZE, TAIL_SIZE);
+  }
+
+  @Override
+  protected boolean isValidHeadAndTail (@NonNull final byte [] aHead,
+                                        final int nHeadLen,
+                                        @NonNull final byte [] aTail,
+                                        final int nTailLen,
+                                        final long nSize)
+  {
+    // SOI and the start of the next marker
+    if (nHeadLen < HEAD_SIZE || aHead[0] != (byte) 0xff || aHead[1] != (byte) 0xd8 || aHead[2] != (byte) 0xff)
+      return false;
+
+    // EOI after the head - it cannot occur inside the entropy coded data
+    final int nMinIndex = (int) Math.max (0, HEAD_SIZE - (nSize - nTailLen));
+    for (int i = nTailLen - 2; i >= nMinIndex; --i)
+      if (aTail[i] == (byte) 0xff && aTail[i + 1] == (byte) 0xd9)
+        return true;
+    return false;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+
+/**
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validator for PDF. The head must
+ * contain the PDF header, and the tail must contain <code>startxref</code> with an offset inside the
+ * file, followed by the <code>%%EOF</code> marker. As for the
+ * {@link EPhiveContentValidationMode#FULL_PARSE} validator, any bytes may follow the last
+ * <code>%%EOF</code> marker within the tail.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class HeadAndTailContentValidatorPDF extends AbstractPhiveHeadAndTailContentValidator
+{
+  private static final byte [] HEADER = { '%', 'P', 'D', 'F', '-' };
+  private static final byte [] EOF_MARKER = { '%', '%', 'E', 'O', 'F' };
+  private static final byte [] STARTXREF = { 's', 't', 'a', 'r', 't', 'x', 'r', 'e', 'f' };
+  private static final int TAIL_SIZE = 1024;
+
+  public HeadAndTailContentValidatorPDF ()
+  {
+    super (HEADER.length, TAIL_SIZE);
+  }
+
+  private static boolean _isWhitespace (final byte b)
+  {
+    return b == 0 || b == '\t' || b == '\n' || b == '\f' || b == '\r' || b == ' ';
+  }
+
+  private static boolean _matches (@NonNull final byte [] aData, final int nOfs, @NonNull final byte [] aSearch)
+  {
+    for (int i = 0; i < aSearch.length; ++i)
+      if (aData[nOfs + i] != aSearch[i])
+        return false;
+    return true;
+  }
+
+  @Override
+  protected boolean isValidHeadAndTail (@NonNull final byte [] aHead,
+                                        final int nHeadLen,
+                                        @NonNull final byte [] aTail,
+                                        final int nTailLen,
+                                        final long nSize)
+  {
+    if (nHeadLen < HEADER.length || !_matches (aHead, 0, HEADER))
+      return false;
+
+    // Find the last "%%EOF" - it may be followed by padding or other trailing bytes
+    int nEnd = -1;
+    for (int i = nTailLen - EOF_MARKER.length; i >= 0 && nEnd < 0; --i)
+      if (_matches (aTail, i, EOF_MARKER))
+        nEnd = i + EOF_MARKER.length;
+    if (nEnd < 0)
+      return false;
+
+    // Find the last startxref before it
+    for (int i = nEnd - EOF_MARKER.length - STARTXREF.length; i >= 0; --i)
+      if (_matches (aTail, i, STARTXREF))
+      {
+        int nPos = i + STARTXREF.length;
+        while (nPos < nEnd && _isWhitespace (aTail[nPos]))
+          nPos++;
+        long nOffset = 0;
+        int nDigits = 0;
+        while (nPos < nEnd && aTail[nPos] >= '0' && aTail[nPos] <= '9' && nDigits < 18)
+        {
+          nOffset = nOffset * 10 + (aTail[nPos] - '0');
+          nDigits++;
+          nPos++;
+        }
+        return nDigits > 0 && nOffset < nSize;
+      }
+    return false;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.util.Arrays;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+
+/**
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validator for PNG. The head must
+ * contain the PNG signature followed by the header of the IHDR chunk, and the tail must be the
+ * complete IEND chunk.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class HeadAndTailContentValidatorPNG extends AbstractPhiveHeadAndTailContentValidator
+{
+  private static final byte [] HEAD = { (byte) 0x89,
+                                        0x50,
+                                        0x4e,
+                                        0x47,
+                                        0x0d,
+                                        0x0a,
+                                        0x1a,
+                                        0x0a,
+                                        0,
+                                        0,
+                                        0,
+                                        0x0d,
+                                        'I',
+                                        'H',
+                                        'D',
+                                        'R' };
+  private static final byte [] TAIL = { 0, 0, 0, 0, 'I', 'E', 'N', 'D', (byte) 0xae, 0x42, 0x60, (byte) 0x82 };
+
+  public HeadAndTailContentValidatorPNG ()
+  {
+    super (HEAD.length, TAIL.length);
+  }
+
+  @Override
+  protected boolean isValidHeadAndTail (@NonNull final byte [] aHead,
+                                        final int nHeadLen,
+                                        @NonNull final byte [] aTail,
+                                        final int nTailLen,
+                                        final long nSize)
+  {
+    // Signature, IHDR chunk and IEND chunk
+    return nSize >= HEAD.length + 13 + 4 + TAIL.length &&
+           Arrays.equals (aHead, 0, nHeadLen, HEAD, 0, HEAD.length) &&
+           Arrays.equals (aTail, 0, nTailLen, TAIL, 0, TAIL.length);
+  }
+}
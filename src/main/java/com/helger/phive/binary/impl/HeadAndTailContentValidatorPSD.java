@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.nio.ByteBuffer;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validator for PSD and PSB. The head must
+ * contain a valid file header. The section lengths are followed as long as they are within the
+ * head, and the next section must start inside the file. PSD has no trailer, so the tail is not
+ * checked. Streams are only read up to the end of the head, so the checks against the file size are
+ * skipped for longer streams.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class HeadAndTailContentValidatorPSD extends AbstractPhiveHeadAndTailContentValidator
+{
+  private static final int HEAD_SIZE = 4096;
+  private static final int HEADER_SIZE = 26;
+  private static final int VERSION_PSD = 1;
+  private static final int VERSION_PSB = 2;
+  private static final int MAX_CHANNELS = 56;
+
+  public HeadAndTailContentValidatorPSD ()
+  {
+    super (HEAD_SIZE, 0);
+  }
+
+  @Override
+  protected boolean isValidHeadAndTail (@NonNull final byte [] aHead,
+                                        final int nHeadLen,
+                                        @NonNull final byte [] aTail,
+                                        final int nTailLen,
+                                        final long nSize)
+  {
+    if (nHeadLen < HEADER_SIZE || aHead[0] != '8' || aHead[1] != 'B' || aHead[2] != 'P' || aHead[3] != 'S')
+      return false;
+
+    final ByteBuffer aBB = ByteBuffer.wrap (aHead, 0, nHeadLen);
+    final int nVersion = Short.toUnsignedInt (aBB.getShort (4));
+    if (nVersion != VERSION_PSD && nVersion != VERSION_PSB)
+      return false;
+    final boolean bPSB = nVersion == VERSION_PSB;
+    final int nChannels = Short.toUnsignedInt (aBB.getShort (12));
+    if (aBB.getInt (6) != 0 ||
+        aBB.getShort (10) != 0 ||
+        nChannels < 1 ||
+        nChannels > MAX_CHANNELS ||
+        aBB.getInt (14) == 0 ||
+        aBB.getInt (18) == 0)
+      return false;
+
+    // Using the maximum size if it is unknown
+    final long nMaxSize = nSize == IPhiveByteSource.UNKNOWN_SIZE ? Long.MAX_VALUE : nSize;
+
+    // Hop over the color mode data, the image resources and the layer and mask information
+    long nPos = HEADER_SIZE;
+    for (int nSection = 0; nSection < 3; ++nSection)
+    {
+      final int nLengthSize = bPSB && nSection == 2 ? 8 : 4;
+      if (nPos + nLengthSize > nHeadLen)
+        break;
+      final long nLength = nLengthSize == 8 ? aBB.getLong ((int) nPos)
+                                            : Integer.toUnsignedLong (aBB.getInt ((int) nPos));
+      // Also avoids overflows
+      if (nLength < 0 || nLength > nMaxSize - nPos - nLengthSize)
+        return false;
+      nPos += nLengthSize + nLength;
+    }
+    // At least the compression method of the image data must be present
+    return nPos + 2 <= nMaxSize;
+  }
+}
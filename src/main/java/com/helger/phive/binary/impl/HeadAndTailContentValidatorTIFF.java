@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validator for TIFF and BigTIFF. The
+ * head must contain a valid header, that points to a first IFD inside the file. If the first IFD
+ * starts within the head, it must contain at least one entry and must end inside the file. TIFF has
+ * no trailer, so the tail is not checked. Streams are only read up to the end of the head, so the
+ * checks against the file size are skipped for longer streams.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class HeadAndTailContentValidatorTIFF extends AbstractPhiveHeadAndTailContentValidator
+{
+  private static final int HEAD_SIZE = 4096;
+  private static final int MAGIC_CLASSIC = 42;
+  private static final int MAGIC_BIGTIFF = 43;
+
+  public HeadAndTailContentValidatorTIFF ()
+  {
+    super (HEAD_SIZE, 0);
+  }
+
+  @Override
+  protected boolean isValidHeadAndTail (@NonNull final byte [] aHead,
+                                        final int nHeadLen,
+                                        @NonNull final byte [] aTail,
+                                        final int nTailLen,
+                                        final long nSize)
+  {
+    if (nHeadLen < 8)
+      return false;
+    final ByteBuffer aBB = ByteBuffer.wrap (aHead, 0, nHeadLen);
+    if (aHead[0] == 'I' && aHead[1] == 'I')
+      aBB.order (ByteOrder.LITTLE_ENDIAN);
+    else
+      if (aHead[0] != 'M' || aHead[1] != 'M')
+        return false;
+
+    final int nMagic = Short.toUnsignedInt (aBB.getShort (2));
+    final boolean bBigTIFF;
+    final long nIFDOffset;
+    if (nMagic == MAGIC_CLASSIC)
+    {
+      bBigTIFF = false;
+      nIFDOffset = Integer.toUnsignedLong (aBB.getInt (4));
+      if (nIFDOffset < 8)
+        return false;
+    }
+    else
+      if (nMagic == MAGIC_BIGTIFF)
+      {
+        // Offset size must be 8 and the reserved bytes must be 0
+        if (nHeadLen < 16 || aBB.getShort (4) != 8 || aBB.getShort (6) != 0)
+          return false;
+        bBigTIFF = true;
+        nIFDOffset = aBB.getLong (8);
+        if (nIFDOffset < 16)
+          return false;
+      }
+      else
+        return false;
+
+    final int nCountSize = bBigTIFF ? 8 : 2;
+    final boolean bSizeKnown = nSize != IPhiveByteSource.UNKNOWN_SIZE;
+    if (bSizeKnown && nIFDOffset > nSize - nCountSize)
+      return false;
+    if (nIFDOffset + nCountSize > nHeadLen)
+    {
+      // The first IFD is outside the head
+      return true;
+    }
+
+    final long nEntryCount = bBigTIFF ? aBB.getLong ((int) nIFDOffset)
+                                      : Short.toUnsignedInt (aBB.getShort ((int) nIFDOffset));
+    final int nEntrySize = bBigTIFF ? 20 : 12;
+    final int nNextOffsetSize = bBigTIFF ? 8 : 4;
+    if (!bSizeKnown)
+      return nEntryCount > 0;
+    // Also avoids overflows
+    return nEntryCount > 0 &&
+           nEntryCount <= nSize / nEntrySize &&
+           nIFDOffset + nCountSize + nEntryCount * nEntrySize + nNextOffsetSize <= nSize;
+  }
+}
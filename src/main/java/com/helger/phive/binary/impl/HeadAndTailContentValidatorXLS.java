@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validator for XLS. Only the 512 byte
+ * header of the Compound File Binary container is checked: version, byte order and sector sizes
+ * must be consistent, and the FAT sectors listed in the header as well as the first directory
+ * sector must be inside the file. CFB has no trailer, so the tail is not checked. Streams are only
+ * read up to the end of the header, so the checks against the file size are skipped for longer
+ * streams.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class HeadAndTailContentValidatorXLS extends AbstractPhiveHeadAndTailContentValidator
+{
+  private static final byte [] SIGNATURE = { (byte) 0xd0,
+                                             (byte) 0xcf,
+                                             0x11,
+                                             (byte) 0xe0,
+                                             (byte) 0xa1,
+                                             (byte) 0xb1,
+                                             0x1a,
+                                             (byte) 0xe1 };
+  private static final int HEADER_SIZE = 512;
+  private static final int HEADER_DIFAT_ENTRIES = 109;
+  private static final int BYTE_ORDER_MARK = 0xfffe;
+
+  public HeadAndTailContentValidatorXLS ()
+  {
+    super (HEADER_SIZE, 0);
+  }
+
+  @Override
+  protected boolean isValidHeadAndTail (@NonNull final byte [] aHead,
+                                        final int nHeadLen,
+                                        @NonNull final byte [] aTail,
+                                        final int nTailLen,
+                                        final long nSize)
+  {
+    if (nHeadLen < HEADER_SIZE || !Arrays.equals (aHead, 0, SIGNATURE.length, SIGNATURE, 0, SIGNATURE.length))
+      return false;
+
+    final ByteBuffer aBB = ByteBuffer.wrap (aHead).order (ByteOrder.LITTLE_ENDIAN);
+    final int nMajorVersion = Short.toUnsignedInt (aBB.getShort (0x1a));
+    final int nByteOrder = Short.toUnsignedInt (aBB.getShort (0x1c));
+    final int nSectorShift = Short.toUnsignedInt (aBB.getShort (0x1e));
+    final int nMiniSectorShift = Short.toUnsignedInt (aBB.getShort (0x20));
+    if (nByteOrder != BYTE_ORDER_MARK ||
+        nMiniSectorShift != 6 ||
+        !((nMajorVersion == 3 && nSectorShift == 9) || (nMajorVersion == 4 && nSectorShift == 12)))
+      return false;
+
+    final int nSectorSize = 1 << nSectorShift;
+    // The last sector may be truncated. Sector numbers are 32 bit values.
+    final long nSectorCount = nSize == IPhiveByteSource.UNKNOWN_SIZE ? 0x100000000L
+                                                                    : (nSize - nSectorSize + nSectorSize - 1) / nSectorSize;
+    final long nFATSectorCount = Integer.toUnsignedLong (aBB.getInt (0x2c));
+    final long nFirstDirectorySector = Integer.toUnsignedLong (aBB.getInt (0x30));
+    if (nFATSectorCount == 0 || nFATSectorCount > nSectorCount || nFirstDirectorySector >= nSectorCount)
+      return false;
+
+    for (int i = 0; i < Math.min (nFATSectorCount, HEADER_DIFAT_ENTRIES); ++i)
+      if (Integer.toUnsignedLong (aBB.getInt (0x4c + i * 4)) >= nSectorCount)
+        return false;
+    return true;
+  }
+}
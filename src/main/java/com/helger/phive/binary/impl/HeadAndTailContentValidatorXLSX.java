@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+
+/**
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validator for XLSX. The head must be a
+ * ZIP local file header, and the tail must contain the End Of Central Directory record. For regular
+ * ZIP files the central directory must be non-empty, on a single disk and located before the End Of
+ * Central Directory record. For ZIP64 files the ZIP64 locator must be present and point before
+ * itself. The entries themselves are not checked.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class HeadAndTailContentValidatorXLSX extends AbstractPhiveHeadAndTailContentValidator
+{
+  private static final int SIG_LOCAL_FILE_HEADER = 0x04034b50;
+  private static final int SIG_ZIP64_EOCD_LOCATOR = 0x07064b50;
+  private static final int LOCAL_FILE_HEADER_SIZE = 30;
+  private static final int ZIP64_EOCD_LOCATOR_SIZE = 20;
+  private static final int ZIP64_EOCD_SIZE = 56;
+  private static final int MAGIC_16 = 0xffff;
+  private static final long MAGIC_32 = 0xffffffffL;
+
+  public HeadAndTailContentValidatorXLSX ()
+  {
+    // The ZIP64 locator directly precedes the End Of Central Directory record
+    super (LOCAL_FILE_HEADER_SIZE, ZIP64_EOCD_LOCATOR_SIZE + FullParseContentValidatorXLSX.MAX_EOCD_SEARCH_SIZE);
+  }
+
+  @Override
+  protected boolean isValidHeadAndTail (@NonNull final byte [] aHead,
+                                        final int nHeadLen,
+                                        @NonNull final byte [] aTail,
+                                        final int nTailLen,
+                                        final long nSize)
+  {
+    if (nHeadLen < LOCAL_FILE_HEADER_SIZE ||
+        ByteBuffer.wrap (aHead).order (ByteOrder.LITTLE_ENDIAN).getInt (0) != SIG_LOCAL_FILE_HEADER)
+      return false;
+
+    final int nEOCDIndex = FullParseContentValidatorXLSX.findEOCD (aTail, nTailLen);
+    if (nEOCDIndex < 0)
+      return false;
+
+    final ByteBuffer aBB = ByteBuffer.wrap (aTail, 0, nTailLen).order (ByteOrder.LITTLE_ENDIAN);
+    final int nDiskNumber = Short.toUnsignedInt (aBB.getShort (nEOCDIndex + 4));
+    final int nCDDiskNumber = Short.toUnsignedInt (aBB.getShort (nEOCDIndex + 6));
+    final int nEntriesOnDisk = Short.toUnsignedInt (aBB.getShort (nEOCDIndex + 8));
+    final int nEntries = Short.toUnsignedInt (aBB.getShort (nEOCDIndex + 10));
+    final long nCDSize = Integer.toUnsignedLong (aBB.getInt (nEOCDIndex + 12));
+    final long nCDOffset = Integer.toUnsignedLong (aBB.getInt (nEOCDIndex + 16));
+
+    if (nDiskNumber == MAGIC_16 ||
+        nCDDiskNumber == MAGIC_16 ||
+        nEntriesOnDisk == MAGIC_16 ||
+        nEntries == MAGIC_16 ||
+        nCDSize == MAGIC_32 ||
+        nCDOffset == MAGIC_32)
+    {
+      // ZIP64 - the locator is directly before the End Of Central Directory record, so it is always
+      // part of the tail, unless it would be located before the start of the file
+      final int nLocatorIndex = nEOCDIndex - ZIP64_EOCD_LOCATOR_SIZE;
+      if (nLocatorIndex < 0 || aBB.getInt (nLocatorIndex) != SIG_ZIP64_EOCD_LOCATOR)
+        return false;
+
+      // The ZIP64 End Of Central Directory record must be located before the locator
+      final long nLocatorPos = nSize - nTailLen + nLocatorIndex;
+      final long nZip64EOCDPos = aBB.getLong (nLocatorIndex + 8);
+      return nZip64EOCDPos >= 0 && nZip64EOCDPos <= nLocatorPos - ZIP64_EOCD_SIZE;
+    }
+
+    // The position of the End Of Central Directory record in the file
+    final long nEOCDPos = nSize - nTailLen + nEOCDIndex;
+    return nDiskNumber == 0 &&
+           nCDDiskNumber == 0 &&
+           nEntries > 0 &&
+           nEntriesOnDisk == nEntries &&
+           nCDOffset + nCDSize <= nEOCDPos;
+  }
+}
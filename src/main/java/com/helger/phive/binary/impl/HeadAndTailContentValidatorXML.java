@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.PhiveLeadingBytesContentValidator;
+
+/**
+ * {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validator for XML. The head must start
+ * with an XML declaration (optionally preceded by a BOM) in any of the supported encodings, and the
+ * last character that is not whitespace must be the closing angle bracket of the document element.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class HeadAndTailContentValidatorXML extends AbstractPhiveHeadAndTailContentValidator
+{
+  private static final PhiveLeadingBytesContentValidator HEAD_VALIDATOR = FileFormatDescriptorXML.createLeadingBytesValidator ();
+  private static final int TAIL_SIZE = 256;
+  private static final byte GT_ASCII = '>';
+  private static final byte GT_EBCDIC = 0x6e;
+
+  public HeadAndTailContentValidatorXML ()
+  {
+    super (HEAD_VALIDATOR.getRequiredLeadingByteCount (), TAIL_SIZE);
+  }
+
+  private static boolean _isEBCDIC (@NonNull final byte [] aHead, final int nHeadLen)
+  {
+    // The EBCDIC prefix starts with "<?" - only a BOM may be in front of it
+    for (int i = 0; i + 1 < nHeadLen; ++i)
+      if (aHead[i] == 0x4c && aHead[i + 1] == 0x6f)
+        return true;
+    return false;
+  }
+
+  private static boolean _isIgnorableASCII (final byte b)
+  {
+    // Whitespace and the 0 bytes of UTF-16 and UCS-4
+    return b == 0 || b == '\t' || b == '\n' || b == '\r' || b == ' ';
+  }
+
+  private static boolean _isIgnorableEBCDIC (final byte b)
+  {
+    // Space, tab, line feed, new line and carriage return
+    return b == 0x40 || b == 0x05 || b == 0x25 || b == 0x15 || b == 0x0d;
+  }
+
+  @Override
+  protected boolean isValidHeadAndTail (@NonNull final byte [] aHead,
+                                        final int nHeadLen,
+                                        @NonNull final byte [] aTail,
+                                        final int nTailLen,
+                                        final long nSize)
+  {
+    if (!HEAD_VALIDATOR.isValidContent (aHead, 0, nHeadLen))
+      return false;
+
+    final boolean bEBCDIC = _isEBCDIC (aHead, nHeadLen);
+    int nEnd = nTailLen;
+    while (nEnd > 0 && (bEBCDIC ? _isIgnorableEBCDIC (aTail[nEnd - 1]) : _isIgnorableASCII (aTail[nEnd - 1])))
+      nEnd--;
+    return nEnd > 0 && aTail[nEnd - 1] == (bEBCDIC ? GT_EBCDIC : GT_ASCII);
+  }
+}
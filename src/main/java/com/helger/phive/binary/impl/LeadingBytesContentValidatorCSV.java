@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import java.io.IOException;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.phive.binary.AbstractPhiveByteSourceContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IPhiveByteSource;
+
+/**
+ * {@link EPhiveContentValidationMode#LEADING_BYTES} content validator for CSV. It only scans the
+ * first {@link #LEADING_BYTE_COUNT} bytes, which must contain a structurally valid start of a CSV
+ * file with at least two fields in the first record. All records that are complete within these
+ * bytes must have the same number of fields. As plain text often looks like CSV, this validator is
+ * not used for file format detection.
+ *
+ * @author Philip Helger
+ * @since 0.3.1
+ */
+@Immutable
+public class LeadingBytesContentValidatorCSV extends AbstractPhiveByteSourceContentValidator
+{
+  /** The number of leading bytes that are checked */
+  public static final int LEADING_BYTE_COUNT = 1024;
+  /**
+   * The minimum number of fields in the first record. This heuristic distinguishes CSV from
+   * arbitrary text.
+   */
+  static final int MIN_FIELD_COUNT = 2;
+
+  private final char m_cSeparator;
+
+  public LeadingBytesContentValidatorCSV ()
+  {
+    this (FullParseContentValidatorCSV.DEFAULT_SEPARATOR);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param cSeparator
+   *        The field separator to use. Must be a printable ASCII character other than the double
+   *        quote, or a tab.
+   */
+  public LeadingBytesContentValidatorCSV (final char cSeparator)
+  {
+    super (true);
+    ValueEnforcer.isTrue (FullParseContentValidatorCSV.isValidSeparator (cSeparator),
+                          () -> "Invalid separator " + (int) cSeparator);
+    m_cSeparator = cSeparator;
+  }
+
+  /**
+   * @return The field separator to use.
+   */
+  public final char getSeparator ()
+  {
+    return m_cSeparator;
+  }
+
+  @Override
+  @Nonnegative
+  public int getRequiredLeadingByteCount ()
+  {
+    return LEADING_BYTE_COUNT;
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * This implementation returns <code>false</code>, because any text with a separator in the first
+   * line is accepted.
+   */
+  @Override
+  public boolean isUsableForDetection ()
+  {
+    return false;
+  }
+
+  @Override
+  protected boolean isValidContent (@NonNull final IPhiveByteSource aSource) throws IOException
+  {
+    final byte [] aBuffer = new byte [LEADING_BYTE_COUNT];
+    final int nRead = aSource.read (0, aBuffer, 0, LEADING_BYTE_COUNT);
+    final int nStart = nRead >= 3 &&
+                       aBuffer[0] == FullParseContentValidatorCSV.UTF8_BOM[0] &&
+                       aBuffer[1] == FullParseContentValidatorCSV.UTF8_BOM[1] &&
+                       aBuffer[2] == FullParseContentValidatorCSV.UTF8_BOM[2] ? 3 : 0;
+
+    final CSVScanner aScanner = new CSVScanner (m_cSeparator, MIN_FIELD_COUNT);
+    if (!aScanner.feed (aBuffer, nStart, nRead - nStart))
+      return false;
+    if (nRead < LEADING_BYTE_COUNT)
+    {
+      // The complete content was scanned
+      return aScanner.finish ();
+    }
+    return aScanner.isValidPrefix ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return ToStringGenerator.getDerived (super.toString ()).append ("Separator", m_cSeparator).getToString ();
+  }
+}
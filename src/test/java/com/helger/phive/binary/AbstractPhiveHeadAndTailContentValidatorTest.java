@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link AbstractPhiveHeadAndTailContentValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class AbstractPhiveHeadAndTailContentValidatorTest
+{
+  /**
+   * Remembers the head and the tail of the last validation.
+   */
+  private static final class CapturingValidator extends AbstractPhiveHeadAndTailContentValidator
+  {
+    private byte [] m_aHead;
+    private byte [] m_aTail;
+    private long m_nSize;
+
+    CapturingValidator (final int nHeadSize, final int nTailSize)
+    {
+      super (nHeadSize, nTailSize);
+    }
+
+    @Override
+    protected boolean isValidHeadAndTail (final byte [] aHead,
+                                          final int nHeadLen,
+                                          final byte [] aTail,
+                                          final int nTailLen,
+                                          final long nSize)
+    {
+      m_aHead = Arrays.copyOf (aHead, nHeadLen);
+      m_aTail = Arrays.copyOf (aTail, nTailLen);
+      m_nSize = nSize;
+      return true;
+    }
+
+    void check (final byte [] aData, final boolean bStream)
+    {
+      final int nHeadLen = Math.min (getHeadSize (), aData.length);
+      final int nTailLen = Math.min (getTailSize (), aData.length);
+      assertArrayEquals (Arrays.copyOf (aData, nHeadLen), m_aHead);
+      assertArrayEquals (Arrays.copyOfRange (aData, aData.length - nTailLen, aData.length), m_aTail);
+      // Streams without tail are only read up to the head
+      final boolean bSizeUnknown = bStream && getTailSize () == 0 && aData.length > getHeadSize ();
+      assertEquals (bSizeUnknown ? IPhiveByteSource.UNKNOWN_SIZE : aData.length, m_nSize);
+    }
+  }
+
+  /**
+   * Returns only a few bytes per read call.
+   */
+  private static final class TrickleInputStream extends FilterInputStream
+  {
+    private int m_nCount = 0;
+
+    TrickleInputStream (final InputStream aIS)
+    {
+      super (aIS);
+    }
+
+    @Override
+    public int read (final byte [] aBuf, final int nOfs, final int nLen) throws IOException
+    {
+      return super.read (aBuf, nOfs, Math.min (nLen, 1 + m_nCount++ % 7));
+    }
+  }
+
+  private static byte [] _createData (final int nLen)
+  {
+    final byte [] ret = new byte [nLen];
+    for (int i = 0; i < nLen; ++i)
+      ret[i] = (byte) (i * 31 + i / 256);
+    return ret;
+  }
+
+  @Test
+  public void testHeadAndTail () throws IOException
+  {
+    final Path aFile = Files.createTempFile ("phive-head-tail", ".bin");
+    try
+    {
+      for (final int [] aSizes : new int [] [] { { 3, 5 }, { 3, 0 }, { 1, 70_000 }, { 100, 100 } })
+      {
+        final CapturingValidator aValidator = new CapturingValidator (aSizes[0], aSizes[1]);
+        for (final int nLen : new int [] { 0, 1, 2, 3, 7, 8, 99, 100, 201, 65_536, 70_001, 200_003 })
+        {
+          final byte [] aData = _createData (nLen);
+
+          assertTrue (aValidator.isValidContent (aData));
+          aValidator.check (aData, false);
+
+          assertTrue (aValidator.isValidContent (ByteBuffer.wrap (aData)));
+          aValidator.check (aData, false);
+
+          assertTrue (aValidator.isValidContent (new ByteArrayInputStream (aData)));
+          aValidator.check (aData, true);
+
+          assertTrue (aValidator.isValidContent (new TrickleInputStream (new ByteArrayInputStream (aData))));
+          aValidator.check (aData, true);
+
+          Files.write (aFile, aData);
+          try (final FileChannel aChannel = FileChannel.open (aFile, StandardOpenOption.READ))
+          {
+            assertTrue (aValidator.isValidContent (aChannel));
+            aValidator.check (aData, false);
+          }
+        }
+      }
+    }
+    finally
+    {
+      Files.delete (aFile);
+    }
+  }
+
+  @Test
+  public void testStreamWithoutTail () throws IOException
+  {
+    final CapturingValidator aValidator = new CapturingValidator (100, 0);
+    final ByteArrayInputStream aIS = new ByteArrayInputStream (_createData (1_000_000));
+    assertTrue (aValidator.isValidContent (aIS));
+    // Only the head and at most one window more was read
+    assertTrue (aIS.available () >= 1_000_000 - 100 - 16 * 1024);
+    assertEquals (IPhiveByteSource.UNKNOWN_SIZE, aValidator.m_nSize);
+  }
+
+  @Test
+  public void testInvalidSizes ()
+  {
+    try
+    {
+      new CapturingValidator (0, 5);
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+    try
+    {
+      new CapturingValidator (5, -1);
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+  }
+}
@@ -16,19 +16,27 @@
  */
 package com.helger.phive.binary;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import org.junit.Test;
 
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
 import com.helger.mime.CMimeType;
 import com.helger.mime.IMimeType;
 import com.helger.phive.binary.impl.FileFormatDescriptorCSV;
 import com.helger.phive.binary.impl.FileFormatDescriptorPDF;
+import com.helger.phive.binary.impl.LeadingBytesContentValidatorCSV;
 
 /**
  * Test class for class {@link FileFormatRegistry}.
@@ -69,6 +77,202 @@ public final class FileFormatRegistryTest
     assertNotNull (aReg.getFileFormatDescriptorByMimeType (CMimeType.APPLICATION_PDF));
   }
 
+  @Test
+  public void testContentType ()
+  {
+    final FileFormatRegistry aReg = FileFormatRegistry.getInstance ();
+    final IFileFormatDescriptor aPDF = aReg.getFileFormatDescriptorByMimeType (CMimeType.APPLICATION_PDF);
+    assertNotNull (aPDF);
+    assertSame (aPDF, aReg.getFileFormatDescriptorByContentType ("application/pdf"));
+    assertSame (aPDF, aReg.getFileFormatDescriptorByContentType ("Application/PDF; name=x.pdf"));
+    assertSame (aPDF, aReg.getFileFormatDescriptorByContentType (" application/pdf ;name=x.pdf"));
+    assertSame (aPDF, aReg.getFileFormatDescriptorByContentType (new StringBuilder ("APPLICATION/PDF")));
+    assertNotNull (aReg.getFileFormatDescriptorByContentType ("Text/XML; charset=UTF-8"));
+
+    assertNull (aReg.getFileFormatDescriptorByContentType (null));
+    assertNull (aReg.getFileFormatDescriptorByContentType (""));
+    assertNull (aReg.getFileFormatDescriptorByContentType (" ; x=y"));
+    assertNull (aReg.getFileFormatDescriptorByContentType ("application/pdfx"));
+    assertNull (aReg.getFileFormatDescriptorByContentType ("application / pdf"));
+
+    assertEquals ("application/pdf", PhiveBinaryHelper.getNormalizedMimeType ("Application/PDF; name=x.pdf"));
+    assertNull (PhiveBinaryHelper.getNormalizedMimeType ("application"));
+    assertNull (PhiveBinaryHelper.getNormalizedMimeType (null));
+  }
+
+  @Test
+  public void testFilename ()
+  {
+    final FileFormatRegistry aReg = FileFormatRegistry.getInstance ();
+    final IFileFormatDescriptor aPDF = aReg.getFileFormatDescriptorByFileExtension ("pdf");
+    assertNotNull (aPDF);
+    assertSame (aPDF, aReg.getFileFormatDescriptorByFilename ("a.pdf"));
+    assertSame (aPDF, aReg.getFileFormatDescriptorByFilename ("Invoice.2024.PDF"));
+    assertSame (aPDF, aReg.getFileFormatDescriptorByFilename ("dir.xml/sub\\a.Pdf"));
+    assertSame (aPDF, aReg.getFileFormatDescriptorByFilename (Paths.get ("target", "x.pdf")));
+    assertSame (aReg.getFileFormatDescriptorByFileExtension ("jpg"),
+                aReg.getFileFormatDescriptorByFilename ("image.JPG"));
+
+    assertNull (aReg.getFileFormatDescriptorByFilename ((String) null));
+    assertNull (aReg.getFileFormatDescriptorByFilename ((Path) null));
+    assertNull (aReg.getFileFormatDescriptorByFilename (""));
+    assertNull (aReg.getFileFormatDescriptorByFilename ("pdf"));
+    assertNull (aReg.getFileFormatDescriptorByFilename (".pdf"));
+    assertNull (aReg.getFileFormatDescriptorByFilename ("a.pdf."));
+    assertNull (aReg.getFileFormatDescriptorByFilename ("a.pdf/b"));
+    assertNull (aReg.getFileFormatDescriptorByFilename ("a.xpdf"));
+  }
+
+  @Test
+  public void testFilenameMultiPart ()
+  {
+    final FileFormatRegistry aReg = FileFormatRegistry.getInstance ();
+    final IFileFormatDescriptor aTarGz = new AbstractFileFormatDescriptor ("Test tar.gz",
+                                                                           null,
+                                                                           new CommonsArrayList <> ("tar.gz"),
+                                                                           new CommonsArrayList <> ("application/x-test-tar-gz"),
+                                                                           new CommonsHashMap <> ())
+    {};
+    final IFileFormatDescriptor aGz = new AbstractFileFormatDescriptor ("Test gz",
+                                                                        null,
+                                                                        new CommonsArrayList <> ("gz"),
+                                                                        new CommonsArrayList <> ("application/x-test-gz"),
+                                                                        new CommonsHashMap <> ())
+    {};
+    try
+    {
+      assertTrue (aReg.registerFileFormat (aTarGz).isSuccess ());
+      assertTrue (aReg.registerFileFormat (aGz).isSuccess ());
+      assertSame (aTarGz, aReg.getFileFormatDescriptorByFilename ("backup.tar.gz"));
+      assertSame (aTarGz, aReg.getFileFormatDescriptorByFilename ("backup.2024.TAR.GZ"));
+      assertSame (aGz, aReg.getFileFormatDescriptorByFilename ("backup.gz"));
+      assertSame (aGz, aReg.getFileFormatDescriptorByFilename ("backup.x.gz"));
+      assertSame (aGz, aReg.getFileFormatDescriptorByFilename (".tar.gz"));
+      assertNull (aReg.getFileFormatDescriptorByFilename ("backup.tar"));
+    }
+    finally
+    {
+      // Remove the test formats again
+      aReg.reinitialize ();
+    }
+  }
+
+  @Test
+  public void testDetectFileFormat ()
+  {
+    final FileFormatRegistry aReg = FileFormatRegistry.getInstance ();
+    assertSame (aReg.getFileFormatDescriptorOfName (FileFormatDescriptorPDF.NAME),
+                aReg.detectFileFormat ("%PDF-1.7 bla".getBytes (StandardCharsets.ISO_8859_1)));
+    assertSame (aReg.getFileFormatDescriptorByFileExtension ("png"),
+                aReg.detectFileFormat (new byte [] { (byte) 0x89, 0x50, 0x4e, 0x47, 0x0d, 0x0a, 0x1a, 0x0a, 0 }));
+    assertSame (aReg.getFileFormatDescriptorByFileExtension ("gif"),
+                aReg.detectFileFormat ("GIF89a...".getBytes (StandardCharsets.ISO_8859_1)));
+    assertSame (aReg.getFileFormatDescriptorByFileExtension ("xml"),
+                aReg.detectFileFormat ("<?xml version='1.0'?><a/>".getBytes (StandardCharsets.UTF_8)));
+    // XML with a UTF-8 BOM
+    assertSame (aReg.getFileFormatDescriptorByFileExtension ("xml"),
+                aReg.detectFileFormat (new byte [] { (byte) 0xef, (byte) 0xbb, (byte) 0xbf, '<', '?', 'x', 'm', 'l' }));
+
+    final byte [] aSlice = "xx%PDF-1.7".getBytes (StandardCharsets.ISO_8859_1);
+    assertNull (aReg.detectFileFormat (aSlice));
+    assertSame (aReg.getFileFormatDescriptorOfName (FileFormatDescriptorPDF.NAME), aReg.detectFileFormat (aSlice, 2, 8));
+    assertNull (aReg.detectFileFormat (aSlice, 2, 3));
+
+    assertNull (aReg.detectFileFormat (new byte [0]));
+    assertNull (aReg.detectFileFormat ("%PD".getBytes (StandardCharsets.ISO_8859_1)));
+    assertNull (aReg.detectFileFormat ("bla foo".getBytes (StandardCharsets.ISO_8859_1)));
+    // CSV is not detected, as plain text would match as well
+    assertNull (aReg.detectFileFormat ("a,b\r\n1,2\r\n".getBytes (StandardCharsets.ISO_8859_1)));
+    assertNull (aReg.detectFileFormat ("Hello, world\n".getBytes (StandardCharsets.ISO_8859_1)));
+  }
+
+  @Test
+  public void testRequiredLeadingBytes ()
+  {
+    final FileFormatRegistry aReg = FileFormatRegistry.getInstance ();
+    assertEquals (4,
+                  aReg.getFileFormatDescriptorOfName (FileFormatDescriptorPDF.NAME)
+                      .getContentValidatorFavourSpeed ()
+                      .getRequiredLeadingByteCount ());
+    assertEquals (8,
+                  aReg.getFileFormatDescriptorByFileExtension ("png")
+                      .getContentValidatorFavourSpeed ()
+                      .getRequiredLeadingByteCount ());
+    assertEquals (12,
+                  aReg.getFileFormatDescriptorByFileExtension ("xml")
+                      .getContentValidatorFavourSpeed ()
+                      .getRequiredLeadingByteCount ());
+    // XML with a BOM is the longest, the first line check of CSV is not used for detection
+    final int nMax = aReg.getMaxRequiredLeadingByteCount ();
+    assertEquals (12, nMax);
+    assertEquals (LeadingBytesContentValidatorCSV.LEADING_BYTE_COUNT,
+                  aReg.getFileFormatDescriptorByFileExtension ("csv")
+                      .getContentValidatorFavourSpeed ()
+                      .getRequiredLeadingByteCount ());
+
+    final IPhiveContentValidator aLambda = data -> true;
+    assertEquals (IPhiveContentValidator.REQUIRES_ALL_BYTES, aLambda.getRequiredLeadingByteCount ());
+    assertTrue (aLambda.isUsableForDetection ());
+  }
+
+  @Test
+  public void testRegisterDuplicate ()
+  {
+    final FileFormatRegistry aReg = FileFormatRegistry.getInstance ();
+    final int nCount = aReg.getRegisteredFileFormatDescriptorCount ();
+    assertTrue (aReg.registerFileFormat (new FileFormatDescriptorPDF ()).isFailure ());
+    assertEquals (nCount, aReg.getRegisteredFileFormatDescriptorCount ());
+    assertNotNull (aReg.getFileFormatDescriptorOfName (FileFormatDescriptorPDF.NAME));
+  }
+
+  @Test
+  public void testReinitialize ()
+  {
+    final FileFormatRegistry aReg = FileFormatRegistry.getInstance ();
+    final long nGeneration = aReg.getGeneration ();
+    final int nCount = aReg.getRegisteredFileFormatDescriptorCount ();
+    final IFileFormatDescriptor aPDF = aReg.getFileFormatDescriptorByFileExtension ("pdf");
+    assertNotNull (aPDF);
+
+    assertTrue (aReg.reinitializeChecked ().isSuccess ());
+    assertTrue (aReg.getGeneration () > nGeneration);
+    assertEquals (nCount, aReg.getRegisteredFileFormatDescriptorCount ());
+    // New generation means new descriptor instances
+    assertNotSame (aPDF, aReg.getFileFormatDescriptorByFileExtension ("pdf"));
+  }
+
+  @Test
+  public void testReinitializeCollision ()
+  {
+    final FileFormatRegistry aReg = FileFormatRegistry.getInstance ();
+    final long nGeneration = aReg.getGeneration ();
+    final IFileFormatDescriptor aPDF = aReg.getFileFormatDescriptorByFileExtension ("pdf");
+
+    MockCollidingFileFormatRegistrarSPI.s_bEnabled = true;
+    try
+    {
+      assertTrue (aReg.reinitializeChecked ().isFailure ());
+      // The previous content is kept
+      assertEquals (nGeneration, aReg.getGeneration ());
+      assertSame (aPDF, aReg.getFileFormatDescriptorByFileExtension ("pdf"));
+
+      // The first registration wins, as for the initial content
+      final int nCount = aReg.getRegisteredFileFormatDescriptorCount ();
+      aReg.reinitialize ();
+      assertTrue (aReg.getGeneration () > nGeneration);
+      assertEquals (nCount, aReg.getRegisteredFileFormatDescriptorCount ());
+      assertNotNull (aReg.getFileFormatDescriptorByFileExtension ("pdf"));
+    }
+    finally
+    {
+      MockCollidingFileFormatRegistrarSPI.s_bEnabled = false;
+    }
+
+    // Manual collisions on the live registry don't affect a later reinitialization
+    assertTrue (aReg.registerFileFormat (aReg.getFileFormatDescriptorByFileExtension ("pdf")).isFailure ());
+    assertTrue (aReg.reinitializeChecked ().isSuccess ());
+  }
+
   @Test
   public void testDetermination ()
   {
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+
+/**
+ * Test class for class {@link FileFormatSignatureTrie}.
+ *
+ * @author Philip Helger
+ */
+public final class FileFormatSignatureTrieTest
+{
+  private static IFileFormatDescriptor _createDescriptor (final String sName, final IPhiveContentValidator aValidator)
+  {
+    final Map <EPhiveContentValidationMode, IPhiveContentValidator> aValidators = new CommonsHashMap <> ();
+    aValidators.put (EPhiveContentValidationMode.LEADING_BYTES, aValidator);
+    return new AbstractFileFormatDescriptor (sName,
+                                             null,
+                                             new CommonsArrayList <> (sName),
+                                             new CommonsArrayList <> ("application/x-" + sName),
+                                             aValidators)
+    {};
+  }
+
+  private static byte [] _bytes (final String s)
+  {
+    return s.getBytes (StandardCharsets.US_ASCII);
+  }
+
+  @Test
+  public void testSubclasses ()
+  {
+    final IFileFormatDescriptor aPlain = _createDescriptor ("plain", new PhiveLeadingBytesContentValidator (_bytes ("AB")));
+    // Only accepts "CD" followed by "!"
+    final IFileFormatDescriptor aStricter = _createDescriptor ("stricter",
+                                                              new PhiveLeadingBytesContentValidator (_bytes ("CD"))
+                                                              {
+                                                                @Override
+                                                                public boolean isValidContent (final byte [] aData,
+                                                                                               final int nOfs,
+                                                                                               final int nLen)
+                                                                {
+                                                                  return super.isValidContent (aData, nOfs, nLen) &&
+                                                                         nLen > 2 &&
+                                                                         aData[nOfs + 2] == '!';
+                                                                }
+                                                              });
+    // Not usable for detection at all
+    final IFileFormatDescriptor aHeuristic = _createDescriptor ("heuristic",
+                                                               new PhiveLeadingBytesContentValidator (_bytes ("EF"))
+                                                               {
+                                                                 @Override
+                                                                 public boolean isUsableForDetection ()
+                                                                 {
+                                                                   return false;
+                                                                 }
+                                                               });
+    final FileFormatSignatureTrie aTrie = new FileFormatSignatureTrie (new CommonsArrayList <> (aPlain,
+                                                                                                aStricter,
+                                                                                                aHeuristic));
+    final byte [] aAB = _bytes ("ABx");
+    assertSame (aPlain, aTrie.findFileFormat (aAB, 0, aAB.length));
+    final byte [] aCD = _bytes ("CDx");
+    assertNull (aTrie.findFileFormat (aCD, 0, aCD.length));
+    final byte [] aCDOK = _bytes ("CD!");
+    assertSame (aStricter, aTrie.findFileFormat (aCDOK, 0, aCDOK.length));
+    final byte [] aEF = _bytes ("EFx");
+    assertNull (aTrie.findFileFormat (aEF, 0, aEF.length));
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link IPhiveByteSource}.
+ *
+ * @author Philip Helger
+ */
+public final class IPhiveByteSourceTest
+{
+  private static byte [] _createData (final int nLen)
+  {
+    final byte [] ret = new byte [nLen];
+    for (int i = 0; i < nLen; ++i)
+      ret[i] = (byte) (i * 31);
+    return ret;
+  }
+
+  private static void _testRandomAccess (final IPhiveByteSource aSource, final byte [] aData) throws IOException
+  {
+    assertTrue (aSource.isRandomAccess ());
+    assertEquals (aData.length, aSource.getSize ());
+    _testForward (aSource, aData);
+
+    // Backwards
+    assertEquals (aData[5] & 0xff, aSource.getUInt8 (5));
+    assertEquals (aData[0] & 0xff, aSource.getByte (0));
+  }
+
+  private static void _testForward (final IPhiveByteSource aSource, final byte [] aData) throws IOException
+  {
+    assertEquals (aData[0] & 0xff, aSource.getByte (0));
+    assertEquals ((aData[1] & 0xff) << 8 | (aData[2] & 0xff), aSource.getUInt16 (1, false));
+    assertEquals ((aData[4] & 0xff) << 8 | (aData[3] & 0xff), aSource.getUInt16 (3, true));
+    assertEquals (ByteBuffer.wrap (aData, 10, 4).getInt () & 0xffffffffL, aSource.getUInt32 (10, false));
+    assertEquals (ByteBuffer.wrap (aData, 20, 8).getLong (), aSource.getInt64 (20, false));
+    assertTrue (aSource.startsWith (30, new byte [] { aData[30], aData[31] }));
+    assertFalse (aSource.startsWith (30, new byte [] { aData[30], (byte) (aData[31] + 1) }));
+
+    // Across internal block boundaries
+    final byte [] aDst = new byte [20000];
+    aSource.readFully (9000, aDst, 0, aDst.length);
+    for (int i = 0; i < aDst.length; ++i)
+      assertEquals (aData[9000 + i], aDst[i]);
+
+    try
+    {
+      aSource.getUInt32 (aData.length - 2, true);
+      fail ();
+    }
+    catch (final EOFException ex)
+    {
+      // expected
+    }
+    assertEquals (aData[aData.length - 1] & 0xff, aSource.getByte (aData.length - 1));
+    assertEquals (-1, aSource.getByte (aData.length));
+    assertFalse (aSource.startsWith (aData.length - 1, new byte [2]));
+  }
+
+  @Test
+  public void testInMemory () throws IOException
+  {
+    final byte [] aData = _createData (50000);
+    _testRandomAccess (IPhiveByteSource.of (aData, 0, aData.length), aData);
+    _testRandomAccess (IPhiveByteSource.of (ByteBuffer.wrap (aData)), aData);
+
+    final ByteBuffer aDirect = ByteBuffer.allocateDirect (aData.length);
+    aDirect.put (aData).flip ();
+    _testRandomAccess (IPhiveByteSource.of (aDirect), aData);
+  }
+
+  @Test
+  public void testFileChannel () throws IOException
+  {
+    final byte [] aData = _createData (50000);
+    final Path aPath = Files.createTempFile ("phive", ".bin");
+    try
+    {
+      Files.write (aPath, aData);
+      try (final FileChannel aFC = FileChannel.open (aPath, StandardOpenOption.READ))
+      {
+        _testRandomAccess (IPhiveByteSource.of (aFC), aData);
+      }
+    }
+    finally
+    {
+      Files.delete (aPath);
+    }
+  }
+
+  @Test
+  public void testInputStream () throws IOException
+  {
+    final byte [] aData = _createData (50000);
+    final IPhiveByteSource aSource = IPhiveByteSource.of (new ByteArrayInputStream (aData));
+    assertFalse (aSource.isRandomAccess ());
+    assertEquals (IPhiveByteSource.UNKNOWN_SIZE, aSource.getSize ());
+    _testForward (aSource, aData);
+    assertEquals (aData.length, aSource.getSize ());
+
+    try
+    {
+      // Too far backwards
+      aSource.getByte (0);
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+  }
+}
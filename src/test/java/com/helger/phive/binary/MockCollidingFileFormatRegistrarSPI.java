@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.phive.binary.impl.FileFormatDescriptorPDF;
+
+/**
+ * Test implementation of {@link IFileFormatRegistrarSPI} that registers the PDF file format a
+ * second time, if enabled.
+ *
+ * @author Philip Helger
+ */
+@IsSPIImplementation
+public final class MockCollidingFileFormatRegistrarSPI implements IFileFormatRegistrarSPI
+{
+  static volatile boolean s_bEnabled = false;
+
+  public void registerFileFormats (@NonNull final IFileFormatRegistry aRegistry)
+  {
+    if (s_bEnabled)
+      aRegistry.registerFileFormat (new FileFormatDescriptorPDF ());
+  }
+}
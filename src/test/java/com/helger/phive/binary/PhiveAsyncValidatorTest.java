@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.phive.binary.impl.FileFormatDescriptorPDF;
+
+/**
+ * Test class for class {@link PhiveAsyncValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class PhiveAsyncValidatorTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final byte [] aPDF = "%PDF-1.7".getBytes (StandardCharsets.ISO_8859_1);
+    final IFileFormatDescriptor aDescriptor = new FileFormatDescriptorPDF ();
+    final IPhiveContentValidator aValidator = aDescriptor.getContentValidatorFavourSpeed ();
+
+    final PhiveAsyncValidator aAsync = new PhiveAsyncValidator ();
+    assertSame (PhiveAsyncValidator.getDefaultExecutor (), aAsync.getExecutor ());
+    assertTrue (aAsync.isValidContent (aValidator, aPDF).join ().booleanValue ());
+    assertFalse (aAsync.isValidContent (aValidator, new byte [4]).join ().booleanValue ());
+    assertTrue (aAsync.isValidContent (aValidator, ByteBuffer.wrap (aPDF)).join ().booleanValue ());
+    assertTrue (aAsync.isValidContent (aDescriptor, aPDF, EPhiveContentValidationMode.LEADING_BYTES)
+                      .join ()
+                      .booleanValue ());
+
+    // Synchronous executor
+    final PhiveAsyncValidator aSync = new PhiveAsyncValidator (Runnable::run);
+    assertTrue (aSync.isValidContent (aValidator, aPDF).isDone ());
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNoValidator ()
+  {
+    final IFileFormatDescriptor aDescriptor = new AbstractFileFormatDescriptor ("Test",
+                                                                            null,
+                                                                            new CommonsArrayList <> ("test"),
+                                                                            new CommonsArrayList <> ("application/x-test"),
+                                                                            new CommonsHashMap <> ())
+    {};
+    new PhiveAsyncValidator ().isValidContent (aDescriptor, new byte [0], EPhiveContentValidationMode.LEADING_BYTES);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * Test class for class {@link PhiveBatchValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class PhiveBatchValidatorTest
+{
+  private static final byte [] PDF = "%PDF-1.7".getBytes (StandardCharsets.ISO_8859_1);
+  private static final byte [] GIF = "GIF89a".getBytes (StandardCharsets.ISO_8859_1);
+
+  @Test
+  public void testBasic ()
+  {
+    final PhiveBatchValidator aBatch = new PhiveBatchValidator (FileFormatRegistry.getInstance (),
+                                                                IFileFormatDescriptor::getContentValidatorFavourSpeed,
+                                                                ForkJoinPool.commonPool (),
+                                                                PhiveBatchValidator.DEFAULT_SPLIT_THRESHOLD_BYTES);
+    final ICommonsList <PhiveBatchValidationInput> aInputs = new CommonsArrayList <> ();
+    aInputs.add (new PhiveBatchValidationInput ("application/pdf", PDF));
+    aInputs.add (new PhiveBatchValidationInput ("Application/PDF; name=a.pdf", GIF));
+    aInputs.add (new PhiveBatchValidationInput ("image/gif", GIF));
+    aInputs.add (new PhiveBatchValidationInput ("application/x-unknown", PDF));
+    aInputs.add (new PhiveBatchValidationInput (null, PDF));
+    final ICommonsList <EPhiveBatchValidationResult> aResults = aBatch.validate (aInputs);
+    assertEquals (new CommonsArrayList <> (EPhiveBatchValidationResult.VALID,
+                                           EPhiveBatchValidationResult.INVALID,
+                                           EPhiveBatchValidationResult.VALID,
+                                           EPhiveBatchValidationResult.UNKNOWN_FORMAT,
+                                           EPhiveBatchValidationResult.UNKNOWN_FORMAT),
+                  aResults);
+    assertTrue (aBatch.validate (new CommonsArrayList <> ()).isEmpty ());
+  }
+
+  @Test
+  public void testSplitting ()
+  {
+    // Tiny threshold to force splitting down to single items
+    final PhiveBatchValidator aBatch = new PhiveBatchValidator (FileFormatRegistry.getInstance (),
+                                                                IFileFormatDescriptor::getContentValidatorFavourSpeed,
+                                                                ForkJoinPool.commonPool (),
+                                                                1);
+    final int nCount = 1000;
+    final Stream <PhiveBatchValidationInput> aInputs = Stream.iterate (0, i -> i + 1)
+                                                            .limit (nCount)
+                                                            .map (i -> new PhiveBatchValidationInput ("application/pdf",
+                                                                                                      i % 3 == 0 ? GIF : PDF));
+    final ICommonsList <EPhiveBatchValidationResult> aResults = aBatch.validate (aInputs);
+    assertEquals (nCount, aResults.size ());
+    for (int i = 0; i < nCount; ++i)
+      assertEquals ((i % 3) == 0 ? EPhiveBatchValidationResult.INVALID : EPhiveBatchValidationResult.VALID,
+                    aResults.get (i));
+  }
+}
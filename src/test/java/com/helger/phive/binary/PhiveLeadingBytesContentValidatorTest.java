@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link PhiveLeadingBytesContentValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class PhiveLeadingBytesContentValidatorTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final byte [] aPrefix1 = { 'a', 'b' };
+    final byte [] aPrefix2 = { 'x', 'y', 'z' };
+    final PhiveLeadingBytesContentValidator aValidator = new PhiveLeadingBytesContentValidator (aPrefix1, aPrefix2);
+    assertEquals (3, aValidator.getMaxPrefixLength ());
+    assertEquals (2, aValidator.getAllPrefixes ().size ());
+
+    assertTrue (aValidator.isValidContent (new byte [] { 'a', 'b' }));
+    assertTrue (aValidator.isValidContent (new byte [] { 'a', 'b', 'c' }));
+    assertTrue (aValidator.isValidContent (new byte [] { 'x', 'y', 'z', 0 }));
+    assertFalse (aValidator.isValidContent (new byte [] { 'a' }));
+    assertFalse (aValidator.isValidContent (new byte [] { 'x', 'y' }));
+    assertFalse (aValidator.isValidContent (new byte [0]));
+  }
+
+  @Test
+  public void testOffsetLength ()
+  {
+    final PhiveLeadingBytesContentValidator aValidator = new PhiveLeadingBytesContentValidator (new byte [] { 'a', 'b' });
+    final byte [] aData = "xxabyy".getBytes (StandardCharsets.ISO_8859_1);
+    assertFalse (aValidator.isValidContent (aData, 0, 6));
+    assertTrue (aValidator.isValidContent (aData, 2, 2));
+    assertTrue (aValidator.isValidContent (aData, 2, 4));
+    // Bounds must be honoured
+    assertFalse (aValidator.isValidContent (aData, 2, 1));
+    assertFalse (aValidator.isValidContent (aData, 6, 0));
+
+    final IPhiveContentValidator aLambda = data -> data.length == 2 && data[0] == 'a';
+    assertTrue (aLambda.isValidContent (aData, 2, 2));
+    assertFalse (aLambda.isValidContent (aData, 1, 2));
+  }
+
+  @Test
+  public void testInputStream () throws IOException
+  {
+    final PhiveLeadingBytesContentValidator aValidator = new PhiveLeadingBytesContentValidator (new byte [] { 'a', 'b' });
+    final byte [] aData = "abcdef".getBytes (StandardCharsets.ISO_8859_1);
+    try (final InputStream aIS = new ByteArrayInputStream (aData))
+    {
+      assertTrue (aValidator.isValidContent (aIS));
+      // Only the prefix was read
+      assertEquals (4, aIS.available ());
+    }
+    assertFalse (aValidator.isValidContent (new ByteArrayInputStream (new byte [] { 'a' })));
+
+    // The content can be forwarded
+    try (final PushbackInputStream aPIS = new PushbackInputStream (new ByteArrayInputStream (aData),
+                                                                   aValidator.getMaxPrefixLength ()))
+    {
+      assertTrue (aValidator.isValidContentAndUnread (aPIS));
+      assertArrayEquals (aData, aPIS.readAllBytes ());
+    }
+  }
+
+  @Test
+  public void testDefaultInputStream () throws IOException
+  {
+    final IPhiveContentValidator aValidator = data -> data.length == 3;
+    assertTrue (aValidator.isValidContent (new ByteArrayInputStream (new byte [3])));
+    assertFalse (aValidator.isValidContent (new ByteArrayInputStream (new byte [4])));
+  }
+
+  @Test
+  public void testByteBuffer ()
+  {
+    final PhiveLeadingBytesContentValidator aValidator = new PhiveLeadingBytesContentValidator (new byte [] { 'a', 'b' });
+    final ByteBuffer aDirect = ByteBuffer.allocateDirect (8);
+    aDirect.put ("xxabcd".getBytes (StandardCharsets.ISO_8859_1)).flip ();
+    assertFalse (aValidator.isValidContent (aDirect));
+    aDirect.position (2);
+    assertTrue (aValidator.isValidContent (aDirect));
+    // Position is unchanged
+    assertEquals (2, aDirect.position ());
+    aDirect.limit (3);
+    assertFalse (aValidator.isValidContent (aDirect));
+
+    final IPhiveContentValidator aLambda = data -> data.length == 2 && data[0] == 'c';
+    final ByteBuffer aHeap = ByteBuffer.wrap ("abcd".getBytes (StandardCharsets.ISO_8859_1), 2, 2);
+    assertTrue (aLambda.isValidContent (aHeap));
+    assertEquals (2, aHeap.position ());
+  }
+
+  @Test
+  public void testPath () throws IOException
+  {
+    final PhiveLeadingBytesContentValidator aValidator = new PhiveLeadingBytesContentValidator (new byte [] { 'a', 'b' });
+    final IPhiveContentValidator aLambda = data -> data.length == 6;
+    final Path aFile = Files.createTempFile ("phive-binary", ".test");
+    try
+    {
+      Files.write (aFile, "abcdef".getBytes (StandardCharsets.ISO_8859_1));
+      assertTrue (aValidator.isValidContent (aFile));
+      // Uses a memory mapped buffer
+      assertTrue (aLambda.isValidContent (aFile));
+
+      try (final FileChannel aChannel = FileChannel.open (aFile, StandardOpenOption.READ))
+      {
+        aChannel.position (3);
+        assertTrue (aValidator.isValidContent (aChannel));
+        assertTrue (aLambda.isValidContent (aChannel));
+        assertEquals (3, aChannel.position ());
+      }
+
+      Files.write (aFile, new byte [] { 'a' });
+      assertFalse (aValidator.isValidContent (aFile));
+      assertFalse (aLambda.isValidContent (aFile));
+    }
+    finally
+    {
+      Files.delete (aFile);
+    }
+  }
+}
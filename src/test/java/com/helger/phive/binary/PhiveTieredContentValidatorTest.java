@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.phive.binary.impl.FileFormatDescriptorPNG;
+
+/**
+ * Test class for class {@link PhiveTieredContentValidator}.
+ *
+ * @author Philip Helger
+ */
+public final class PhiveTieredContentValidatorTest
+{
+  /**
+   * Counts the invocations and accepts content that does not start with a 0 byte.
+   */
+  private static class CountingValidator implements IPhiveContentValidator
+  {
+    private final int m_nRequiredLeadingByteCount;
+    private final AtomicInteger m_aCount = new AtomicInteger ();
+
+    CountingValidator (final int nRequiredLeadingByteCount)
+    {
+      m_nRequiredLeadingByteCount = nRequiredLeadingByteCount;
+    }
+
+    @Override
+    public int getRequiredLeadingByteCount ()
+    {
+      return m_nRequiredLeadingByteCount;
+    }
+
+    @Override
+    public boolean isValidContent (final byte [] aData)
+    {
+      m_aCount.incrementAndGet ();
+      return aData.length > 0 && aData[0] != 0;
+    }
+  }
+
+  private static IFileFormatDescriptor _createDescriptor (final Map <EPhiveContentValidationMode, IPhiveContentValidator> aValidators)
+  {
+    return new AbstractFileFormatDescriptor ("Test",
+                                             null,
+                                             new CommonsArrayList <> ("test"),
+                                             new CommonsArrayList <> ("application/x-test"),
+                                             aValidators)
+    {};
+  }
+
+  @Test
+  public void testEscalation ()
+  {
+    final CountingValidator aLeading = new CountingValidator (4);
+    final CountingValidator aFull = new CountingValidator (IPhiveContentValidator.REQUIRES_ALL_BYTES);
+    final Map <EPhiveContentValidationMode, IPhiveContentValidator> aValidators = new CommonsHashMap <> ();
+    aValidators.put (EPhiveContentValidationMode.LEADING_BYTES, aLeading);
+    aValidators.put (EPhiveContentValidationMode.FULL_PARSE, aFull);
+    final IFileFormatDescriptor aDescriptor = _createDescriptor (aValidators);
+
+    final byte [] aValid = new byte [100];
+    Arrays.fill (aValid, (byte) 1);
+
+    // Unlimited budget
+    final PhiveTieredContentValidator aUnlimited = aDescriptor.getTieredContentValidator (PhiveTieredContentValidator.UNLIMITED_BYTES,
+                                                                                          Duration.ofDays (1));
+    PhiveTieredValidationResult aResult = aUnlimited.validate (aValid);
+    assertTrue (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.FULL_PARSE, aResult.getDecidingMode ());
+    assertFalse (aResult.isBudgetExceeded ());
+    assertEquals (1, aLeading.m_aCount.get ());
+    assertEquals (1, aFull.m_aCount.get ());
+
+    // Rejected by the first tier - no escalation
+    aResult = aUnlimited.validate (new byte [100]);
+    assertFalse (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.LEADING_BYTES, aResult.getDecidingMode ());
+    assertFalse (aResult.isBudgetExceeded ());
+    assertEquals (2, aLeading.m_aCount.get ());
+    assertEquals (1, aFull.m_aCount.get ());
+
+    // Byte budget too small for a full parse
+    final PhiveTieredContentValidator aByteLimited = aDescriptor.getTieredContentValidator (99, Duration.ofDays (1));
+    aResult = aByteLimited.validate (aValid);
+    assertTrue (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.LEADING_BYTES, aResult.getDecidingMode ());
+    assertTrue (aResult.isBudgetExceeded ());
+    assertEquals (1, aFull.m_aCount.get ());
+    // Small content is still escalated
+    aResult = aByteLimited.validate (ByteBuffer.wrap (aValid, 0, 99));
+    assertEquals (EPhiveContentValidationMode.FULL_PARSE, aResult.getDecidingMode ());
+    assertFalse (aResult.isBudgetExceeded ());
+    assertEquals (2, aFull.m_aCount.get ());
+
+    // No time for escalation
+    final PhiveTieredContentValidator aTimeLimited = aDescriptor.getTieredContentValidator (PhiveTieredContentValidator.UNLIMITED_BYTES,
+                                                                                            Duration.ZERO);
+    // The first tier may be faster than the timer resolution
+    for (int i = 0; i < 100 && !aResult.isBudgetExceeded (); ++i)
+      aResult = aTimeLimited.validate (aValid);
+    assertTrue (aResult.isBudgetExceeded ());
+    assertEquals (EPhiveContentValidationMode.LEADING_BYTES, aResult.getDecidingMode ());
+    assertTrue (aTimeLimited.isValidContent (aValid));
+    assertFalse (aTimeLimited.isValidContent (new byte [1]));
+  }
+
+  @Test
+  public void testStream () throws IOException
+  {
+    final CountingValidator aLeading = new CountingValidator (4);
+    final CountingValidator aFull = new CountingValidator (IPhiveContentValidator.REQUIRES_ALL_BYTES);
+    final Map <EPhiveContentValidationMode, IPhiveContentValidator> aValidators = new CommonsHashMap <> ();
+    aValidators.put (EPhiveContentValidationMode.LEADING_BYTES, aLeading);
+    aValidators.put (EPhiveContentValidationMode.FULL_PARSE, aFull);
+    final PhiveTieredContentValidator aTiered = _createDescriptor (aValidators).getTieredContentValidator (100,
+                                                                                                       Duration.ofDays (1));
+
+    // Rejected by the leading bytes - nothing else is read
+    ByteArrayInputStream aIS = new ByteArrayInputStream (new byte [1000]);
+    PhiveTieredValidationResult aResult = aTiered.validate (aIS);
+    assertFalse (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.LEADING_BYTES, aResult.getDecidingMode ());
+    assertEquals (996, aIS.available ());
+    assertEquals (0, aFull.m_aCount.get ());
+
+    // Within the budget
+    final byte [] aValid = new byte [1000];
+    Arrays.fill (aValid, (byte) 1);
+    aResult = aTiered.validate (new ByteArrayInputStream (aValid, 0, 100));
+    assertTrue (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.FULL_PARSE, aResult.getDecidingMode ());
+    assertFalse (aResult.isBudgetExceeded ());
+    assertEquals (1, aFull.m_aCount.get ());
+
+    // Shorter than the leading bytes
+    aResult = aTiered.validate (new ByteArrayInputStream (aValid, 0, 2));
+    assertEquals (EPhiveContentValidationMode.FULL_PARSE, aResult.getDecidingMode ());
+    assertEquals (2, aFull.m_aCount.get ());
+
+    // Exceeding the budget - at most one byte more than the budget is read
+    aIS = new ByteArrayInputStream (aValid);
+    aResult = aTiered.validate (aIS);
+    assertTrue (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.LEADING_BYTES, aResult.getDecidingMode ());
+    assertTrue (aResult.isBudgetExceeded ());
+    assertEquals (899, aIS.available ());
+    assertEquals (2, aFull.m_aCount.get ());
+    assertTrue (aTiered.isValidContent (new ByteArrayInputStream (aValid)));
+
+    // A first mode needing all bytes reads the content exceeding the budget
+    final Map <EPhiveContentValidationMode, IPhiveContentValidator> aFullOnly = new CommonsHashMap <> ();
+    aFullOnly.put (EPhiveContentValidationMode.FULL_PARSE, aFull);
+    aIS = new ByteArrayInputStream (aValid);
+    aResult = _createDescriptor (aFullOnly).getTieredContentValidator (100, Duration.ofDays (1)).validate (aIS);
+    assertTrue (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.FULL_PARSE, aResult.getDecidingMode ());
+    assertFalse (aResult.isBudgetExceeded ());
+    assertEquals (0, aIS.available ());
+    assertEquals (3, aFull.m_aCount.get ());
+  }
+
+  @Test
+  public void testMaxReadByteCount ()
+  {
+    // Custom validators can declare their costs
+    final CountingValidator aFull = new CountingValidator (IPhiveContentValidator.REQUIRES_ALL_BYTES)
+    {
+      @Override
+      public long getMaxReadByteCount (final long nSize)
+      {
+        return Math.min (nSize, 10);
+      }
+    };
+    final Map <EPhiveContentValidationMode, IPhiveContentValidator> aValidators = new CommonsHashMap <> ();
+    aValidators.put (EPhiveContentValidationMode.LEADING_BYTES, new CountingValidator (4));
+    aValidators.put (EPhiveContentValidationMode.FULL_PARSE, aFull);
+    final byte [] aValid = new byte [1000];
+    Arrays.fill (aValid, (byte) 1);
+    final PhiveTieredValidationResult aResult = _createDescriptor (aValidators).getTieredContentValidator (10,
+                                                                                                       Duration.ofDays (1))
+                                                                              .validate (aValid);
+    assertEquals (EPhiveContentValidationMode.FULL_PARSE, aResult.getDecidingMode ());
+    assertFalse (aResult.isBudgetExceeded ());
+
+    assertEquals (3, new CountingValidator (IPhiveContentValidator.REQUIRES_ALL_BYTES).getMaxReadByteCount (3));
+    assertEquals (4, new CountingValidator (4).getMaxReadByteCount (1000));
+    assertEquals (2, new CountingValidator (4).getMaxReadByteCount (2));
+  }
+
+  @Test
+  public void testNoValidator ()
+  {
+    final PhiveTieredContentValidator aTiered = _createDescriptor (new CommonsHashMap <> ()).getTieredContentValidator (0,
+                                                                                                                      Duration.ZERO);
+    final PhiveTieredValidationResult aResult = aTiered.validate (new byte [10]);
+    assertFalse (aResult.isValid ());
+    assertNull (aResult.getDecidingMode ());
+    assertFalse (aResult.isBudgetExceeded ());
+  }
+
+  @Test
+  public void testPNG () throws IOException
+  {
+    final BufferedImage aImage = new BufferedImage (64, 64, BufferedImage.TYPE_INT_RGB);
+    for (int y = 0; y < 64; ++y)
+      for (int x = 0; x < 64; ++x)
+        aImage.setRGB (x, y, x * y * 7919);
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    assertTrue (ImageIO.write (aImage, "png", aBAOS));
+    final byte [] aPNG = aBAOS.toByteArray ();
+    final byte [] aTruncated = Arrays.copyOf (aPNG, aPNG.length - 1);
+
+    // The budget allows head and tail, but no full parse
+    final PhiveTieredContentValidator aTiered = new FileFormatDescriptorPNG ().getTieredContentValidator (100,
+                                                                                                         Duration.ofDays (1));
+    PhiveTieredValidationResult aResult = aTiered.validate (aPNG);
+    assertTrue (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.HEAD_AND_TAIL, aResult.getDecidingMode ());
+    assertTrue (aResult.isBudgetExceeded ());
+
+    aResult = aTiered.validate (aTruncated);
+    assertFalse (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.HEAD_AND_TAIL, aResult.getDecidingMode ());
+
+    // Streams exceeding the budget are escalated to the sequential head and tail mode as well
+    aResult = aTiered.validate (new ByteArrayInputStream (aPNG));
+    assertTrue (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.HEAD_AND_TAIL, aResult.getDecidingMode ());
+    assertTrue (aResult.isBudgetExceeded ());
+
+    aResult = aTiered.validate (new ByteArrayInputStream (aTruncated));
+    assertFalse (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.HEAD_AND_TAIL, aResult.getDecidingMode ());
+    assertFalse (aResult.isBudgetExceeded ());
+
+    // Within the budget, streams are handled like byte arrays
+    aResult = new FileFormatDescriptorPNG ().getTieredContentValidator (aPNG.length, Duration.ofDays (1))
+                                            .validate (new ByteArrayInputStream (aPNG));
+    assertTrue (aResult.isValid ());
+    assertEquals (EPhiveContentValidationMode.FULL_PARSE, aResult.getDecidingMode ());
+    assertFalse (aResult.isBudgetExceeded ());
+
+    final Path aFile = Files.createTempFile ("phive-tiered", ".png");
+    try
+    {
+      Files.write (aFile, aPNG);
+      try (final FileChannel aChannel = FileChannel.open (aFile, StandardOpenOption.READ))
+      {
+        aResult = new FileFormatDescriptorPNG ().getTieredContentValidator (PhiveTieredContentValidator.UNLIMITED_BYTES,
+                                                                            Duration.ofDays (1))
+                                                .validate (aChannel);
+        assertTrue (aResult.isValid ());
+        assertEquals (EPhiveContentValidationMode.FULL_PARSE, aResult.getDecidingMode ());
+        assertFalse (aResult.isBudgetExceeded ());
+      }
+    }
+    finally
+    {
+      Files.delete (aFile);
+    }
+  }
+}
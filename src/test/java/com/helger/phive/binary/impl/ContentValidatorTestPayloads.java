@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.imageio.ImageIO;
+
+import com.helger.annotation.concurrent.Immutable;
+
+/**
+ * Small but structurally valid payloads of all built-in binary file formats, for tests that need a
+ * valid sample of each format.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+final class ContentValidatorTestPayloads
+{
+  private static final int SECTOR_SIZE = 512;
+  private static final int FREE = 0xffffffff;
+  private static final int END_OF_CHAIN = 0xfffffffe;
+
+  private ContentValidatorTestPayloads ()
+  {}
+
+  private static void _append (final ByteArrayOutputStream aBAOS, final String s)
+  {
+    aBAOS.writeBytes (s.getBytes (StandardCharsets.ISO_8859_1));
+  }
+
+  /**
+   * @return A single page PDF with a classic cross-reference table.
+   */
+  static byte [] createPDF ()
+  {
+    final String [] aObjects = { "<< /Type /Catalog /Pages 2 0 R >>",
+                                 "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+                                 "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] >>" };
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    _append (aBAOS, "%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+    final int [] aOffsets = new int [aObjects.length];
+    for (int i = 0; i < aObjects.length; ++i)
+    {
+      aOffsets[i] = aBAOS.size ();
+      _append (aBAOS, (i + 1) + " 0 obj\n" + aObjects[i] + "\nendobj\n");
+    }
+    final int nXRef = aBAOS.size ();
+    _append (aBAOS, "xref\n0 " + (aObjects.length + 1) + "\n0000000000 65535 f\r\n");
+    for (final int nOffset : aOffsets)
+      _append (aBAOS, String.format ("%010d 00000 n\r\n", Integer.valueOf (nOffset)));
+    _append (aBAOS, "trailer\n<< /Size " + (aObjects.length + 1) + " /Root 1 0 R >>\n");
+    _append (aBAOS, "startxref\n" + nXRef + "\n%%EOF\n");
+    return aBAOS.toByteArray ();
+  }
+
+  private static void _appendChunk (final ByteArrayOutputStream aBAOS, final String sType, final byte [] aData)
+  {
+    final byte [] aType = sType.getBytes (StandardCharsets.US_ASCII);
+    final CRC32 aCRC = new CRC32 ();
+    aCRC.update (aType);
+    aCRC.update (aData);
+    aBAOS.writeBytes (ByteBuffer.allocate (4).putInt (aData.length).array ());
+    aBAOS.writeBytes (aType);
+    aBAOS.writeBytes (aData);
+    aBAOS.writeBytes (ByteBuffer.allocate (4).putInt ((int) aCRC.getValue ()).array ());
+  }
+
+  /**
+   * @return A 1x1 PNG with the chunks IHDR, IDAT and IEND.
+   */
+  static byte [] createPNG ()
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    aBAOS.writeBytes (new byte [] { (byte) 0x89, 0x50, 0x4e, 0x47, 0x0d, 0x0a, 0x1a, 0x0a });
+    _appendChunk (aBAOS, "IHDR", new byte [] { 0, 0, 0, 1, 0, 0, 0, 1, 8, 0, 0, 0, 0 });
+    _appendChunk (aBAOS, "IDAT", new byte [] { 1, 2, 3 });
+    _appendChunk (aBAOS, "IEND", new byte [0]);
+    return aBAOS.toByteArray ();
+  }
+
+  /**
+   * @return A 320x240 JPEG written by ImageIO.
+   * @throws IOException
+   *         In case writing fails
+   */
+  static byte [] createJPG () throws IOException
+  {
+    final BufferedImage aImage = new BufferedImage (320, 240, BufferedImage.TYPE_INT_RGB);
+    for (int y = 0; y < 240; ++y)
+      for (int x = 0; x < 320; ++x)
+        aImage.setRGB (x, y, x * y * 7919);
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    assertTrue (ImageIO.write (aImage, "jpg", aBAOS));
+    return aBAOS.toByteArray ();
+  }
+
+  /**
+   * @param nFrames
+   *        The number of frames to create
+   * @return A 2x2 GIF89a with a global color table and the provided number of frames.
+   */
+  static byte [] createGIF (final int nFrames)
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    aBAOS.writeBytes (new byte [] { 'G', 'I', 'F', '8', '9', 'a', 2, 0, 2, 0, (byte) 0x80, 0, 0 });
+    aBAOS.writeBytes (new byte [] { 0, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff });
+    for (int i = 0; i < nFrames; ++i)
+    {
+      // Graphic control extension, image descriptor and image data
+      aBAOS.writeBytes (new byte [] { 0x21, (byte) 0xf9, 4, 0, 10, 0, 0, 0 });
+      aBAOS.writeBytes (new byte [] { 0x2c, 0, 0, 0, 0, 2, 0, 2, 0, 0 });
+      aBAOS.writeBytes (new byte [] { 2, 2, 0x44, 0x01, 0 });
+    }
+    aBAOS.write (0x3b);
+    return aBAOS.toByteArray ();
+  }
+
+  /**
+   * @param nPages
+   *        The number of pages to create. Each page consists of 16 bytes strip data followed by its
+   *        IFD.
+   * @param aOrder
+   *        The byte order to use
+   * @return A classic TIFF
+   */
+  static byte [] createTIFF (final int nPages, final ByteOrder aOrder)
+  {
+    final int nDataSize = 16;
+    final int nPageSize = nDataSize + 2 + 4 * 12 + 4;
+    final ByteBuffer ret = ByteBuffer.allocate (8 + nPages * nPageSize).order (aOrder);
+    ret.put (aOrder == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+    ret.put (ret.get (0));
+    ret.putShort ((short) 42);
+    ret.putInt (8 + nDataSize);
+    for (int i = 0; i < nPages; ++i)
+    {
+      final int nDataPos = 8 + i * nPageSize;
+      ret.position (nDataPos + nDataSize);
+      ret.putShort ((short) 4);
+      ret.putShort ((short) 256).putShort ((short) 3).putInt (1).putShort ((short) 4).putShort ((short) 0);
+      ret.putShort ((short) 257).putShort ((short) 3).putInt (1).putShort ((short) 4).putShort ((short) 0);
+      ret.putShort ((short) 273).putShort ((short) 4).putInt (1).putInt (nDataPos);
+      ret.putShort ((short) 279).putShort ((short) 4).putInt (1).putInt (nDataSize);
+      ret.putInt (i == nPages - 1 ? 0 : nDataPos + nPageSize + nDataSize);
+    }
+    return ret.array ();
+  }
+
+  /**
+   * @return A single page big endian BigTIFF
+   */
+  static byte [] createBigTIFF ()
+  {
+    final int nDataSize = 16;
+    final ByteBuffer ret = ByteBuffer.allocate (16 + nDataSize + 8 + 4 * 20 + 8).order (ByteOrder.BIG_ENDIAN);
+    ret.put ((byte) 'M').put ((byte) 'M').putShort ((short) 43).putShort ((short) 8).putShort ((short) 0);
+    ret.putLong (16 + nDataSize);
+    ret.position (16 + nDataSize);
+    ret.putLong (4);
+    ret.putShort ((short) 256).putShort ((short) 4).putLong (1).putInt (4).putInt (0);
+    ret.putShort ((short) 257).putShort ((short) 4).putLong (1).putInt (4).putInt (0);
+    ret.putShort ((short) 273).putShort ((short) 16).putLong (1).putLong (16);
+    ret.putShort ((short) 279).putShort ((short) 16).putLong (1).putLong (nDataSize);
+    ret.putLong (0);
+    return ret.array ();
+  }
+
+  /**
+   * @param aEntries
+   *        The names of the ZIP entries to create
+   * @return A ZIP file with an archive comment and the provided entries.
+   * @throws IOException
+   *         In case writing fails
+   */
+  static byte [] createXLSX (final String... aEntries) throws IOException
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    try (final ZipOutputStream aZOS = new ZipOutputStream (aBAOS))
+    {
+      aZOS.setComment ("comment");
+      for (final String sEntry : aEntries)
+      {
+        aZOS.putNextEntry (new ZipEntry (sEntry));
+        aZOS.write (("<content of " + sEntry + "/>").getBytes (StandardCharsets.UTF_8));
+        aZOS.closeEntry ();
+      }
+    }
+    return aBAOS.toByteArray ();
+  }
+
+  private static void _putDirectoryEntry (final ByteBuffer aBB,
+                                          final int nIndex,
+                                          final String sName,
+                                          final int nType,
+                                          final int nChild,
+                                          final int nStartSector,
+                                          final int nSize)
+  {
+    final int nPos = 2 * SECTOR_SIZE + nIndex * 128;
+    for (int i = 0; i < sName.length (); ++i)
+      aBB.putShort (nPos + i * 2, (short) sName.charAt (i));
+    aBB.putShort (nPos + 64, (short) ((sName.length () + 1) * 2));
+    aBB.put (nPos + 66, (byte) nType);
+    aBB.putInt (nPos + 68, FREE);
+    aBB.putInt (nPos + 72, FREE);
+    aBB.putInt (nPos + 76, nChild);
+    aBB.putInt (nPos + 116, nStartSector);
+    aBB.putInt (nPos + 120, nSize);
+  }
+
+  /**
+   * @return A version 3 compound file with a FAT sector, a directory sector and a "Workbook" stream.
+   */
+  static byte [] createXLS ()
+  {
+    final int nWorkbookSize = 4200;
+    final int nWorkbookSectors = (nWorkbookSize + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    final ByteBuffer ret = ByteBuffer.allocate ((3 + nWorkbookSectors) * SECTOR_SIZE).order (ByteOrder.LITTLE_ENDIAN);
+    ret.put (new byte [] { (byte) 0xd0, (byte) 0xcf, 0x11, (byte) 0xe0, (byte) 0xa1, (byte) 0xb1, 0x1a, (byte) 0xe1 });
+    ret.putShort (0x18, (short) 0x3e);
+    ret.putShort (0x1a, (short) 3);
+    ret.putShort (0x1c, (short) 0xfffe);
+    ret.putShort (0x1e, (short) 9);
+    ret.putShort (0x20, (short) 6);
+    // One FAT sector, directory in sector 1
+    ret.putInt (0x2c, 1);
+    ret.putInt (0x30, 1);
+    ret.putInt (0x38, 4096);
+    ret.putInt (0x3c, END_OF_CHAIN);
+    ret.putInt (0x44, END_OF_CHAIN);
+    for (int i = 0; i < 109; ++i)
+      ret.putInt (0x4c + i * 4, i == 0 ? 0 : FREE);
+
+    // FAT in sector 0
+    final int nFATPos = SECTOR_SIZE;
+    for (int i = 0; i < SECTOR_SIZE / 4; ++i)
+      ret.putInt (nFATPos + i * 4, FREE);
+    ret.putInt (nFATPos, 0xfffffffd);
+    ret.putInt (nFATPos + 4, END_OF_CHAIN);
+    for (int i = 0; i < nWorkbookSectors; ++i)
+      ret.putInt (nFATPos + (2 + i) * 4, i == nWorkbookSectors - 1 ? END_OF_CHAIN : 3 + i);
+
+    // Directory in sector 1
+    _putDirectoryEntry (ret, 0, "Root Entry", 5, 1, END_OF_CHAIN, 0);
+    _putDirectoryEntry (ret, 1, "Workbook", 2, FREE, 2, nWorkbookSize);
+    _putDirectoryEntry (ret, 2, "", 0, FREE, 0, 0);
+    _putDirectoryEntry (ret, 3, "", 0, FREE, 0, 0);
+
+    // BIFF8 BOF record at the start of the workbook stream
+    ret.putShort (3 * SECTOR_SIZE, (short) 0x0809);
+    return ret.array ();
+  }
+
+  /**
+   * @param bPSB
+   *        <code>true</code> for the large document format PSB, <code>false</code> for PSD
+   * @param nCompression
+   *        The image data compression method
+   * @return A 4x3 RGB image with one image resource block.
+   */
+  static byte [] createPSD (final boolean bPSB, final int nCompression)
+  {
+    final int nChannels = 3;
+    final int nHeight = 3;
+    final int nWidth = 4;
+    final int nImageDataLen = nCompression == 0 ? nChannels * nHeight * nWidth : 64;
+    final ByteBuffer ret = ByteBuffer.allocate (26 + 4 + 4 + 16 + (bPSB ? 8 : 4) + 8 + 2 + nImageDataLen);
+    ret.put (new byte [] { '8', 'B', 'P', 'S' }).putShort ((short) (bPSB ? 2 : 1)).put (new byte [6]);
+    ret.putShort ((short) nChannels).putInt (nHeight).putInt (nWidth).putShort ((short) 8).putShort ((short) 3);
+    // No color mode data
+    ret.putInt (0);
+    // One image resource block
+    ret.putInt (16).put (new byte [] { '8', 'B', 'I', 'M' }).putShort ((short) 0x0409).putShort ((short) 0).putInt (4).putInt (0);
+    // Layer and mask information
+    if (bPSB)
+      ret.putLong (8);
+    else
+      ret.putInt (8);
+    ret.putLong (0);
+    ret.putShort ((short) nCompression);
+    return ret.array ();
+  }
+}
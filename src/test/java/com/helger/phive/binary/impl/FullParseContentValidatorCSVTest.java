@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link FullParseContentValidatorCSV} and
+ * {@link LeadingBytesContentValidatorCSV}.
+ *
+ * @author Philip Helger
+ */
+public final class FullParseContentValidatorCSVTest
+{
+  private static byte [] _bytes (final String s)
+  {
+    return s.getBytes (StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testValid ()
+  {
+    final FullParseContentValidatorCSV aValidator = new FullParseContentValidatorCSV ();
+    assertTrue (aValidator.isValidContent (_bytes ("a,b,c\r\n1,2,3\r\n")));
+    assertTrue (aValidator.isValidContent (_bytes ("a,b,c\n1,2,3")));
+    assertTrue (aValidator.isValidContent (_bytes (",\n,\n")));
+    assertTrue (aValidator.isValidContent (_bytes ("\"a\",\"b,\"\"quoted\"\"\r\nline\"\r\n\"\",x\r\n")));
+    assertTrue (aValidator.isValidContent (_bytes ("\ufeffname,city\nJ\u00fcrgen,M\u00fcnchen\n")));
+    assertTrue (new FullParseContentValidatorCSV (';').isValidContent (_bytes ("a;b\n1,5;2,5\n")));
+    assertTrue (new FullParseContentValidatorCSV ('\t').isValidContent (_bytes ("a\tb\n1\t2\n")));
+    // Single column
+    assertTrue (aValidator.isValidContent (_bytes ("name\nJohn\n\"Doe, Jane\"\n")));
+    assertTrue (aValidator.isValidContent (_bytes ("just some text\nmore text\n")));
+    // Empty lines
+    assertTrue (aValidator.isValidContent (_bytes ("a,b\n1,2\n\n")));
+    assertTrue (aValidator.isValidContent (_bytes ("a,b\r\n\r\n1,2\r\n\r\n")));
+  }
+
+  @Test
+  public void testInvalid ()
+  {
+    final FullParseContentValidatorCSV aValidator = new FullParseContentValidatorCSV ();
+    assertFalse (aValidator.isValidContent (new byte [0]));
+    assertFalse (aValidator.isValidContent (_bytes ("\n\r\n")));
+    // Different field counts
+    assertFalse (aValidator.isValidContent (_bytes ("a,b,c\n1,2\n")));
+    assertFalse (aValidator.isValidContent (_bytes ("a,b\n1,2\n3\n")));
+    // Quoting
+    assertFalse (aValidator.isValidContent (_bytes ("a,b\n\"1,2\n")));
+    assertFalse (aValidator.isValidContent (_bytes ("a,b\n1\"x\",2\n")));
+    assertFalse (aValidator.isValidContent (_bytes ("a,b\n\"1\"x,2\n")));
+    // Line endings and control characters
+    assertFalse (aValidator.isValidContent (_bytes ("a,b\r1,2\r")));
+    assertFalse (aValidator.isValidContent (_bytes ("a,b\n1,\u00002\n")));
+    assertFalse (aValidator.isValidContent (new byte [] { (byte) 0x89, 'P', 'N', 'G', ',', 1, 2 }));
+  }
+
+  @Test
+  public void testLarge () throws IOException
+  {
+    final StringBuilder aSB = new StringBuilder ("id,name,description,amount\r\n");
+    for (int i = 0; i < 20000; ++i)
+      aSB.append (i)
+         .append (",Name ")
+         .append (i)
+         .append (",\"A longer, quoted \"\"description\"\" text\",")
+         .append (i * 17)
+         .append ("\r\n");
+    final byte [] aCSV = _bytes (aSB.toString ());
+
+    final FullParseContentValidatorCSV aValidator = new FullParseContentValidatorCSV ();
+    assertTrue (aValidator.isValidContent (aCSV));
+    assertTrue (aValidator.isValidContent (new ByteArrayInputStream (aCSV)));
+    // Truncated within a quoted field
+    final int nQuote = aSB.lastIndexOf ("\"\"description");
+    assertFalse (aValidator.isValidContent (aCSV, 0, nQuote));
+    // Truncated after a complete field
+    assertFalse (aValidator.isValidContent (aCSV, 0, aSB.lastIndexOf (",Name")));
+
+    // The leading bytes only cover the start
+    final LeadingBytesContentValidatorCSV aLeading = new LeadingBytesContentValidatorCSV ();
+    assertTrue (aLeading.isValidContent (aCSV));
+    assertTrue (aLeading.isValidContent (aCSV, 0, aSB.lastIndexOf (",Name")));
+  }
+
+  @Test
+  public void testLeadingBytes ()
+  {
+    final LeadingBytesContentValidatorCSV aValidator = new LeadingBytesContentValidatorCSV ();
+    assertTrue (aValidator.isValidContent (_bytes ("a,b\n1,2\n")));
+    assertTrue (aValidator.isValidContent (_bytes ("a,b")));
+    assertFalse (aValidator.isValidContent (_bytes ("a b")));
+    assertFalse (aValidator.isValidContent (_bytes ("a,b\n1,2,3\n")));
+    assertFalse (aValidator.isValidContent (_bytes ("%PDF-1.4\n%\u0001\u0002")));
+
+    // First line longer than the checked bytes
+    final StringBuilder aSB = new StringBuilder ();
+    while (aSB.length () < 2 * LeadingBytesContentValidatorCSV.LEADING_BYTE_COUNT)
+      aSB.append ("field,");
+    assertTrue (aValidator.isValidContent (_bytes (aSB.toString ())));
+  }
+}
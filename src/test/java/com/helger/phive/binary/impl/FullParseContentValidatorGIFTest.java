@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link FullParseContentValidatorGIF}.
+ *
+ * @author Philip Helger
+ */
+public final class FullParseContentValidatorGIFTest
+{
+  private static byte [] _createAnimated (final int nFrames)
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    // Header, logical screen descriptor 2x2 with a 2 entry global color table
+    aBAOS.writeBytes (new byte [] { 'G', 'I', 'F', '8', '9', 'a', 2, 0, 2, 0, (byte) 0x80, 0, 0 });
+    aBAOS.writeBytes (new byte [] { 0, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff });
+    // Application extension (NETSCAPE2.0 looping)
+    aBAOS.writeBytes (new byte [] { 0x21, (byte) 0xff, 11, 'N', 'E', 'T', 'S', 'C', 'A', 'P', 'E', '2', '.', '0' });
+    aBAOS.writeBytes (new byte [] { 3, 1, 0, 0, 0 });
+    for (int i = 0; i < nFrames; ++i)
+    {
+      // Graphic control extension
+      aBAOS.writeBytes (new byte [] { 0x21, (byte) 0xf9, 4, 0, 10, 0, 0, 0 });
+      // Image descriptor and image data
+      aBAOS.writeBytes (new byte [] { 0x2c, 0, 0, 0, 0, 2, 0, 2, 0, 0 });
+      aBAOS.writeBytes (new byte [] { 2, 2, 0x44, 0x01, 0 });
+    }
+    aBAOS.write (0x3b);
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testImageIO () throws IOException
+  {
+    final FullParseContentValidatorGIF aValidator = new FullParseContentValidatorGIF ();
+    assertEquals (FullParseContentValidatorGIF.UNLIMITED_FRAME_COUNT, aValidator.getMaxFrameCount ());
+
+    final BufferedImage aImage = new BufferedImage (100, 80, BufferedImage.TYPE_BYTE_INDEXED);
+    for (int y = 0; y < 80; ++y)
+      for (int x = 0; x < 100; ++x)
+        aImage.setRGB (x, y, x * y * 7919);
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    assertTrue (ImageIO.write (aImage, "gif", aBAOS));
+    final byte [] aGIF = aBAOS.toByteArray ();
+
+    assertTrue (aValidator.isValidContent (aGIF));
+    assertTrue (aValidator.isValidContent (new ByteArrayInputStream (aGIF)));
+    assertFalse (aValidator.isValidContent (aGIF, 0, aGIF.length - 1));
+    assertFalse (aValidator.isValidContent (aGIF, 0, aGIF.length / 2));
+
+    // Padding and other bytes after the trailer are ignored by default
+    final byte [] aPadded = Arrays.copyOf (aGIF, aGIF.length + 100);
+    assertTrue (aValidator.isValidContent (aPadded));
+    Arrays.fill (aPadded, aGIF.length, aPadded.length, (byte) 'x');
+    assertTrue (aValidator.isValidContent (aPadded));
+    assertTrue (aValidator.isValidContent (new ByteArrayInputStream (aPadded)));
+
+    // Strict mode
+    final FullParseContentValidatorGIF aStrict = new FullParseContentValidatorGIF (FullParseContentValidatorGIF.UNLIMITED_FRAME_COUNT,
+                                                                                   true);
+    assertTrue (aStrict.isValidContent (aGIF));
+    assertFalse (aStrict.isValidContent (aPadded));
+  }
+
+  @Test
+  public void testFrameCount ()
+  {
+    final byte [] aGIF = _createAnimated (5);
+    assertTrue (new FullParseContentValidatorGIF ().isValidContent (aGIF));
+    assertTrue (new FullParseContentValidatorGIF (5).isValidContent (aGIF));
+    assertFalse (new FullParseContentValidatorGIF (4).isValidContent (aGIF));
+    assertFalse (new FullParseContentValidatorGIF (1).isValidContent (aGIF));
+
+    // No frame at all
+    assertFalse (new FullParseContentValidatorGIF ().isValidContent (_createAnimated (0)));
+  }
+
+  @Test
+  public void testBroken ()
+  {
+    final FullParseContentValidatorGIF aValidator = new FullParseContentValidatorGIF ();
+    final byte [] aGIF = _createAnimated (2);
+
+    // Zero width
+    final byte [] aZeroWidth = aGIF.clone ();
+    aZeroWidth[6] = 0;
+    assertFalse (aValidator.isValidContent (aZeroWidth));
+
+    // Missing global color table
+    final byte [] aNoGCT = aGIF.clone ();
+    aNoGCT[10] = 0;
+    assertFalse (aValidator.isValidContent (aNoGCT));
+
+    // Wrong graphic control extension size
+    final byte [] aGCE = aGIF.clone ();
+    aGCE[19 + 19 + 2] = 5;
+    assertFalse (aValidator.isValidContent (aGCE));
+
+    // Missing trailer
+    assertFalse (aValidator.isValidContent (aGIF, 0, aGIF.length - 1));
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link FullParseContentValidatorJPG}.
+ *
+ * @author Philip Helger
+ */
+public final class FullParseContentValidatorJPGTest
+{
+  private static byte [] _createJPG () throws IOException
+  {
+    final BufferedImage aImage = new BufferedImage (320, 240, BufferedImage.TYPE_INT_RGB);
+    for (int y = 0; y < 240; ++y)
+      for (int x = 0; x < 320; ++x)
+        aImage.setRGB (x, y, x * y * 7919);
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    assertTrue (ImageIO.write (aImage, "jpg", aBAOS));
+    return aBAOS.toByteArray ();
+  }
+
+  private static int _indexOf (final byte [] aData, final int nMarker)
+  {
+    for (int i = 0; i < aData.length - 1; ++i)
+      if ((aData[i] & 0xff) == 0xff && (aData[i + 1] & 0xff) == nMarker)
+        return i;
+    return -1;
+  }
+
+  @Test
+  public void testBasic () throws IOException
+  {
+    final FullParseContentValidatorJPG aValidator = new FullParseContentValidatorJPG ();
+    final byte [] aJPG = _createJPG ();
+    assertTrue (aValidator.isValidContent (aJPG));
+    assertTrue (aValidator.isValidContent (new ByteArrayInputStream (aJPG)));
+
+    // Truncated
+    assertFalse (aValidator.isValidContent (aJPG, 0, aJPG.length - 2));
+    assertFalse (aValidator.isValidContent (aJPG, 0, aJPG.length / 2));
+    assertFalse (aValidator.isValidContent (new byte [] { (byte) 0xff, (byte) 0xd8 }));
+
+    // Zero padding and trailer data after EOI are ignored by default
+    final byte [] aPadded = new byte [aJPG.length + 100];
+    System.arraycopy (aJPG, 0, aPadded, 0, aJPG.length);
+    assertTrue (aValidator.isValidContent (aPadded));
+    final byte [] aTrailer = aPadded.clone ();
+    for (int i = aJPG.length; i < aTrailer.length; ++i)
+      aTrailer[i] = (byte) i;
+    assertTrue (aValidator.isValidContent (aTrailer));
+    assertTrue (aValidator.isValidContent (new ByteArrayInputStream (aTrailer)));
+
+    // Strict mode
+    final FullParseContentValidatorJPG aStrict = new FullParseContentValidatorJPG (true);
+    assertTrue (aStrict.isValidContent (aJPG));
+    assertFalse (aStrict.isValidContent (aPadded));
+    assertFalse (aStrict.isValidContent (aTrailer));
+  }
+
+  @Test
+  public void testBrokenSegments () throws IOException
+  {
+    final FullParseContentValidatorJPG aValidator = new FullParseContentValidatorJPG ();
+    final byte [] aJPG = _createJPG ();
+
+    // Broken frame header length
+    final byte [] aSOF = aJPG.clone ();
+    final int nSOF = _indexOf (aSOF, 0xc0);
+    assertTrue (nSOF > 0);
+    aSOF[nSOF + 3]++;
+    assertFalse (aValidator.isValidContent (aSOF));
+
+    // Scan without frame
+    final byte [] aNoFrame = aJPG.clone ();
+    aNoFrame[nSOF + 1] = (byte) 0xe5;
+    assertFalse (aValidator.isValidContent (aNoFrame));
+
+    // Broken quantization table length
+    final byte [] aDQT = aJPG.clone ();
+    final int nDQT = _indexOf (aDQT, 0xdb);
+    assertTrue (nDQT > 0);
+    aDQT[nDQT + 3] += 5;
+    assertFalse (aValidator.isValidContent (aDQT));
+  }
+}
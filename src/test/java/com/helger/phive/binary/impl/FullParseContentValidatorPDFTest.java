@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link FullParseContentValidatorPDF}.
+ *
+ * @author Philip Helger
+ */
+public final class FullParseContentValidatorPDFTest
+{
+  private static final String [] OBJECTS = { "<< /Type /Catalog /Pages 2 0 R >>",
+                                             "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+                                             "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] >>" };
+
+  private static void _append (final ByteArrayOutputStream aBAOS, final String s)
+  {
+    aBAOS.writeBytes (s.getBytes (StandardCharsets.ISO_8859_1));
+  }
+
+  private static int [] _appendObjects (final ByteArrayOutputStream aBAOS)
+  {
+    final int [] ret = new int [OBJECTS.length];
+    for (int i = 0; i < OBJECTS.length; ++i)
+    {
+      ret[i] = aBAOS.size ();
+      _append (aBAOS, (i + 1) + " 0 obj\n" + OBJECTS[i] + "\nendobj\n");
+    }
+    return ret;
+  }
+
+  private static String _xrefTable (final int [] aOffsets)
+  {
+    final StringBuilder aSB = new StringBuilder ("xref\n0 " + (aOffsets.length + 1) + "\n0000000000 65535 f\r\n");
+    for (final int nOffset : aOffsets)
+      aSB.append (String.format ("%010d 00000 n\r\n", Integer.valueOf (nOffset)));
+    return aSB.toString ();
+  }
+
+  private static byte [] _createClassic ()
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    _append (aBAOS, "%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+    final int [] aOffsets = _appendObjects (aBAOS);
+    final int nXRef = aBAOS.size ();
+    _append (aBAOS, _xrefTable (aOffsets));
+    _append (aBAOS, "trailer\n<< /Size 4 /Root 1 0 R /ID [<AB12> <ab12>] /Info (a (nested) \\) string) >>\n");
+    _append (aBAOS, "startxref\n" + nXRef + "\n%%EOF\n");
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testClassic ()
+  {
+    final FullParseContentValidatorPDF aValidator = new FullParseContentValidatorPDF ();
+    final byte [] aPDF = _createClassic ();
+    assertTrue (aValidator.isValidContent (aPDF));
+    assertTrue (aValidator.isValidContent (ByteBuffer.wrap (aPDF)));
+
+    // Truncated
+    assertFalse (aValidator.isValidContent (new byte [0]));
+    assertFalse (aValidator.isValidContent (aPDF, 0, aPDF.length - 10));
+    assertFalse (aValidator.isValidContent (aPDF, 0, aPDF.length / 2));
+
+    // Not a PDF
+    final byte [] aNoPDF = aPDF.clone ();
+    aNoPDF[1] = 'X';
+    assertFalse (aValidator.isValidContent (aNoPDF));
+  }
+
+  @Test
+  public void testWrongOffsets () throws Exception
+  {
+    final FullParseContentValidatorPDF aValidator = new FullParseContentValidatorPDF ();
+    final String sPDF = new String (_createClassic (), StandardCharsets.ISO_8859_1);
+
+    // Wrong startxref
+    final int nStartXRef = sPDF.lastIndexOf ("startxref\n") + 10;
+    final String sWrongStart = sPDF.substring (0, nStartXRef) + "1" + sPDF.substring (nStartXRef);
+    assertFalse (aValidator.isValidContent (sWrongStart.getBytes (StandardCharsets.ISO_8859_1)));
+
+    // Wrong object number
+    final String sWrongNum = sPDF.replace ("2 0 obj", "12 0 obj");
+    assertFalse (aValidator.isValidContent (sWrongNum.getBytes (StandardCharsets.ISO_8859_1)));
+
+    // Trailer without size
+    final String sNoSize = sPDF.replace ("/Size 4", "/Sise 4");
+    assertFalse (aValidator.isValidContent (sNoSize.getBytes (StandardCharsets.ISO_8859_1)));
+
+    // Via InputStream
+    assertTrue (aValidator.isValidContent (new ByteArrayInputStream (_createClassic ())));
+  }
+
+  @Test
+  public void testIncrementalUpdate ()
+  {
+    final FullParseContentValidatorPDF aValidator = new FullParseContentValidatorPDF ();
+    final byte [] aBase = _createClassic ();
+    final String sBase = new String (aBase, StandardCharsets.ISO_8859_1);
+    final int nPrev = Integer.parseInt (sBase.substring (sBase.lastIndexOf ("startxref\n") + 10, sBase.lastIndexOf ("\n%%EOF")));
+
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    aBAOS.writeBytes (aBase);
+    final int nObj = aBAOS.size ();
+    _append (aBAOS, "3 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] >>\nendobj\n");
+    final int nXRef = aBAOS.size ();
+    _append (aBAOS, "xref\n0 1\n0000000000 65535 f\r\n3 1\n" + String.format ("%010d 00000 n\r\n", Integer.valueOf (nObj)));
+    _append (aBAOS, "trailer\n<< /Size 4 /Root 1 0 R /Prev " + nPrev + " >>\nstartxref\n" + nXRef + "\n%%EOF\n");
+    assertTrue (aValidator.isValidContent (aBAOS.toByteArray ()));
+
+    // Self referencing /Prev
+    final ByteArrayOutputStream aCycle = new ByteArrayOutputStream ();
+    aCycle.writeBytes (aBase);
+    final int nXRef2 = aCycle.size ();
+    _append (aCycle, "xref\n0 1\n0000000000 65535 f\r\ntrailer\n<< /Size 4 /Prev " + nXRef2 + " >>\n");
+    _append (aCycle, "startxref\n" + nXRef2 + "\n%%EOF\n");
+    assertFalse (aValidator.isValidContent (aCycle.toByteArray ()));
+  }
+
+  @Test
+  public void testXRefStream ()
+  {
+    final FullParseContentValidatorPDF aValidator = new FullParseContentValidatorPDF ();
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    _append (aBAOS, "%PDF-1.5\n");
+    _appendObjects (aBAOS);
+    final int nXRef = aBAOS.size ();
+    _append (aBAOS, "4 0 obj\n<< /Type /XRef /Size 5 /W [1 2 1] /Root 1 0 R /Length 20 >>\nstream\n");
+    aBAOS.writeBytes (new byte [20]);
+    _append (aBAOS, "\nendstream\nendobj\nstartxref\n" + nXRef + "\n%%EOF");
+    final byte [] aPDF = aBAOS.toByteArray ();
+    assertTrue (aValidator.isValidContent (aPDF));
+
+    // Stream length exceeding the file
+    final String sTooLong = new String (aPDF, StandardCharsets.ISO_8859_1).replace ("/Length 20", "/Length 900");
+    assertFalse (aValidator.isValidContent (sTooLong.getBytes (StandardCharsets.ISO_8859_1)));
+
+    // Not an XRef stream
+    final String sNoXRef = new String (aPDF, StandardCharsets.ISO_8859_1).replace ("/Type /XRef", "/Type /XObj");
+    assertFalse (aValidator.isValidContent (sNoXRef.getBytes (StandardCharsets.ISO_8859_1)));
+  }
+
+  @Test
+  public void testManyIncrementalUpdates ()
+  {
+    final FullParseContentValidatorPDF aValidator = new FullParseContentValidatorPDF ();
+    final byte [] aBase = _createClassic ();
+    final String sBase = new String (aBase, StandardCharsets.ISO_8859_1);
+    int nPrev = Integer.parseInt (sBase.substring (sBase.lastIndexOf ("startxref\n") + 10, sBase.lastIndexOf ("\n%%EOF")));
+
+    // More sections than the initial capacity of the visited sections
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    aBAOS.writeBytes (aBase);
+    for (int i = 0; i < 50; ++i)
+    {
+      final int nObj = aBAOS.size ();
+      _append (aBAOS, "3 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] >>\nendobj\n");
+      final int nXRef = aBAOS.size ();
+      _append (aBAOS, "xref\n3 1\n" + String.format ("%010d 00000 n\r\n", Integer.valueOf (nObj)));
+      _append (aBAOS, "trailer\n<< /Size 4 /Root 1 0 R /Prev " + nPrev + " >>\nstartxref\n" + nXRef + "\n%%EOF\n");
+      nPrev = nXRef;
+    }
+    assertTrue (aValidator.isValidContent (aBAOS.toByteArray ()));
+  }
+
+  @Test
+  public void testLargeStream () throws IOException
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    _append (aBAOS, "%PDF-1.4\n");
+    // Larger than the in-memory limit for streams
+    final byte [] aComment = new byte [1024];
+    Arrays.fill (aComment, (byte) 'x');
+    aComment[0] = '%';
+    aComment[aComment.length - 1] = '\n';
+    for (int i = 0; i < 9 * 1024; ++i)
+      aBAOS.writeBytes (aComment);
+    final int [] aOffsets = _appendObjects (aBAOS);
+    final int nXRef = aBAOS.size ();
+    _append (aBAOS, _xrefTable (aOffsets));
+    _append (aBAOS, "trailer\n<< /Size 4 /Root 1 0 R >>\nstartxref\n" + nXRef + "\n%%EOF\n");
+    final byte [] aPDF = aBAOS.toByteArray ();
+
+    // By default, large streams are not written to a temporary file
+    try
+    {
+      new FullParseContentValidatorPDF ().isValidContent (new ByteArrayInputStream (aPDF));
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+    assertTrue (new FullParseContentValidatorPDF ().isValidContent (aPDF));
+
+    // Opt-in for temporary files
+    final FullParseContentValidatorPDF aValidator = new FullParseContentValidatorPDF (aPDF.length);
+    assertTrue (aValidator.isValidContent (new ByteArrayInputStream (aPDF)));
+    try
+    {
+      new FullParseContentValidatorPDF (aPDF.length - 1).isValidContent (new ByteArrayInputStream (aPDF));
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+    aPDF[nXRef] = 'X';
+    assertFalse (aValidator.isValidContent (new ByteArrayInputStream (aPDF)));
+  }
+}
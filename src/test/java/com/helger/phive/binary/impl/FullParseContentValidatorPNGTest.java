@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link FullParseContentValidatorPNG}.
+ *
+ * @author Philip Helger
+ */
+public final class FullParseContentValidatorPNGTest
+{
+  private static final byte [] SIGNATURE = { (byte) 0x89, 0x50, 0x4e, 0x47, 0x0d, 0x0a, 0x1a, 0x0a };
+  private static final byte [] IHDR = { 0, 0, 0, 1, 0, 0, 0, 1, 8, 0, 0, 0, 0 };
+
+  private static void _chunk (final ByteArrayOutputStream aBAOS, final String sType, final byte [] aData)
+  {
+    final byte [] aType = sType.getBytes (StandardCharsets.US_ASCII);
+    final CRC32 aCRC = new CRC32 ();
+    aCRC.update (aType);
+    aCRC.update (aData);
+    aBAOS.writeBytes (ByteBuffer.allocate (4).putInt (aData.length).array ());
+    aBAOS.writeBytes (aType);
+    aBAOS.writeBytes (aData);
+    aBAOS.writeBytes (ByteBuffer.allocate (4).putInt ((int) aCRC.getValue ()).array ());
+  }
+
+  private static byte [] _create (final String... aTypes)
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    aBAOS.writeBytes (SIGNATURE);
+    for (final String sType : aTypes)
+      _chunk (aBAOS,
+              sType,
+              sType.equals ("IHDR") ? IHDR : sType.equals ("IEND") ? new byte [0] : new byte [] { 1, 2, 3 });
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testImageIO () throws IOException
+  {
+    final FullParseContentValidatorPNG aValidator = new FullParseContentValidatorPNG ();
+    final BufferedImage aImage = new BufferedImage (300, 200, BufferedImage.TYPE_INT_ARGB);
+    for (int y = 0; y < 200; ++y)
+      for (int x = 0; x < 300; ++x)
+        aImage.setRGB (x, y, x * y * 7919);
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    assertTrue (ImageIO.write (aImage, "png", aBAOS));
+    final byte [] aPNG = aBAOS.toByteArray ();
+
+    assertTrue (aValidator.isValidContent (aPNG));
+    assertTrue (aValidator.isValidContent (new ByteArrayInputStream (aPNG)));
+
+    // Truncated
+    assertFalse (aValidator.isValidContent (aPNG, 0, aPNG.length - 1));
+    assertFalse (aValidator.isValidContent (new ByteArrayInputStream (aPNG, 0, aPNG.length / 2)));
+
+    // Corrupt pixel data
+    final byte [] aCorrupt = aPNG.clone ();
+    aCorrupt[aCorrupt.length / 2] ^= 0x40;
+    assertFalse (aValidator.isValidContent (aCorrupt));
+    assertFalse (aValidator.isValidContent (new ByteArrayInputStream (aCorrupt)));
+  }
+
+  @Test
+  public void testChunkOrder ()
+  {
+    final FullParseContentValidatorPNG aValidator = new FullParseContentValidatorPNG ();
+    assertTrue (aValidator.isValidContent (_create ("IHDR", "IDAT", "IEND")));
+    assertTrue (aValidator.isValidContent (_create ("IHDR", "tEXt", "IDAT", "IDAT", "tIME", "IEND")));
+
+    assertFalse (aValidator.isValidContent (_create ("IDAT", "IHDR", "IEND")));
+    assertFalse (aValidator.isValidContent (_create ("IHDR", "IEND")));
+    assertFalse (aValidator.isValidContent (_create ("IHDR", "IDAT", "tEXt", "IDAT", "IEND")));
+    assertFalse (aValidator.isValidContent (_create ("IHDR", "IDAT", "IEND", "tEXt")));
+    assertFalse (aValidator.isValidContent (_create ("IHDR", "IDAT", "ABCD", "IEND")));
+    assertFalse (aValidator.isValidContent (_create ("IHDR", "IDAT")));
+    assertFalse (aValidator.isValidContent (new byte [0]));
+  }
+}
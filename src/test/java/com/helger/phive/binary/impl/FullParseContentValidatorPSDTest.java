@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link FullParseContentValidatorPSD}.
+ *
+ * @author Philip Helger
+ */
+public final class FullParseContentValidatorPSDTest
+{
+  private static final int WIDTH = 4;
+  private static final int HEIGHT = 3;
+  private static final int CHANNELS = 3;
+
+  private static ByteBuffer _createPSD (final boolean bPSB, final int nCompression)
+  {
+    final int nImageDataLen = nCompression == 0 ? CHANNELS * HEIGHT * WIDTH : 64;
+    final ByteBuffer ret = ByteBuffer.allocate (26 + 4 + 4 + 16 + (bPSB ? 8 : 4) + 8 + 2 + nImageDataLen);
+    ret.put (new byte [] { '8', 'B', 'P', 'S' }).putShort ((short) (bPSB ? 2 : 1)).put (new byte [6]);
+    ret.putShort ((short) CHANNELS).putInt (HEIGHT).putInt (WIDTH).putShort ((short) 8).putShort ((short) 3);
+    // No color mode data
+    ret.putInt (0);
+    // One image resource block
+    ret.putInt (16).put (new byte [] { '8', 'B', 'I', 'M' }).putShort ((short) 0x0409).putShort ((short) 0).putInt (4).putInt (0);
+    // Layer and mask information
+    if (bPSB)
+      ret.putLong (8);
+    else
+      ret.putInt (8);
+    ret.putLong (0);
+    ret.putShort ((short) nCompression);
+    return ret;
+  }
+
+  @Test
+  public void testBasic () throws IOException
+  {
+    final FullParseContentValidatorPSD aValidator = new FullParseContentValidatorPSD ();
+    for (final boolean bPSB : new boolean [] { false, true })
+      for (int nCompression = 0; nCompression <= 3; ++nCompression)
+      {
+        final byte [] aPSD = _createPSD (bPSB, nCompression).array ();
+        assertTrue (aValidator.isValidContent (aPSD));
+        assertTrue (aValidator.isValidContent (new ByteArrayInputStream (aPSD)));
+        // Truncated image data
+        assertFalse (aValidator.isValidContent (aPSD, 0, nCompression == 0 ? aPSD.length - 1 : aPSD.length - 64));
+      }
+  }
+
+  @Test
+  public void testHeader ()
+  {
+    final FullParseContentValidatorPSD aValidator = new FullParseContentValidatorPSD ();
+    // Version
+    assertFalse (aValidator.isValidContent (_createPSD (false, 0).putShort (4, (short) 3).array ()));
+    // Reserved
+    assertFalse (aValidator.isValidContent (_createPSD (false, 0).put (8, (byte) 1).array ()));
+    // Channels
+    assertFalse (aValidator.isValidContent (_createPSD (false, 0).putShort (12, (short) 0).array ()));
+    assertFalse (aValidator.isValidContent (_createPSD (false, 0).putShort (12, (short) 57).array ()));
+    // Dimensions - PSB allows more than PSD
+    assertFalse (aValidator.isValidContent (_createPSD (false, 1).putInt (18, 30001).array ()));
+    assertFalse (aValidator.isValidContent (_createPSD (true, 1).putInt (18, 300001).array ()));
+    // Depth
+    assertFalse (aValidator.isValidContent (_createPSD (false, 0).putShort (22, (short) 7).array ()));
+    // Color mode
+    assertFalse (aValidator.isValidContent (_createPSD (false, 0).putShort (24, (short) 5).array ()));
+    // Indexed without color data
+    assertFalse (aValidator.isValidContent (_createPSD (false, 0).putShort (24, (short) 2).array ()));
+  }
+
+  @Test
+  public void testSections ()
+  {
+    final FullParseContentValidatorPSD aValidator = new FullParseContentValidatorPSD ();
+    // Wrong image resources length
+    assertFalse (aValidator.isValidContent (_createPSD (false, 0).putInt (30, 10).array ()));
+    // Image resources without signature
+    assertFalse (aValidator.isValidContent (_createPSD (false, 0).put (34, (byte) 'X').array ()));
+    // Layer and mask information exceeding the file
+    assertFalse (aValidator.isValidContent (_createPSD (false, 0).putInt (50, 1000).array ()));
+    assertFalse (aValidator.isValidContent (_createPSD (true, 0).putLong (50, Long.MAX_VALUE).array ()));
+    // Unknown compression
+    assertFalse (aValidator.isValidContent (_createPSD (false, 2).putShort (62, (short) 4).array ()));
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link FullParseContentValidatorTIFF}.
+ *
+ * @author Philip Helger
+ */
+public final class FullParseContentValidatorTIFFTest
+{
+  private static final int DATA_SIZE = 16;
+  private static final int CLASSIC_IFD_SIZE = 2 + 4 * 12 + 4;
+  private static final int BIG_IFD_SIZE = 8 + 4 * 20 + 8;
+
+  /**
+   * Create a classic TIFF with the provided number of pages. Each page consists of 16 bytes strip
+   * data followed by its IFD.
+   */
+  private static ByteBuffer _createClassic (final int nPages, final ByteOrder aOrder)
+  {
+    final int nPageSize = DATA_SIZE + CLASSIC_IFD_SIZE;
+    final ByteBuffer ret = ByteBuffer.allocate (8 + nPages * nPageSize).order (aOrder);
+    ret.put (aOrder == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M');
+    ret.put (ret.get (0));
+    ret.putShort ((short) 42);
+    ret.putInt (8 + DATA_SIZE);
+    for (int i = 0; i < nPages; ++i)
+    {
+      final int nDataPos = 8 + i * nPageSize;
+      ret.position (nDataPos + DATA_SIZE);
+      ret.putShort ((short) 4);
+      ret.putShort ((short) 256).putShort ((short) 3).putInt (1).putShort ((short) 4).putShort ((short) 0);
+      ret.putShort ((short) 257).putShort ((short) 3).putInt (1).putShort ((short) 4).putShort ((short) 0);
+      ret.putShort ((short) 273).putShort ((short) 4).putInt (1).putInt (nDataPos);
+      ret.putShort ((short) 279).putShort ((short) 4).putInt (1).putInt (DATA_SIZE);
+      ret.putInt (i == nPages - 1 ? 0 : nDataPos + nPageSize + DATA_SIZE);
+    }
+    return ret;
+  }
+
+  private static ByteBuffer _createBigTIFF ()
+  {
+    final ByteBuffer ret = ByteBuffer.allocate (16 + DATA_SIZE + BIG_IFD_SIZE).order (ByteOrder.BIG_ENDIAN);
+    ret.put ((byte) 'M').put ((byte) 'M').putShort ((short) 43).putShort ((short) 8).putShort ((short) 0);
+    ret.putLong (16 + DATA_SIZE);
+    ret.position (16 + DATA_SIZE);
+    ret.putLong (4);
+    ret.putShort ((short) 256).putShort ((short) 4).putLong (1).putInt (4).putInt (0);
+    ret.putShort ((short) 257).putShort ((short) 4).putLong (1).putInt (4).putInt (0);
+    ret.putShort ((short) 273).putShort ((short) 16).putLong (1).putLong (16);
+    ret.putShort ((short) 279).putShort ((short) 16).putLong (1).putLong (DATA_SIZE);
+    ret.putLong (0);
+    return ret;
+  }
+
+  @Test
+  public void testImageIO () throws IOException
+  {
+    final FullParseContentValidatorTIFF aValidator = new FullParseContentValidatorTIFF ();
+    final BufferedImage aImage = new BufferedImage (64, 48, BufferedImage.TYPE_INT_RGB);
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    assertTrue (ImageIO.write (aImage, "tiff", aBAOS));
+    final byte [] aTIFF = aBAOS.toByteArray ();
+
+    assertTrue (aValidator.isValidContent (aTIFF));
+    assertFalse (aValidator.isValidContent (aTIFF, 0, aTIFF.length / 2));
+  }
+
+  @Test
+  public void testClassic ()
+  {
+    final FullParseContentValidatorTIFF aValidator = new FullParseContentValidatorTIFF ();
+    for (final ByteOrder aOrder : new ByteOrder [] { ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN })
+    {
+      assertTrue (aValidator.isValidContent (_createClassic (1, aOrder).array ()));
+      assertTrue (aValidator.isValidContent (_createClassic (5, aOrder).rewind ()));
+
+      // Cycle from the last page to the first page
+      final ByteBuffer aCycle = _createClassic (3, aOrder);
+      aCycle.putInt (aCycle.capacity () - 4, 8 + DATA_SIZE);
+      assertFalse (aValidator.isValidContent (aCycle.array ()));
+
+      // Strip outside of the file
+      final ByteBuffer aStrip = _createClassic (2, aOrder);
+      aStrip.putInt (8 + DATA_SIZE + 2 + 3 * 12 + 8, 100000);
+      assertFalse (aValidator.isValidContent (aStrip.array ()));
+
+      // IFD outside of the file
+      final ByteBuffer aIFD = _createClassic (1, aOrder);
+      aIFD.putInt (4, 100000);
+      assertFalse (aValidator.isValidContent (aIFD.array ()));
+
+      // Missing image width
+      final ByteBuffer aNoWidth = _createClassic (1, aOrder);
+      aNoWidth.putShort (8 + DATA_SIZE + 2, (short) 255);
+      assertFalse (aValidator.isValidContent (aNoWidth.array ()));
+    }
+
+    // Wrong magic
+    final ByteBuffer aMagic = _createClassic (1, ByteOrder.LITTLE_ENDIAN);
+    aMagic.putShort (2, (short) 41);
+    assertFalse (aValidator.isValidContent (aMagic.array ()));
+    assertFalse (aValidator.isValidContent (new byte [] { 'I', 'I' }));
+  }
+
+  @Test
+  public void testBigTIFF ()
+  {
+    final FullParseContentValidatorTIFF aValidator = new FullParseContentValidatorTIFF ();
+    final ByteBuffer aBigTIFF = _createBigTIFF ();
+    assertTrue (aValidator.isValidContent (aBigTIFF.array ()));
+
+    // Invalid offset size
+    final ByteBuffer aOffsetSize = _createBigTIFF ();
+    aOffsetSize.putShort (4, (short) 4);
+    assertFalse (aValidator.isValidContent (aOffsetSize.array ()));
+
+    // Byte count exceeding the file
+    final ByteBuffer aByteCount = _createBigTIFF ();
+    aByteCount.putLong (16 + DATA_SIZE + 8 + 3 * 20 + 12, Long.MAX_VALUE);
+    assertFalse (aValidator.isValidContent (aByteCount.array ()));
+  }
+}
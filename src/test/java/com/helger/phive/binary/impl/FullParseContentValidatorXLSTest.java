@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link FullParseContentValidatorXLS}.
+ *
+ * @author Philip Helger
+ */
+public final class FullParseContentValidatorXLSTest
+{
+  private static final int SECTOR_SIZE = 512;
+  private static final int FREE = 0xffffffff;
+  private static final int END_OF_CHAIN = 0xfffffffe;
+  private static final int FAT_SECTOR = 0xfffffffd;
+  private static final int WORKBOOK_SIZE = 4200;
+  private static final int WORKBOOK_SECTORS = (WORKBOOK_SIZE + SECTOR_SIZE - 1) / SECTOR_SIZE;
+
+  private static void _putEntry (final ByteBuffer aBB,
+                                 final int nIndex,
+                                 final String sName,
+                                 final int nType,
+                                 final int nChild,
+                                 final int nStartSector,
+                                 final int nSize)
+  {
+    final int nPos = 2 * SECTOR_SIZE + nIndex * 128;
+    for (int i = 0; i < sName.length (); ++i)
+      aBB.putShort (nPos + i * 2, (short) sName.charAt (i));
+    aBB.putShort (nPos + 64, (short) ((sName.length () + 1) * 2));
+    aBB.put (nPos + 66, (byte) nType);
+    aBB.putInt (nPos + 68, FREE);
+    aBB.putInt (nPos + 72, FREE);
+    aBB.putInt (nPos + 76, nChild);
+    aBB.putInt (nPos + 116, nStartSector);
+    aBB.putInt (nPos + 120, nSize);
+  }
+
+  /**
+   * Create a version 3 compound file with a FAT sector, a directory sector and the workbook stream.
+   */
+  private static ByteBuffer _createXLS (final String sStreamName)
+  {
+    final ByteBuffer ret = ByteBuffer.allocate ((3 + WORKBOOK_SECTORS) * SECTOR_SIZE).order (ByteOrder.LITTLE_ENDIAN);
+    ret.put (new byte [] { (byte) 0xd0, (byte) 0xcf, 0x11, (byte) 0xe0, (byte) 0xa1, (byte) 0xb1, 0x1a, (byte) 0xe1 });
+    ret.putShort (0x18, (short) 0x3e);
+    ret.putShort (0x1a, (short) 3);
+    ret.putShort (0x1c, (short) 0xfffe);
+    ret.putShort (0x1e, (short) 9);
+    ret.putShort (0x20, (short) 6);
+    // One FAT sector, directory in sector 1
+    ret.putInt (0x2c, 1);
+    ret.putInt (0x30, 1);
+    ret.putInt (0x38, 4096);
+    ret.putInt (0x3c, END_OF_CHAIN);
+    ret.putInt (0x44, END_OF_CHAIN);
+    for (int i = 0; i < 109; ++i)
+      ret.putInt (0x4c + i * 4, i == 0 ? 0 : FREE);
+
+    // FAT in sector 0
+    final int nFATPos = SECTOR_SIZE;
+    for (int i = 0; i < SECTOR_SIZE / 4; ++i)
+      ret.putInt (nFATPos + i * 4, FREE);
+    ret.putInt (nFATPos, FAT_SECTOR);
+    ret.putInt (nFATPos + 4, END_OF_CHAIN);
+    for (int i = 0; i < WORKBOOK_SECTORS; ++i)
+      ret.putInt (nFATPos + (2 + i) * 4, i == WORKBOOK_SECTORS - 1 ? END_OF_CHAIN : 3 + i);
+
+    // Directory in sector 1
+    _putEntry (ret, 0, "Root Entry", 5, 1, END_OF_CHAIN, 0);
+    _putEntry (ret, 1, sStreamName, 2, FREE, 2, WORKBOOK_SIZE);
+    _putEntry (ret, 2, "", 0, FREE, 0, 0);
+    _putEntry (ret, 3, "", 0, FREE, 0, 0);
+
+    // BIFF8 BOF record at the start of the workbook stream
+    ret.putShort (3 * SECTOR_SIZE, (short) 0x0809);
+    return ret;
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final FullParseContentValidatorXLS aValidator = new FullParseContentValidatorXLS ();
+    final byte [] aXLS = _createXLS ("Workbook").array ();
+    assertTrue (aValidator.isValidContent (aXLS));
+    assertTrue (aValidator.isValidContent (_createXLS ("Book").array ()));
+    assertTrue (aValidator.isValidContent (_createXLS ("WORKBOOK").array ()));
+
+    // Truncated
+    assertFalse (aValidator.isValidContent (aXLS, 0, aXLS.length - SECTOR_SIZE));
+    assertFalse (aValidator.isValidContent (aXLS, 0, 1024));
+
+    // Word document
+    assertFalse (aValidator.isValidContent (_createXLS ("WordDocument").array ()));
+  }
+
+  @Test
+  public void testStructure ()
+  {
+    final FullParseContentValidatorXLS aValidator = new FullParseContentValidatorXLS ();
+
+    // Workbook only inside an embedded storage
+    final ByteBuffer aEmbedded = _createXLS ("Workbook");
+    _putEntry (aEmbedded, 2, "ObjectPool", 1, 1, 0, 0);
+    _putEntry (aEmbedded, 0, "Root Entry", 5, 2, END_OF_CHAIN, 0);
+    assertFalse (aValidator.isValidContent (aEmbedded.array ()));
+
+    // Sibling cycle
+    final ByteBuffer aSiblingCycle = _createXLS ("WordDocument");
+    aSiblingCycle.putInt (2 * SECTOR_SIZE + 128 + 72, 1);
+    assertFalse (aValidator.isValidContent (aSiblingCycle.array ()));
+
+    // FAT chain cycle
+    final ByteBuffer aFATCycle = _createXLS ("Workbook");
+    aFATCycle.putInt (SECTOR_SIZE + 4 * 4, 2);
+    assertFalse (aValidator.isValidContent (aFATCycle.array ()));
+
+    // Chain shorter than the stream size
+    final ByteBuffer aShort = _createXLS ("Workbook");
+    aShort.putInt (2 * SECTOR_SIZE + 128 + 120, WORKBOOK_SIZE + SECTOR_SIZE);
+    assertFalse (aValidator.isValidContent (aShort.array ()));
+
+    // No BOF record
+    final ByteBuffer aNoBOF = _createXLS ("Workbook");
+    aNoBOF.putShort (3 * SECTOR_SIZE, (short) 0x1234);
+    assertFalse (aValidator.isValidContent (aNoBOF.array ()));
+
+    // Wrong sector size
+    final ByteBuffer aSectorSize = _createXLS ("Workbook");
+    aSectorSize.putShort (0x1e, (short) 12);
+    assertFalse (aValidator.isValidContent (aSectorSize.array ()));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link FullParseContentValidatorXLSX}.
+ *
+ * @author Philip Helger
+ */
+public final class FullParseContentValidatorXLSXTest
+{
+  private static byte [] _createZip (final String sComment, final int nPadding, final String... aEntries) throws IOException
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    try (final ZipOutputStream aZOS = new ZipOutputStream (aBAOS))
+    {
+      if (sComment != null)
+        aZOS.setComment (sComment);
+      for (final String sEntry : aEntries)
+      {
+        aZOS.putNextEntry (new ZipEntry (sEntry));
+        aZOS.write (("<content of " + sEntry + "/>").getBytes (StandardCharsets.UTF_8));
+        aZOS.closeEntry ();
+      }
+      for (int i = 0; i < nPadding; ++i)
+      {
+        aZOS.putNextEntry (new ZipEntry ("xl/media/e" + i));
+        aZOS.closeEntry ();
+      }
+    }
+    return aBAOS.toByteArray ();
+  }
+
+  @Test
+  public void testBasic () throws IOException
+  {
+    final FullParseContentValidatorXLSX aValidator = new FullParseContentValidatorXLSX ();
+    final byte [] aXLSX = _createZip (null,
+                                      0,
+                                      "[Content_Types].xml",
+                                      "_rels/.rels",
+                                      "xl/workbook.xml",
+                                      "xl/worksheets/sheet1.xml");
+    assertTrue (aValidator.isValidContent (aXLSX));
+    assertTrue (aValidator.isValidContent (_createZip ("a comment", 0, "xl/workbook.xml", "[Content_Types].xml")));
+
+    // Truncated
+    assertFalse (aValidator.isValidContent (aXLSX, 0, aXLSX.length - 1));
+    assertFalse (aValidator.isValidContent (aXLSX, 0, aXLSX.length / 2));
+
+    // Broken central directory offset
+    final byte [] aBroken = aXLSX.clone ();
+    aBroken[aBroken.length - 6]++;
+    assertFalse (aValidator.isValidContent (aBroken));
+  }
+
+  @Test
+  public void testOtherPackages () throws IOException
+  {
+    final FullParseContentValidatorXLSX aValidator = new FullParseContentValidatorXLSX ();
+    // DOCX
+    assertFalse (aValidator.isValidContent (_createZip (null, 0, "[Content_Types].xml", "word/document.xml")));
+    // JAR
+    assertFalse (aValidator.isValidContent (_createZip (null, 0, "META-INF/MANIFEST.MF", "a/B.class")));
+    // No content types
+    assertFalse (aValidator.isValidContent (_createZip (null, 0, "xl/workbook.xml")));
+  }
+
+  @Test
+  public void testZip64 () throws IOException
+  {
+    // More than 65535 entries force the ZIP64 End Of Central Directory record
+    final byte [] aXLSX = _createZip (null, 0x10000, "[Content_Types].xml", "xl/workbook.xml");
+    assertTrue (new FullParseContentValidatorXLSX ().isValidContent (aXLSX));
+  }
+}
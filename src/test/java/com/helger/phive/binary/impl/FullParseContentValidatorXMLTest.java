@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * Test class for class {@link FullParseContentValidatorXML}.
+ *
+ * @author Philip Helger
+ */
+public final class FullParseContentValidatorXMLTest
+{
+  private static byte [] _utf8 (final String s)
+  {
+    return s.getBytes (StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testWellFormed () throws IOException
+  {
+    final FullParseContentValidatorXML aValidator = new FullParseContentValidatorXML ();
+    final byte [] aXML = _utf8 ("<?xml version=\"1.0\"?>\n<root xmlns=\"urn:test\"><a b=\"c\">text &amp; more</a><!-- x --></root>");
+    assertTrue (aValidator.isValidContent (aXML));
+    // Reuse of the pooled parser
+    assertTrue (aValidator.isValidContent (aXML));
+    assertTrue (aValidator.isValidContent (_utf8 ("<root/>")));
+    assertTrue (aValidator.isValidContent ("\ufeff<?xml version=\"1.0\" encoding=\"UTF-16\"?><r>\u00e4</r>".getBytes (StandardCharsets.UTF_16LE)));
+
+    final ByteArrayInputStream aIS = new ByteArrayInputStream (aXML);
+    assertTrue (aValidator.isValidContent (aIS));
+    assertEquals (0, aIS.available ());
+
+    final ByteBuffer aDirect = ByteBuffer.allocateDirect (aXML.length);
+    aDirect.put (aXML).flip ();
+    assertTrue (aValidator.isValidContent (aDirect));
+    assertEquals (0, aDirect.position ());
+
+    final Path aPath = Files.createTempFile ("phive", ".xml");
+    try
+    {
+      Files.write (aPath, aXML);
+      assertTrue (aValidator.isValidContent (aPath));
+    }
+    finally
+    {
+      Files.delete (aPath);
+    }
+  }
+
+  @Test
+  public void testNotWellFormed ()
+  {
+    final FullParseContentValidatorXML aValidator = new FullParseContentValidatorXML ();
+    final byte [] aXML = _utf8 ("<?xml version=\"1.0\"?><root><a>text</a></root>");
+    assertFalse (aValidator.isValidContent (aXML, 0, aXML.length - 1));
+    assertFalse (aValidator.isValidContent (_utf8 ("<root><a></root></a>")));
+    assertFalse (aValidator.isValidContent (_utf8 ("<root a=\"1\" a=\"2\"/>")));
+    assertFalse (aValidator.isValidContent (_utf8 ("<root/><root/>")));
+    assertFalse (aValidator.isValidContent (_utf8 ("<root>&undefined;</root>")));
+    assertFalse (aValidator.isValidContent (new byte [0]));
+    // Still working after errors
+    assertTrue (aValidator.isValidContent (aXML));
+  }
+
+  @Test
+  public void testEntityExpansion ()
+  {
+    final FullParseContentValidatorXML aValidator = new FullParseContentValidatorXML ();
+    final StringBuilder aSB = new StringBuilder ("<?xml version=\"1.0\"?>\n<!DOCTYPE lolz [\n<!ENTITY lol0 \"lol\">\n");
+    for (int i = 1; i < 10; ++i)
+    {
+      aSB.append ("<!ENTITY lol").append (i).append (" \"");
+      for (int j = 0; j < 10; ++j)
+        aSB.append ("&lol").append (i - 1).append (';');
+      aSB.append ("\">\n");
+    }
+    aSB.append ("]>\n<lolz>&lol9;</lolz>");
+    assertFalse (aValidator.isValidContent (_utf8 (aSB.toString ())));
+  }
+
+  @Test
+  public void testExternalEntity ()
+  {
+    final FullParseContentValidatorXML aValidator = new FullParseContentValidatorXML ();
+    // The external entity and the external DTD are never resolved
+    assertTrue (aValidator.isValidContent (_utf8 ("<?xml version=\"1.0\"?>\n" +
+                                                  "<!DOCTYPE root SYSTEM \"http://localhost:1/does-not-exist.dtd\" [\n" +
+                                                  "<!ENTITY xxe SYSTEM \"file:///does/not/exist\">\n" +
+                                                  "]>\n" +
+                                                  "<root>&xxe;</root>")));
+  }
+
+  @Test
+  public void testPooledReaders () throws Exception
+  {
+    final FullParseContentValidatorXML aValidator = new FullParseContentValidatorXML ();
+    final byte [] aXML = _utf8 ("<root><a>text</a></root>");
+    final byte [] aBroken = _utf8 ("<root><a>text</root>");
+
+    // Each task runs on its own thread, as with virtual threads
+    final ExecutorService aES = Executors.newFixedThreadPool (FullParseContentValidatorXML.MAX_POOLED_READERS * 2);
+    try
+    {
+      final ICommonsList <Future <Boolean>> aFutures = new CommonsArrayList <> ();
+      for (int i = 0; i < 200; ++i)
+      {
+        final boolean bValid = (i % 3) != 0;
+        aFutures.add (aES.submit ( () -> aValidator.isValidContent (bValid ? aXML : aBroken) == bValid));
+      }
+      for (final Future <Boolean> aFuture : aFutures)
+        assertTrue (aFuture.get ().booleanValue ());
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+    assertTrue (FullParseContentValidatorXML.getPooledReaderCount () > 0);
+    assertTrue (FullParseContentValidatorXML.getPooledReaderCount () <= FullParseContentValidatorXML.MAX_POOLED_READERS);
+  }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2024-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phive.binary.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.phive.binary.AbstractFileFormatDescriptor;
+import com.helger.phive.binary.AbstractPhiveHeadAndTailContentValidator;
+import com.helger.phive.binary.EPhiveContentValidationMode;
+import com.helger.phive.binary.IFileFormatDescriptor;
+import com.helger.phive.binary.IPhiveContentValidator;
+
+/**
+ * Test class for all {@link EPhiveContentValidationMode#HEAD_AND_TAIL} content validators.
+ *
+ * @author Philip Helger
+ */
+public final class HeadAndTailContentValidatorsTest
+{
+  private static byte [] _bytes (final String s)
+  {
+    return s.getBytes (StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Check that the valid content is accepted by the FULL_PARSE and the HEAD_AND_TAIL validator of the
+   * descriptor, and that the truncated content is rejected by the HEAD_AND_TAIL validator.
+   */
+  private static void _test (final IFileFormatDescriptor aDescriptor,
+                             final byte [] aValid,
+                             final int nTruncatedLen) throws IOException
+  {
+    final IPhiveContentValidator aValidator = aDescriptor.findContentValidator (EPhiveContentValidationMode.HEAD_AND_TAIL);
+    assertTrue (aDescriptor.findContentValidator (EPhiveContentValidationMode.FULL_PARSE).isValidContent (aValid));
+    assertTrue (aValidator.isValidContent (aValid));
+    assertTrue (aValidator.isValidContent (new ByteArrayInputStream (aValid)));
+
+    final byte [] aTruncated = Arrays.copyOf (aValid, nTruncatedLen);
+    assertFalse (aValidator.isValidContent (aTruncated));
+    assertFalse (aValidator.isValidContent (new ByteArrayInputStream (aTruncated)));
+
+    // Corrupted first byte
+    final byte [] aCorrupted = aValid.clone ();
+    aCorrupted[0] = 0;
+    assertFalse (aValidator.isValidContent (aCorrupted));
+
+    assertFalse (aValidator.isValidContent (new byte [0]));
+  }
+
+  @Test
+  public void testRanking ()
+  {
+    for (final IFileFormatDescriptor aDescriptor : new IFileFormatDescriptor [] { new FileFormatDescriptorCSV (),
+                                                                                 new FileFormatDescriptorGIF (),
+                                                                                 new FileFormatDescriptorJPG (),
+                                                                                 new FileFormatDescriptorPDF (),
+                                                                                 new FileFormatDescriptorPNG (),
+                                                                                 new FileFormatDescriptorPSD (),
+                                                                                 new FileFormatDescriptorTIFF (),
+                                                                                 new FileFormatDescriptorXLS (),
+                                                                                 new FileFormatDescriptorXLSX (),
+                                                                                 new FileFormatDescriptorXML () })
+    {
+      assertTrue (aDescriptor.findContentValidator (EPhiveContentValidationMode.HEAD_AND_TAIL) instanceof AbstractPhiveHeadAndTailContentValidator);
+      assertSame (aDescriptor.findContentValidator (EPhiveContentValidationMode.LEADING_BYTES),
+                  aDescriptor.getContentValidatorFavourSpeed ());
+      assertSame (aDescriptor.findContentValidator (EPhiveContentValidationMode.FULL_PARSE),
+                  aDescriptor.getContentValidatorFavourAccuracy ());
+    }
+
+    // HEAD_AND_TAIL is in between
+    final IPhiveContentValidator aHeadAndTail = new HeadAndTailContentValidatorPNG ();
+    final Map <EPhiveContentValidationMode, IPhiveContentValidator> aValidators = new CommonsHashMap <> ();
+    aValidators.put (EPhiveContentValidationMode.HEAD_AND_TAIL, aHeadAndTail);
+    aValidators.put (EPhiveContentValidationMode.FULL_PARSE, new FullParseContentValidatorPNG ());
+    final IFileFormatDescriptor aDescriptor = new AbstractFileFormatDescriptor ("test",
+                                                                                null,
+                                                                                new CommonsArrayList <> ("png"),
+                                                                                new CommonsArrayList <> ("image/png"),
+                                                                                aValidators)
+    {};
+    assertSame (aHeadAndTail, aDescriptor.getContentValidatorFavourSpeed ());
+    aValidators.remove (EPhiveContentValidationMode.FULL_PARSE);
+    aValidators.put (EPhiveContentValidationMode.LEADING_BYTES, new LeadingBytesContentValidatorCSV ());
+    final IFileFormatDescriptor aDescriptor2 = new AbstractFileFormatDescriptor ("test",
+                                                                                 null,
+                                                                                 new CommonsArrayList <> ("png"),
+                                                                                 new CommonsArrayList <> ("image/png"),
+                                                                                 aValidators)
+    {};
+    assertSame (aHeadAndTail, aDescriptor2.getContentValidatorFavourAccuracy ());
+  }
+
+  @Test
+  public void testPDF () throws IOException
+  {
+    final byte [] aPDF = ContentValidatorTestPayloads.createPDF ();
+    _test (new FileFormatDescriptorPDF (), aPDF, aPDF.length - 3);
+
+    // Trailing whitespace is fine
+    final byte [] aPDFWS = Arrays.copyOf (aPDF, aPDF.length + 3);
+    aPDFWS[aPDF.length] = '\r';
+    aPDFWS[aPDF.length + 1] = '\n';
+    aPDFWS[aPDF.length + 2] = ' ';
+    assertTrue (new HeadAndTailContentValidatorPDF ().isValidContent (aPDFWS));
+
+    // Trailing bytes after "%%EOF" are accepted by both modes, as long as the marker is in the tail
+    final byte [] aPDFJunk = Arrays.copyOf (aPDF, aPDF.length + 500);
+    Arrays.fill (aPDFJunk, aPDF.length, aPDFJunk.length, (byte) 'x');
+    assertTrue (new HeadAndTailContentValidatorPDF ().isValidContent (aPDFJunk));
+    assertTrue (new FullParseContentValidatorPDF ().isValidContent (aPDFJunk));
+
+    final byte [] aPDFTooMuchJunk = Arrays.copyOf (aPDF, aPDF.length + 1024);
+    assertFalse (new HeadAndTailContentValidatorPDF ().isValidContent (aPDFTooMuchJunk));
+    assertFalse (new FullParseContentValidatorPDF ().isValidContent (aPDFTooMuchJunk));
+  }
+
+  @Test
+  public void testPNG () throws IOException
+  {
+    final byte [] aPNG = ContentValidatorTestPayloads.createPNG ();
+    _test (new FileFormatDescriptorPNG (), aPNG, aPNG.length - 1);
+  }
+
+  @Test
+  public void testJPG () throws IOException
+  {
+    final byte [] aJPG = ContentValidatorTestPayloads.createJPG ();
+    _test (new FileFormatDescriptorJPG (), aJPG, aJPG.length - 1);
+
+    // Trailing bytes after EOI are accepted by both modes
+    final byte [] aPadded = Arrays.copyOf (aJPG, aJPG.length + 100);
+    Arrays.fill (aPadded, aJPG.length + 50, aPadded.length, (byte) 'x');
+    assertTrue (new HeadAndTailContentValidatorJPG ().isValidContent (aPadded));
+    assertTrue (new FullParseContentValidatorJPG ().isValidContent (aPadded));
+  }
+
+  @Test
+  public void testGIF () throws IOException
+  {
+    final byte [] aGIF = ContentValidatorTestPayloads.createGIF (2);
+    _test (new FileFormatDescriptorGIF (), aGIF, aGIF.length - 1);
+
+    // Trailing bytes after the trailer are accepted by both modes
+    final byte [] aPadded = Arrays.copyOf (aGIF, aGIF.length + 100);
+    Arrays.fill (aPadded, aGIF.length + 50, aPadded.length, (byte) 'x');
+    assertTrue (new HeadAndTailContentValidatorGIF ().isValidContent (aPadded));
+    assertTrue (new FullParseContentValidatorGIF ().isValidContent (aPadded));
+  }
+
+  @Test
+  public void testTIFF () throws IOException
+  {
+    final byte [] aTIFF = ContentValidatorTestPayloads.createTIFF (1, ByteOrder.BIG_ENDIAN);
+    _test (new FileFormatDescriptorTIFF (), aTIFF, 8);
+    _test (new FileFormatDescriptorTIFF (),
+           ContentValidatorTestPayloads.createTIFF (2, ByteOrder.LITTLE_ENDIAN),
+           8);
+    _test (new FileFormatDescriptorTIFF (), ContentValidatorTestPayloads.createBigTIFF (), 16);
+  }
+
+  @Test
+  public void testXLSX () throws IOException
+  {
+    final byte [] aXLSX = ContentValidatorTestPayloads.createXLSX ("[Content_Types].xml", "xl/workbook.xml");
+    _test (new FileFormatDescriptorXLSX (), aXLSX, aXLSX.length - 1);
+  }
+
+  @Test
+  public void testXLSXZip64 () throws IOException
+  {
+    // More than 65535 entries force the ZIP64 End Of Central Directory record
+    final String [] aEntries = new String [0x10000];
+    aEntries[0] = "[Content_Types].xml";
+    aEntries[1] = "xl/workbook.xml";
+    for (int i = 2; i < aEntries.length; ++i)
+      aEntries[i] = "xl/media/e" + i;
+    final byte [] aXLSX = ContentValidatorTestPayloads.createXLSX (aEntries);
+    final HeadAndTailContentValidatorXLSX aValidator = new HeadAndTailContentValidatorXLSX ();
+    assertTrue (new FullParseContentValidatorXLSX ().isValidContent (aXLSX));
+    assertTrue (aValidator.isValidContent (aXLSX));
+
+    // The locator directly precedes the End Of Central Directory record with the comment "comment"
+    final int nLocatorPos = aXLSX.length - 22 - 7 - 20;
+    final ByteBuffer aBB = ByteBuffer.wrap (aXLSX).order (ByteOrder.LITTLE_ENDIAN);
+    assertEquals (0x07064b50, aBB.getInt (nLocatorPos));
+
+    // ZIP64 End Of Central Directory record offset outside of the file
+    final byte [] aBadOffset = aXLSX.clone ();
+    ByteBuffer.wrap (aBadOffset).order (ByteOrder.LITTLE_ENDIAN).putLong (nLocatorPos + 8, aXLSX.length);
+    assertFalse (aValidator.isValidContent (aBadOffset));
+
+    // Missing locator
+    final byte [] aNoLocator = aXLSX.clone ();
+    aNoLocator[nLocatorPos] = 0;
+    assertFalse (aValidator.isValidContent (aNoLocator));
+    assertFalse (aValidator.isValidContent (new ByteArrayInputStream (aNoLocator)));
+
+    // The locator would be located before the start of the file
+    final byte [] aEOCDOnly = Arrays.copyOfRange (aXLSX, aXLSX.length - 22 - 7, aXLSX.length);
+    final byte [] aShort = new byte [30 + aEOCDOnly.length];
+    System.arraycopy (aXLSX, 0, aShort, 0, 30);
+    System.arraycopy (aEOCDOnly, 0, aShort, 30, aEOCDOnly.length);
+    assertFalse (aValidator.isValidContent (aShort));
+  }
+
+  @Test
+  public void testXLS () throws IOException
+  {
+    _test (new FileFormatDescriptorXLS (), ContentValidatorTestPayloads.createXLS (), 512);
+  }
+
+  @Test
+  public void testXML () throws IOException
+  {
+    final byte [] aXML = _bytes ("<?xml version=\"1.0\"?>\n<root><a/></root>\n");
+    _test (new FileFormatDescriptorXML (), aXML, aXML.length - 3);
+
+    final HeadAndTailContentValidatorXML aValidator = new HeadAndTailContentValidatorXML ();
+    assertTrue (aValidator.isValidContent ("<?xml version=\"1.0\" encoding=\"UTF-16LE\"?><r/>\r\n".getBytes (StandardCharsets.UTF_16LE)));
+    assertTrue (aValidator.isValidContent ("<?xml version=\"1.0\" encoding=\"UTF-16\"?><r/>".getBytes (StandardCharsets.UTF_16)));
+    assertFalse (aValidator.isValidContent (_bytes ("<root/>")));
+  }
+
+  @Test
+  public void testCSV () throws IOException
+  {
+    final StringBuilder aSB = new StringBuilder ("a,b,c\r\n");
+    for (int i = 0; i < 1000; ++i)
+      aSB.append (i).append (",\"x").append (i).append ("\",y\r\n");
+    final byte [] aCSV = _bytes (aSB.toString ());
+    // Truncated inside of a quoted field
+    _test (new FileFormatDescriptorCSV (), aCSV, aSB.indexOf ("\"x0") + 2);
+
+    final HeadAndTailContentValidatorCSV aValidator = new HeadAndTailContentValidatorCSV ();
+    // Binary data at the end
+    final byte [] aBinaryTail = aCSV.clone ();
+    aBinaryTail[aBinaryTail.length - 5] = 0;
+    assertFalse (aValidator.isValidContent (aBinaryTail));
+    // Short content is scanned completely
+    assertTrue (aValidator.isValidContent (_bytes ("a,b\n1,2\n")));
+    // Single column and empty lines, like FULL_PARSE
+    assertTrue (aValidator.isValidContent (_bytes ("name\nJohn\n\n")));
+    assertFalse (aValidator.isValidContent (_bytes ("a,b\n1,2,3\n")));
+    assertTrue (new HeadAndTailContentValidatorCSV (';').isValidContent (_bytes ("a;b\n1;2\n")));
+  }
+
+  @Test
+  public void testPSD () throws IOException
+  {
+    _test (new FileFormatDescriptorPSD (), ContentValidatorTestPayloads.createPSD (false, 0), 26);
+    _test (new FileFormatDescriptorPSD (), ContentValidatorTestPayloads.createPSD (true, 1), 30);
+  }
+}